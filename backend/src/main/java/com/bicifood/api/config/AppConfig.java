@@ -1,6 +1,8 @@
 package com.bicifood.api.config;
 
-import org.modelmapper.ModelMapper;
+import com.bicifood.api.dto.ComandaDto;
+import com.bicifood.api.service.MagatzemIdempotencia;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -21,26 +23,21 @@ import java.util.Arrays;
 public class AppConfig {
 
     /**
-     * Bean per a ModelMapper - mapejat entre entitats i DTOs
+     * Bean per a l'encoder de contrasenyes
      */
     @Bean
-    public ModelMapper modelMapper() {
-        ModelMapper mapper = new ModelMapper();
-        
-        // Configuracions específiques si cal
-        mapper.getConfiguration()
-                .setFieldMatchingEnabled(true)
-                .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
-        
-        return mapper;
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
     }
 
     /**
-     * Bean per a l'encoder de contrasenyes
+     * Claus d'idempotència de la creació de comandes (capçalera Idempotency-Key)
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public MagatzemIdempotencia<ComandaDto> idempotenciaComandes(
+            @Value("${app.idempotencia.maxim-claus:10000}") int maximClaus,
+            @Value("${app.idempotencia.ttl-segons:86400}") long ttlSegons) {
+        return new MagatzemIdempotencia<>(maximClaus, ttlSegons * 1000);
     }
 
     /**
@@ -53,6 +50,7 @@ public class AppConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("ETag", "Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
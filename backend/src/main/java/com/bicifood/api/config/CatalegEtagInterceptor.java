@@ -0,0 +1,33 @@
+package com.bicifood.api.config;
+
+import com.bicifood.api.service.CatalegProductes;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor de GET condicionals per als endpoints del catàleg.
+ * Afegeix l'ETag de la versió del catàleg i respon 304 quan coincideix amb
+ * If-None-Match, abans d'executar cap consulta ni conversió a DTO.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class CatalegEtagInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private CatalegProductes cataleg;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        // checkNotModified escriu l'ETag a la resposta i, si coincideix, l'estat 304
+        return !new ServletWebRequest(request, response).checkNotModified(cataleg.etag());
+    }
+}
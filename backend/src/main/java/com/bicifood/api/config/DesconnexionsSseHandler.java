@@ -0,0 +1,27 @@
+package com.bicifood.api.config;
+
+import com.bicifood.api.controller.ComandaController;
+import com.bicifood.api.controller.LliuramentController;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+
+import java.io.IOException;
+
+/**
+ * Gestió dels clients SSE que es desconnecten.
+ * Una connexió tancada pel client només es detecta en escriure-hi (un canvi d'estat o un
+ * batec); l'error arriba com a excepció de la petició asíncrona i, sense aquest handler, el
+ * contenidor l'escriu com a error amb la traça sencera per cada client.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@RestControllerAdvice(assignableTypes = {ComandaController.class, LliuramentController.class})
+public class DesconnexionsSseHandler {
+
+    @ExceptionHandler({AsyncRequestNotUsableException.class, IOException.class})
+    public void clientDesconnectat(Exception e) {
+        // La resposta ja està tancada: no hi ha res a escriure ni a desfer
+    }
+}
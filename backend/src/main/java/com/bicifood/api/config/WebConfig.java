@@ -0,0 +1,31 @@
+package com.bicifood.api.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuració de Spring MVC
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private CatalegEtagInterceptor catalegEtagInterceptor;
+
+    /**
+     * Registra els interceptors de l'API
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Les respostes del catàleg només depenen de la versió del catàleg;
+        // els productes populars depenen de les comandes i en queden fora
+        registry.addInterceptor(catalegEtagInterceptor)
+                .addPathPatterns("/products/**", "/categories/**")
+                .excludePathPatterns("/products/popular");
+    }
+}
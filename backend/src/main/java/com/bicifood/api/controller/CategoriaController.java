@@ -2,10 +2,12 @@ package com.bicifood.api.controller;
 
 import com.bicifood.api.entity.Categoria;
 import com.bicifood.api.dto.CategoriaDto;
+import com.bicifood.api.dto.CategoriaResumDto;
+import com.bicifood.api.mapper.CategoriaMapper;
+import com.bicifood.api.service.CatalegSnapshot;
 import com.bicifood.api.service.CategoriaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -29,7 +31,7 @@ public class CategoriaController {
     private CategoriaService categoriaService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CategoriaMapper categoriaMapper;
 
     /**
      * Obté totes les categories
@@ -39,12 +41,27 @@ public class CategoriaController {
     public ResponseEntity<List<CategoriaDto>> getAllCategories() {
         List<Categoria> categories = categoriaService.findAll();
         List<CategoriaDto> categoriesDto = categories.stream()
-                .map(categoria -> modelMapper.map(categoria, CategoriaDto.class))
+                .map(categoriaMapper::toDto)
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(categoriesDto);
     }
 
+    /**
+     * Obté totes les categories amb el nombre de productes de cadascuna
+     */
+    @GetMapping("/summary")
+    @Operation(summary = "Resum de categories", description = "Retorna totes les categories amb el total de productes i els que tenen stock")
+    public ResponseEntity<List<CategoriaResumDto>> getCategorySummary() {
+        CatalegSnapshot cataleg = categoriaService.findCataleg();
+        List<CategoriaResumDto> resums = cataleg.getCategories().stream()
+                .map(categoria -> categoriaMapper.toResumDto(categoria, cataleg.comptarProductes(categoria.getId()),
+                        cataleg.comptarProductesAmbStock(categoria.getId())))
+                .collect(Collectors.toList());
+        
+        return ResponseEntity.ok(resums);
+    }
+
     /**
      * Obté una categoria per ID
      */
@@ -54,7 +71,7 @@ public class CategoriaController {
         Categoria categoria = categoriaService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Categoria no trobada amb ID: " + id));
         
-        CategoriaDto categoriaDto = modelMapper.map(categoria, CategoriaDto.class);
+        CategoriaDto categoriaDto = categoriaMapper.toDto(categoria);
         return ResponseEntity.ok(categoriaDto);
     }
 }
\ No newline at end of file
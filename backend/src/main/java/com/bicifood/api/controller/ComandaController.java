@@ -0,0 +1,237 @@
+package com.bicifood.api.controller;
+
+import com.bicifood.api.dto.CancellacioComandesDto;
+import com.bicifood.api.dto.ComandaDto;
+import com.bicifood.api.dto.PaginaCursorDto;
+import com.bicifood.api.dto.PlaViatgesDto;
+import com.bicifood.api.dto.ResultatTransicioDto;
+import com.bicifood.api.dto.SeguimentComandaDto;
+import com.bicifood.api.dto.TransicioEstatDto;
+import com.bicifood.api.entity.Comanda;
+import com.bicifood.api.mapper.ComandaMapper;
+import com.bicifood.api.model.ResultatTransicio;
+import com.bicifood.api.service.ComandaService;
+import com.bicifood.api.service.DifusioEstatsComandes;
+import com.bicifood.api.service.EscriptorComandes;
+import com.bicifood.api.service.MagatzemIdempotencia;
+import com.bicifood.api.service.PlanificadorViatges;
+import com.bicifood.api.service.RecepcioComandes;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Controller REST per gestionar comandes
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/orders")
+@Tag(name = "Comandes", description = "API per gestionar comandes")
+@CrossOrigin(origins = "*")
+public class ComandaController {
+
+    private static final int MIDA_MAXIMA = 100;
+
+    @Autowired
+    private ComandaService comandaService;
+
+    @Autowired
+    private ComandaMapper comandaMapper;
+
+    @Autowired
+    private MagatzemIdempotencia<ComandaDto> idempotenciaComandes;
+
+    @Autowired
+    private RecepcioComandes recepcioComandes;
+
+    @Autowired
+    private EscriptorComandes escriptorComandes;
+
+    @Autowired
+    private PlanificadorViatges planificadorViatges;
+
+    @Autowired
+    private DifusioEstatsComandes difusioEstats;
+
+    /**
+     * Crea una comanda amb les seves línies.
+     * Amb la capçalera Idempotency-Key, els reintents de la mateixa petició retornen la
+     * comanda ja creada sense tornar-la a processar.
+     */
+    @PostMapping
+    @Operation(summary = "Crear comanda", description = "Crea una comanda amb línies; admet la capçalera Idempotency-Key per reintentar sense duplicar")
+    public ResponseEntity<ComandaDto> createOrder(
+            @Parameter(description = "Clau d'idempotència generada pel client") @RequestHeader(value = "Idempotency-Key", required = false) String clau,
+            @Parameter(description = "ID de la reserva d'stock feta al checkout") @RequestParam(required = false) String reserva,
+            @Valid @RequestBody ComandaDto comandaDto) {
+        try {
+            if (clau == null || clau.isBlank()) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(crearComanda(comandaDto, reserva));
+            }
+            MagatzemIdempotencia.Resultat<ComandaDto> resultat = idempotenciaComandes.executar(
+                    clau, comandaMapper.empremta(comandaDto, reserva), () -> crearComanda(comandaDto, reserva));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header("Idempotent-Replayed", String.valueOf(resultat.repetit()))
+                    .body(resultat.valor());
+        } catch (MagatzemIdempotencia.ClauReutilitzadaException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Accepta una comanda per processar-la en segon pla.
+     * Respon 202 amb un identificador de seguiment; el resultat es consulta a /orders/requests/{id}.
+     */
+    @PostMapping("/async")
+    @Operation(summary = "Crear comanda en segon pla", description = "Valida la comanda, la posa a la cua i respon 202 amb un identificador de seguiment")
+    public ResponseEntity<SeguimentComandaDto> createOrderAsync(
+            @Parameter(description = "ID de la reserva d'stock feta al checkout") @RequestParam(required = false) String reserva,
+            @Valid @RequestBody ComandaDto comandaDto) {
+        try {
+            return recepcioComandes.encuar(comandaMapper.toEntity(comandaDto), comandaMapper.toLinies(comandaDto), reserva)
+                    .map(seguiment -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                            .header(HttpHeaders.LOCATION, "/api/v1/orders/requests/" + seguiment.id())
+                            .body(comandaMapper.toDto(seguiment)))
+                    .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .build());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obté l'estat d'una comanda enviada en segon pla
+     */
+    @GetMapping("/requests/{id}")
+    @Operation(summary = "Estat d'una comanda en segon pla", description = "Retorna l'estat de la petició i, quan s'ha completat, l'ID de la comanda")
+    public ResponseEntity<SeguimentComandaDto> getOrderRequest(
+            @Parameter(description = "Identificador de seguiment") @PathVariable String id) {
+        return recepcioComandes.findById(id)
+                .map(seguiment -> ResponseEntity.ok(comandaMapper.toDto(seguiment)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Canvia l'estat de diverses comandes alhora
+     */
+    @PostMapping("/status")
+    @Operation(summary = "Canviar l'estat de diverses comandes", description = "Aplica la mateixa transició d'estat a una llista de comandes i retorna el resultat de cadascuna")
+    public ResponseEntity<List<ResultatTransicioDto>> updateOrdersStatus(@Valid @RequestBody TransicioEstatDto transicioDto) {
+        try {
+            List<ResultatTransicio> resultats = comandaService.updateEstatMassiu(
+                    transicioDto.getComandaIds(), transicioDto.getEstatId());
+            return ResponseEntity.ok(resultats.stream().map(comandaMapper::toDto).toList());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Cancel·la diverses comandes alhora
+     */
+    @PostMapping("/cancel")
+    @Operation(summary = "Cancel·lar diverses comandes", description = "Cancel·la i elimina les comandes PENDENT indicades, restaura l'stock i retorna el resultat de cadascuna")
+    public ResponseEntity<List<ResultatTransicioDto>> cancelOrders(@Valid @RequestBody CancellacioComandesDto cancellacioDto) {
+        try {
+            List<ResultatTransicio> resultats = comandaService.cancellarComandes(cancellacioDto.getComandaIds());
+            return ResponseEntity.ok(resultats.stream().map(comandaMapper::toDto).toList());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Agrupa en viatges les comandes en preparació
+     */
+    @GetMapping("/trips")
+    @Operation(summary = "Planificar viatges", description = "Agrupa les comandes PREPARANT en viatges per proximitat de codi postal, hora i capacitat de la bossa, amb un informe comparat amb una comanda per viatge")
+    public ResponseEntity<PlaViatgesDto> getTrips() {
+        return ResponseEntity.ok(comandaMapper.toDto(planificadorViatges.planificar()));
+    }
+
+    /**
+     * Obté una comanda per ID
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtenir comanda per ID", description = "Retorna una comanda amb les seves línies")
+    public ResponseEntity<ComandaDto> getOrderById(
+            @Parameter(description = "ID de la comanda") @PathVariable Integer id) {
+        return comandaService.findById(id)
+                .map(comanda -> ResponseEntity.ok(comandaMapper.toDto(comanda)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Obre un flux SSE amb els canvis d'estat d'una comanda
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Seguiment en directe d'una comanda", description = "Flux Server-Sent Events: envia l'estat actual i després cada canvi d'estat; es tanca quan la comanda es lliura o es cancel·la")
+    public ResponseEntity<SseEmitter> streamOrderStatus(
+            @Parameter(description = "ID de la comanda") @PathVariable Integer id) {
+        return comandaService.findNomEstat(id)
+                .map(estat -> difusioEstats.subscriureComanda(id, estat)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "5")
+                                .build()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Obté les comandes més recents amb paginació per cursor
+     */
+    @GetMapping("/scroll")
+    @Operation(summary = "Llistar comandes per cursor", description = "Retorna comandes de la més recent a la més antiga amb paginació keyset")
+    public ResponseEntity<PaginaCursorDto<ComandaDto>> scrollOrders(
+            @Parameter(description = "Cursor de la pàgina anterior (buit per a la primera)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Mida de la pàgina") @RequestParam(defaultValue = "20") Integer size) {
+        try {
+            PaginaCursorDto<Comanda> comandes = comandaService.findAllKeyset(cursor, midaValida(size));
+            return ResponseEntity.ok(comandes.map(comandaMapper::toDto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obté les comandes d'un client amb paginació per cursor
+     */
+    @GetMapping("/client/{clientId}/scroll")
+    @Operation(summary = "Comandes d'un client per cursor", description = "Retorna les comandes d'un client de la més recent a la més antiga")
+    public ResponseEntity<PaginaCursorDto<ComandaDto>> scrollOrdersByClient(
+            @Parameter(description = "ID del client") @PathVariable Integer clientId,
+            @Parameter(description = "Cursor de la pàgina anterior (buit per a la primera)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Mida de la pàgina") @RequestParam(defaultValue = "20") Integer size) {
+        try {
+            PaginaCursorDto<Comanda> comandes = comandaService.findByClientKeyset(clientId, cursor, midaValida(size));
+            return ResponseEntity.ok(comandes.map(comandaMapper::toDto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private ComandaDto crearComanda(ComandaDto comandaDto, String reserva) {
+        Comanda comanda = escriptorComandes.crear(
+                comandaMapper.toEntity(comandaDto), comandaMapper.toLinies(comandaDto), reserva);
+        return comandaMapper.toDto(comanda);
+    }
+
+    private static int midaValida(Integer size) {
+        return Math.max(1, Math.min(size, MIDA_MAXIMA));
+    }
+}
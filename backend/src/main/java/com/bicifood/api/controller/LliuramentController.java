@@ -0,0 +1,96 @@
+package com.bicifood.api.controller;
+
+import com.bicifood.api.dto.LliuramentAssignatDto;
+import com.bicifood.api.dto.ResumRepartidorDto;
+import com.bicifood.api.dto.TempsLliuramentDto;
+import com.bicifood.api.mapper.LliuramentMapper;
+import com.bicifood.api.service.DifusioEstatsComandes;
+import com.bicifood.api.service.TaulerRepartidors;
+import com.bicifood.api.service.TempsLliurament;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Controller REST per als lliuraments, pensat per a l'app dels repartidors.
+ * Llegeix del tauler i dels histogrames en memòria i no fa consultes a la base de dades; el
+ * flux SSE de cada repartidor s'alimenta del mateix tauler.
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/deliveries")
+@Tag(name = "Lliuraments", description = "API de consulta de la feina dels repartidors")
+@CrossOrigin(origins = "*")
+public class LliuramentController {
+
+    @Autowired
+    private TaulerRepartidors taulerRepartidors;
+
+    @Autowired
+    private TempsLliurament tempsLliurament;
+
+    @Autowired
+    private DifusioEstatsComandes difusioEstats;
+
+    @Autowired
+    private LliuramentMapper lliuramentMapper;
+
+    /**
+     * Obté els lliuraments pendents d'un repartidor
+     */
+    @GetMapping("/riders/{repartidorId}/pending")
+    @Operation(summary = "Lliuraments pendents d'un repartidor", description = "Retorna els lliuraments assignats i no lliurats, en ordre d'assignació")
+    public ResponseEntity<List<LliuramentAssignatDto>> getPendingDeliveries(
+            @Parameter(description = "ID del repartidor") @PathVariable Integer repartidorId) {
+        List<LliuramentAssignatDto> pendents = taulerRepartidors.getFitxa(repartidorId).pendents().stream()
+                .map(lliuramentMapper::toDto)
+                .toList();
+        return ResponseEntity.ok(pendents);
+    }
+
+    /**
+     * Obté els comptadors de feina d'un repartidor
+     */
+    @GetMapping("/riders/{repartidorId}/summary")
+    @Operation(summary = "Resum d'un repartidor", description = "Retorna el nombre de lliuraments pendents i completats")
+    public ResponseEntity<ResumRepartidorDto> getRiderSummary(
+            @Parameter(description = "ID del repartidor") @PathVariable Integer repartidorId) {
+        TaulerRepartidors.Fitxa fitxa = taulerRepartidors.getFitxa(repartidorId);
+        return ResponseEntity.ok(lliuramentMapper.toResumDto(repartidorId, fitxa.pendents().size(), fitxa.completats()));
+    }
+
+    /**
+     * Obre un flux SSE amb les assignacions i els canvis d'estat de les comandes d'un repartidor
+     */
+    @GetMapping(value = "/riders/{repartidorId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Seguiment en directe d'un repartidor", description = "Flux Server-Sent Events amb els lliuraments que se li assignen i els canvis d'estat de les seves comandes")
+    public ResponseEntity<SseEmitter> streamRiderEvents(
+            @Parameter(description = "ID del repartidor") @PathVariable Integer repartidorId) {
+        return difusioEstats.subscriureRepartidor(repartidorId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build());
+    }
+
+    /**
+     * Obté els percentils del temps de lliurament
+     */
+    @GetMapping("/times")
+    @Operation(summary = "Temps de lliurament", description = "Retorna p50/p95/p99 del temps des de l'assignació fins al lliurament, globals, per repartidor, per codi postal i per hora")
+    public ResponseEntity<TempsLliuramentDto> getDeliveryTimes() {
+        return ResponseEntity.ok(lliuramentMapper.toDto(tempsLliurament.getGlobal(), tempsLliurament.getPerRepartidor(),
+                tempsLliurament.getPerCodiPostal(), tempsLliurament.getPerHora()));
+    }
+}
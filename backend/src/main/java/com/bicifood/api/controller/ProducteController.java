@@ -1,16 +1,17 @@
 package com.bicifood.api.controller;
 
 import com.bicifood.api.entity.Producte;
+import com.bicifood.api.dto.PaginaCursorDto;
 import com.bicifood.api.dto.ProducteDto;
+import com.bicifood.api.mapper.ProducteMapper;
 import com.bicifood.api.service.ProducteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -33,26 +34,45 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class ProducteController {
 
+    private static final int MIDA_MAXIMA = 100;
+
     @Autowired
     private ProducteService producteService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ProducteMapper producteMapper;
 
     /**
      * Obté tots els productes amb paginació
      */
     @GetMapping
     @Operation(summary = "Llistar productes", description = "Retorna una llista paginada de tots els productes")
-    public ResponseEntity<Page<ProducteDto>> getAllProducts(
+    public ResponseEntity<Slice<ProducteDto>> getAllProducts(
+            @Parameter(description = "Si és false, retorna un Slice sense total (sense consulta COUNT)") @RequestParam(defaultValue = "true") boolean total,
             @PageableDefault(size = 20) Pageable pageable) {
         
-        Page<Producte> productes = producteService.findAll(pageable);
-        Page<ProducteDto> productesDto = productes.map(this::convertToDto);
+        Slice<Producte> productes = total ? producteService.findAll(pageable) : producteService.findAllSlice(pageable);
+        Slice<ProducteDto> productesDto = productes.map(this::convertToDto);
         
         return ResponseEntity.ok(productesDto);
     }
 
+    /**
+     * Obté tots els productes amb paginació per cursor
+     */
+    @GetMapping("/scroll")
+    @Operation(summary = "Llistar productes per cursor", description = "Retorna productes ordenats per ID amb paginació keyset, sense total")
+    public ResponseEntity<PaginaCursorDto<ProducteDto>> scrollProducts(
+            @Parameter(description = "Cursor de la pàgina anterior (buit per a la primera)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Mida de la pàgina") @RequestParam(defaultValue = "20") Integer size) {
+        try {
+            PaginaCursorDto<Producte> productes = producteService.findAllKeyset(cursor, midaValida(size));
+            return ResponseEntity.ok(productes.map(this::convertToDto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Obté un producte per ID
      */
@@ -127,12 +147,14 @@ public class ProducteController {
      */
     @GetMapping("/search")
     @Operation(summary = "Cercar productes", description = "Cerca productes per nom o descripció")
-    public ResponseEntity<Page<ProducteDto>> searchProducts(
+    public ResponseEntity<Slice<ProducteDto>> searchProducts(
             @Parameter(description = "Terme de cerca") @RequestParam String term,
+            @Parameter(description = "Si és false, retorna un Slice sense total (sense consulta COUNT)") @RequestParam(defaultValue = "true") boolean total,
             @PageableDefault(size = 20) Pageable pageable) {
         
-        Page<Producte> productes = producteService.searchProducts(term, pageable);
-        Page<ProducteDto> productesDto = productes.map(this::convertToDto);
+        Slice<Producte> productes = total ? producteService.searchProducts(term, pageable) :
+                producteService.searchProductsSlice(term, pageable);
+        Slice<ProducteDto> productesDto = productes.map(this::convertToDto);
         
         return ResponseEntity.ok(productesDto);
     }
@@ -142,16 +164,35 @@ public class ProducteController {
      */
     @GetMapping("/category/{categoryId}")
     @Operation(summary = "Productes per categoria", description = "Retorna productes d'una categoria específica")
-    public ResponseEntity<Page<ProducteDto>> getProductsByCategory(
+    public ResponseEntity<Slice<ProducteDto>> getProductsByCategory(
             @Parameter(description = "ID de la categoria") @PathVariable Integer categoryId,
+            @Parameter(description = "Si és false, retorna un Slice sense total (sense consulta COUNT)") @RequestParam(defaultValue = "true") boolean total,
             @PageableDefault(size = 20) Pageable pageable) {
         
-        Page<Producte> productes = producteService.findByCategoria(categoryId, pageable);
-        Page<ProducteDto> productesDto = productes.map(this::convertToDto);
+        Slice<Producte> productes = total ? producteService.findByCategoria(categoryId, pageable) :
+                producteService.findByCategoriaSlice(categoryId, pageable);
+        Slice<ProducteDto> productesDto = productes.map(this::convertToDto);
         
         return ResponseEntity.ok(productesDto);
     }
 
+    /**
+     * Obté productes per categoria amb paginació per cursor
+     */
+    @GetMapping("/category/{categoryId}/scroll")
+    @Operation(summary = "Productes per categoria per cursor", description = "Retorna productes d'una categoria amb paginació keyset, sense total")
+    public ResponseEntity<PaginaCursorDto<ProducteDto>> scrollProductsByCategory(
+            @Parameter(description = "ID de la categoria") @PathVariable Integer categoryId,
+            @Parameter(description = "Cursor de la pàgina anterior (buit per a la primera)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Mida de la pàgina") @RequestParam(defaultValue = "20") Integer size) {
+        try {
+            PaginaCursorDto<Producte> productes = producteService.findByCategoriaKeyset(categoryId, cursor, midaValida(size));
+            return ResponseEntity.ok(productes.map(this::convertToDto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Obté productes disponibles (amb stock)
      */
@@ -166,6 +207,21 @@ public class ProducteController {
         return ResponseEntity.ok(productesDto);
     }
 
+    /**
+     * Obté els productes disponibles d'una categoria
+     */
+    @GetMapping("/category/{categoryId}/available")
+    @Operation(summary = "Productes disponibles per categoria", description = "Retorna els productes amb stock d'una categoria específica")
+    public ResponseEntity<List<ProducteDto>> getAvailableProductsByCategory(
+            @Parameter(description = "ID de la categoria") @PathVariable Integer categoryId) {
+        List<Producte> productes = producteService.findAvailableProductsByCategory(categoryId);
+        List<ProducteDto> productesDto = productes.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        
+        return ResponseEntity.ok(productesDto);
+    }
+
     /**
      * Obté productes amb stock baix
      */
@@ -187,13 +243,15 @@ public class ProducteController {
      */
     @GetMapping("/price-range")
     @Operation(summary = "Filtrar per preu", description = "Filtra productes per rang de preus")
-    public ResponseEntity<Page<ProducteDto>> getProductsByPriceRange(
+    public ResponseEntity<Slice<ProducteDto>> getProductsByPriceRange(
             @Parameter(description = "Preu mínim") @RequestParam BigDecimal minPrice,
             @Parameter(description = "Preu màxim") @RequestParam BigDecimal maxPrice,
+            @Parameter(description = "Si és false, retorna un Slice sense total (sense consulta COUNT)") @RequestParam(defaultValue = "true") boolean total,
             @PageableDefault(size = 20) Pageable pageable) {
         
-        Page<Producte> productes = producteService.findByPreuRange(minPrice, maxPrice, pageable);
-        Page<ProducteDto> productesDto = productes.map(this::convertToDto);
+        Slice<Producte> productes = total ? producteService.findByPreuRange(minPrice, maxPrice, pageable) :
+                producteService.findByPreuRangeSlice(minPrice, maxPrice, pageable);
+        Slice<ProducteDto> productesDto = productes.map(this::convertToDto);
         
         return ResponseEntity.ok(productesDto);
     }
@@ -222,29 +280,26 @@ public class ProducteController {
     @GetMapping("/popular")
     @Operation(summary = "Productes populars", description = "Retorna els productes més populars")
     public ResponseEntity<List<ProducteDto>> getMostPopularProducts(
-            @Parameter(description = "Número màxim de resultats") @RequestParam(defaultValue = "10") Integer limit,
-            @PageableDefault(size = 10) Pageable pageable) {
+            @Parameter(description = "Número màxim de resultats") @RequestParam(defaultValue = "10") Integer limit) {
         
-        List<Producte> productes = producteService.findMostPopularProducts(pageable);
+        List<Producte> productes = producteService.findMostPopularProducts(limit);
         List<ProducteDto> productesDto = productes.stream()
-                .limit(limit)
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(productesDto);
     }
 
+    private static int midaValida(Integer size) {
+        return Math.max(1, Math.min(size, MIDA_MAXIMA));
+    }
+
     // Mètodes de conversió
     private ProducteDto convertToDto(Producte producte) {
-        ProducteDto dto = modelMapper.map(producte, ProducteDto.class);
-        if (producte.getCategoria() != null) {
-            dto.setCategoriaId(producte.getCategoria().getId());
-            dto.setCategoriaNom(producte.getCategoria().getNom());
-        }
-        return dto;
+        return producteMapper.toDto(producte);
     }
 
     private Producte convertToEntity(ProducteDto dto) {
-        return modelMapper.map(dto, Producte.class);
+        return producteMapper.toEntity(dto);
     }
 }
\ No newline at end of file
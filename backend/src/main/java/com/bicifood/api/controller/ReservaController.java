@@ -0,0 +1,70 @@
+package com.bicifood.api.controller;
+
+import com.bicifood.api.dto.ReservaDto;
+import com.bicifood.api.mapper.ReservaMapper;
+import com.bicifood.api.service.ReservesStock;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller REST per a les reserves temporals d'stock del checkout
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/reservations")
+@Tag(name = "Reserves", description = "API per reservar stock mentre el client paga")
+@CrossOrigin(origins = "*")
+public class ReservaController {
+
+    @Autowired
+    private ReservesStock reservesStock;
+
+    @Autowired
+    private ReservaMapper reservaMapper;
+
+    /**
+     * Reserva l'stock de la cistella durant el pagament
+     */
+    @PostMapping
+    @Operation(summary = "Crear reserva", description = "Reserva l'stock de les línies indicades fins que caduqui o es converteixi en comanda")
+    public ResponseEntity<ReservaDto> createReservation(@Valid @RequestBody ReservaDto reservaDto) {
+        try {
+            ReservesStock.Reserva reserva = reservesStock.reservar(reservaMapper.toQuantitats(reservaDto));
+            return ResponseEntity.status(HttpStatus.CREATED).body(reservaMapper.toDto(reserva));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obté una reserva vigent
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtenir reserva", description = "Retorna una reserva si encara és vigent")
+    public ResponseEntity<ReservaDto> getReservation(
+            @Parameter(description = "ID de la reserva") @PathVariable String id) {
+        return reservesStock.findById(id)
+                .map(reserva -> ResponseEntity.ok(reservaMapper.toDto(reserva)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Allibera una reserva abans que caduqui
+     */
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Alliberar reserva", description = "Allibera l'stock reservat (p. ex. si el client abandona el pagament)")
+    public ResponseEntity<Void> deleteReservation(
+            @Parameter(description = "ID de la reserva") @PathVariable String id) {
+        return reservesStock.alliberar(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.bicifood.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO per cancel·lar diverses comandes alhora
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class CancellacioComandesDto {
+
+    @NotEmpty(message = "Cal indicar almenys una comanda")
+    @Size(max = 500, message = "No es poden cancel·lar més de 500 comandes alhora")
+    private List<@NotNull Integer> comandaIds;
+
+    // Constructors
+    public CancellacioComandesDto() {}
+
+    public CancellacioComandesDto(List<Integer> comandaIds) {
+        this.comandaIds = comandaIds;
+    }
+
+    // Getters i Setters
+    public List<Integer> getComandaIds() {
+        return comandaIds;
+    }
+
+    public void setComandaIds(List<Integer> comandaIds) {
+        this.comandaIds = comandaIds;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "CancellacioComandesDto{" +
+                "comandaIds=" + comandaIds +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package com.bicifood.api.dto;
+
+/**
+ * DTO amb el resum d'una categoria i els seus recomptes de productes
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class CategoriaResumDto {
+
+    private Integer id;
+    private String nom;
+    private Integer totalProductes;
+    private Integer productesAmbStock;
+
+    // Constructors
+    public CategoriaResumDto() {}
+
+    public CategoriaResumDto(Integer id, String nom, Integer totalProductes, Integer productesAmbStock) {
+        this.id = id;
+        this.nom = nom;
+        this.totalProductes = totalProductes;
+        this.productesAmbStock = productesAmbStock;
+    }
+
+    // Getters i Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public Integer getTotalProductes() {
+        return totalProductes;
+    }
+
+    public void setTotalProductes(Integer totalProductes) {
+        this.totalProductes = totalProductes;
+    }
+
+    public Integer getProductesAmbStock() {
+        return productesAmbStock;
+    }
+
+    public void setProductesAmbStock(Integer productesAmbStock) {
+        this.productesAmbStock = productesAmbStock;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "CategoriaResumDto{" +
+                "id=" + id +
+                ", nom='" + nom + '\'' +
+                ", totalProductes=" + totalProductes +
+                ", productesAmbStock=" + productesAmbStock +
+                '}';
+    }
+}
@@ -0,0 +1,127 @@
+package com.bicifood.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO per a la transferència de dades de Comanda.
+ * En crear una comanda només cal el client, l'adreça i les línies; la resta la calcula el servidor.
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class ComandaDto {
+
+    private Integer id;
+
+    @NotNull(message = "El client és obligatori")
+    private Integer clientId;
+
+    private LocalDateTime dataHoraComanda;
+
+    private BigDecimal importTotal;
+
+    @NotBlank(message = "L'adreça de lliurament és obligatòria")
+    @Size(max = 255, message = "L'adreça de lliurament no pot superar els 255 caràcters")
+    private String adrecaLliurament;
+
+    @NotBlank(message = "El codi postal de lliurament és obligatori")
+    @Size(max = 10, message = "El codi postal de lliurament no pot superar els 10 caràcters")
+    private String cpLliurament;
+
+    private String estat;
+
+    @NotEmpty(message = "La comanda ha de tenir almenys una línia")
+    @Valid
+    private List<LiniaComandaDto> linies;
+
+    // Constructors
+    public ComandaDto() {}
+
+    // Getters i Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Integer clientId) {
+        this.clientId = clientId;
+    }
+
+    public LocalDateTime getDataHoraComanda() {
+        return dataHoraComanda;
+    }
+
+    public void setDataHoraComanda(LocalDateTime dataHoraComanda) {
+        this.dataHoraComanda = dataHoraComanda;
+    }
+
+    public BigDecimal getImportTotal() {
+        return importTotal;
+    }
+
+    public void setImportTotal(BigDecimal importTotal) {
+        this.importTotal = importTotal;
+    }
+
+    public String getAdrecaLliurament() {
+        return adrecaLliurament;
+    }
+
+    public void setAdrecaLliurament(String adrecaLliurament) {
+        this.adrecaLliurament = adrecaLliurament;
+    }
+
+    public String getCpLliurament() {
+        return cpLliurament;
+    }
+
+    public void setCpLliurament(String cpLliurament) {
+        this.cpLliurament = cpLliurament;
+    }
+
+    public String getEstat() {
+        return estat;
+    }
+
+    public void setEstat(String estat) {
+        this.estat = estat;
+    }
+
+    public List<LiniaComandaDto> getLinies() {
+        return linies;
+    }
+
+    public void setLinies(List<LiniaComandaDto> linies) {
+        this.linies = linies;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "ComandaDto{" +
+                "id=" + id +
+                ", clientId=" + clientId +
+                ", dataHoraComanda=" + dataHoraComanda +
+                ", importTotal=" + importTotal +
+                ", adrecaLliurament='" + adrecaLliurament + '\'' +
+                ", cpLliurament='" + cpLliurament + '\'' +
+                ", estat='" + estat + '\'' +
+                ", linies=" + linies +
+                '}';
+    }
+}
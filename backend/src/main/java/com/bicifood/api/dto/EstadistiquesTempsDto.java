@@ -0,0 +1,92 @@
+package com.bicifood.api.dto;
+
+/**
+ * DTO amb les estadístiques d'un histograma de temps de lliurament, en segons
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class EstadistiquesTempsDto {
+
+    private long mostres;
+    private double mitjanaSegons;
+    private long p50Segons;
+    private long p95Segons;
+    private long p99Segons;
+    private long maximSegons;
+
+    // Constructors
+    public EstadistiquesTempsDto() {}
+
+    public EstadistiquesTempsDto(long mostres, double mitjanaSegons, long p50Segons, long p95Segons,
+                                 long p99Segons, long maximSegons) {
+        this.mostres = mostres;
+        this.mitjanaSegons = mitjanaSegons;
+        this.p50Segons = p50Segons;
+        this.p95Segons = p95Segons;
+        this.p99Segons = p99Segons;
+        this.maximSegons = maximSegons;
+    }
+
+    // Getters i Setters
+    public long getMostres() {
+        return mostres;
+    }
+
+    public void setMostres(long mostres) {
+        this.mostres = mostres;
+    }
+
+    public double getMitjanaSegons() {
+        return mitjanaSegons;
+    }
+
+    public void setMitjanaSegons(double mitjanaSegons) {
+        this.mitjanaSegons = mitjanaSegons;
+    }
+
+    public long getP50Segons() {
+        return p50Segons;
+    }
+
+    public void setP50Segons(long p50Segons) {
+        this.p50Segons = p50Segons;
+    }
+
+    public long getP95Segons() {
+        return p95Segons;
+    }
+
+    public void setP95Segons(long p95Segons) {
+        this.p95Segons = p95Segons;
+    }
+
+    public long getP99Segons() {
+        return p99Segons;
+    }
+
+    public void setP99Segons(long p99Segons) {
+        this.p99Segons = p99Segons;
+    }
+
+    public long getMaximSegons() {
+        return maximSegons;
+    }
+
+    public void setMaximSegons(long maximSegons) {
+        this.maximSegons = maximSegons;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "EstadistiquesTempsDto{" +
+                "mostres=" + mostres +
+                ", mitjanaSegons=" + mitjanaSegons +
+                ", p50Segons=" + p50Segons +
+                ", p95Segons=" + p95Segons +
+                ", p99Segons=" + p99Segons +
+                ", maximSegons=" + maximSegons +
+                '}';
+    }
+}
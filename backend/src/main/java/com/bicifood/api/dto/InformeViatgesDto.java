@@ -0,0 +1,115 @@
+package com.bicifood.api.dto;
+
+/**
+ * DTO amb la comparació d'un pla de viatges amb el repartiment d'una comanda per viatge
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class InformeViatgesDto {
+
+    private int comandes;
+    private int viatges;
+    private int viatgesEstalviats;
+    private double comandesPerViatge;
+    private double ocupacioMitjana;
+    private double ocupacioUnaComanda;
+    private long esperaMaximaMinuts;
+    private long tempsCalculMicros;
+
+    // Constructors
+    public InformeViatgesDto() {}
+
+    public InformeViatgesDto(int comandes, int viatges, int viatgesEstalviats, double comandesPerViatge,
+                             double ocupacioMitjana, double ocupacioUnaComanda, long esperaMaximaMinuts,
+                             long tempsCalculMicros) {
+        this.comandes = comandes;
+        this.viatges = viatges;
+        this.viatgesEstalviats = viatgesEstalviats;
+        this.comandesPerViatge = comandesPerViatge;
+        this.ocupacioMitjana = ocupacioMitjana;
+        this.ocupacioUnaComanda = ocupacioUnaComanda;
+        this.esperaMaximaMinuts = esperaMaximaMinuts;
+        this.tempsCalculMicros = tempsCalculMicros;
+    }
+
+    // Getters i Setters
+    public int getComandes() {
+        return comandes;
+    }
+
+    public void setComandes(int comandes) {
+        this.comandes = comandes;
+    }
+
+    public int getViatges() {
+        return viatges;
+    }
+
+    public void setViatges(int viatges) {
+        this.viatges = viatges;
+    }
+
+    public int getViatgesEstalviats() {
+        return viatgesEstalviats;
+    }
+
+    public void setViatgesEstalviats(int viatgesEstalviats) {
+        this.viatgesEstalviats = viatgesEstalviats;
+    }
+
+    public double getComandesPerViatge() {
+        return comandesPerViatge;
+    }
+
+    public void setComandesPerViatge(double comandesPerViatge) {
+        this.comandesPerViatge = comandesPerViatge;
+    }
+
+    public double getOcupacioMitjana() {
+        return ocupacioMitjana;
+    }
+
+    public void setOcupacioMitjana(double ocupacioMitjana) {
+        this.ocupacioMitjana = ocupacioMitjana;
+    }
+
+    public double getOcupacioUnaComanda() {
+        return ocupacioUnaComanda;
+    }
+
+    public void setOcupacioUnaComanda(double ocupacioUnaComanda) {
+        this.ocupacioUnaComanda = ocupacioUnaComanda;
+    }
+
+    public long getEsperaMaximaMinuts() {
+        return esperaMaximaMinuts;
+    }
+
+    public void setEsperaMaximaMinuts(long esperaMaximaMinuts) {
+        this.esperaMaximaMinuts = esperaMaximaMinuts;
+    }
+
+    public long getTempsCalculMicros() {
+        return tempsCalculMicros;
+    }
+
+    public void setTempsCalculMicros(long tempsCalculMicros) {
+        this.tempsCalculMicros = tempsCalculMicros;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "InformeViatgesDto{" +
+                "comandes=" + comandes +
+                ", viatges=" + viatges +
+                ", viatgesEstalviats=" + viatgesEstalviats +
+                ", comandesPerViatge=" + comandesPerViatge +
+                ", ocupacioMitjana=" + ocupacioMitjana +
+                ", ocupacioUnaComanda=" + ocupacioUnaComanda +
+                ", esperaMaximaMinuts=" + esperaMaximaMinuts +
+                ", tempsCalculMicros=" + tempsCalculMicros +
+                '}';
+    }
+}
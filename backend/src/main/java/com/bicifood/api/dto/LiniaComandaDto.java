@@ -0,0 +1,89 @@
+package com.bicifood.api.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO per a la transferència de dades de LiniaComanda
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class LiniaComandaDto {
+
+    @NotNull(message = "El producte és obligatori")
+    private Integer producteId;
+
+    private String nomProducte;
+
+    @NotNull(message = "La quantitat és obligatòria")
+    @Min(value = 1, message = "La quantitat ha de ser com a mínim 1")
+    private Integer quantitat;
+
+    private BigDecimal preuUnitari;
+
+    private BigDecimal subtotal;
+
+    // Constructors
+    public LiniaComandaDto() {}
+
+    public LiniaComandaDto(Integer producteId, Integer quantitat) {
+        this.producteId = producteId;
+        this.quantitat = quantitat;
+    }
+
+    // Getters i Setters
+    public Integer getProducteId() {
+        return producteId;
+    }
+
+    public void setProducteId(Integer producteId) {
+        this.producteId = producteId;
+    }
+
+    public String getNomProducte() {
+        return nomProducte;
+    }
+
+    public void setNomProducte(String nomProducte) {
+        this.nomProducte = nomProducte;
+    }
+
+    public Integer getQuantitat() {
+        return quantitat;
+    }
+
+    public void setQuantitat(Integer quantitat) {
+        this.quantitat = quantitat;
+    }
+
+    public BigDecimal getPreuUnitari() {
+        return preuUnitari;
+    }
+
+    public void setPreuUnitari(BigDecimal preuUnitari) {
+        this.preuUnitari = preuUnitari;
+    }
+
+    public BigDecimal getSubtotal() {
+        return subtotal;
+    }
+
+    public void setSubtotal(BigDecimal subtotal) {
+        this.subtotal = subtotal;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "LiniaComandaDto{" +
+                "producteId=" + producteId +
+                ", nomProducte='" + nomProducte + '\'' +
+                ", quantitat=" + quantitat +
+                ", preuUnitari=" + preuUnitari +
+                ", subtotal=" + subtotal +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package com.bicifood.api.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO per a una línia d'una reserva d'stock
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class LiniaReservaDto {
+
+    @NotNull(message = "El producte és obligatori")
+    private Integer producteId;
+
+    @NotNull(message = "La quantitat és obligatòria")
+    @Min(value = 1, message = "La quantitat ha de ser com a mínim 1")
+    private Integer quantitat;
+
+    // Constructors
+    public LiniaReservaDto() {}
+
+    public LiniaReservaDto(Integer producteId, Integer quantitat) {
+        this.producteId = producteId;
+        this.quantitat = quantitat;
+    }
+
+    // Getters i Setters
+    public Integer getProducteId() {
+        return producteId;
+    }
+
+    public void setProducteId(Integer producteId) {
+        this.producteId = producteId;
+    }
+
+    public Integer getQuantitat() {
+        return quantitat;
+    }
+
+    public void setQuantitat(Integer quantitat) {
+        this.quantitat = quantitat;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "LiniaReservaDto{" +
+                "producteId=" + producteId +
+                ", quantitat=" + quantitat +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+package com.bicifood.api.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO per a un lliurament pendent de la cua d'un repartidor
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class LliuramentAssignatDto {
+
+    private Integer lliuramentId;
+    private Integer comandaId;
+    private String adrecaLliurament;
+    private String cpLliurament;
+    private LocalDateTime dataHoraAssignacio;
+
+    // Constructors
+    public LliuramentAssignatDto() {}
+
+    public LliuramentAssignatDto(Integer lliuramentId, Integer comandaId, String adrecaLliurament,
+                                 String cpLliurament, LocalDateTime dataHoraAssignacio) {
+        this.lliuramentId = lliuramentId;
+        this.comandaId = comandaId;
+        this.adrecaLliurament = adrecaLliurament;
+        this.cpLliurament = cpLliurament;
+        this.dataHoraAssignacio = dataHoraAssignacio;
+    }
+
+    // Getters i Setters
+    public Integer getLliuramentId() {
+        return lliuramentId;
+    }
+
+    public void setLliuramentId(Integer lliuramentId) {
+        this.lliuramentId = lliuramentId;
+    }
+
+    public Integer getComandaId() {
+        return comandaId;
+    }
+
+    public void setComandaId(Integer comandaId) {
+        this.comandaId = comandaId;
+    }
+
+    public String getAdrecaLliurament() {
+        return adrecaLliurament;
+    }
+
+    public void setAdrecaLliurament(String adrecaLliurament) {
+        this.adrecaLliurament = adrecaLliurament;
+    }
+
+    public String getCpLliurament() {
+        return cpLliurament;
+    }
+
+    public void setCpLliurament(String cpLliurament) {
+        this.cpLliurament = cpLliurament;
+    }
+
+    public LocalDateTime getDataHoraAssignacio() {
+        return dataHoraAssignacio;
+    }
+
+    public void setDataHoraAssignacio(LocalDateTime dataHoraAssignacio) {
+        this.dataHoraAssignacio = dataHoraAssignacio;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "LliuramentAssignatDto{" +
+                "lliuramentId=" + lliuramentId +
+                ", comandaId=" + comandaId +
+                ", adrecaLliurament='" + adrecaLliurament + '\'' +
+                ", cpLliurament='" + cpLliurament + '\'' +
+                ", dataHoraAssignacio=" + dataHoraAssignacio +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package com.bicifood.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Pàgina d'una paginació per cursor (keyset).
+ * No porta el total d'elements: el client demana la pàgina següent amb {@code nextCursor}.
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class PaginaCursorDto<T> {
+
+    private List<T> content;
+
+    private String nextCursor;
+
+    private boolean hasNext;
+
+    // Constructors
+    public PaginaCursorDto() {}
+
+    public PaginaCursorDto(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    /**
+     * Converteix el contingut mantenint el cursor
+     * @param conversor funció de conversió de cada element
+     * @return una pàgina nova amb els elements convertits
+     */
+    public <R> PaginaCursorDto<R> map(Function<? super T, ? extends R> conversor) {
+        List<R> convertits = new ArrayList<>(content.size());
+        for (T element : content) {
+            convertits.add(conversor.apply(element));
+        }
+        return new PaginaCursorDto<>(convertits, nextCursor);
+    }
+
+    // Getters i Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    @Override
+    public String toString() {
+        return "PaginaCursorDto{" +
+                "elements=" + (content != null ? content.size() : 0) +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", hasNext=" + hasNext +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package com.bicifood.api.dto;
+
+import java.util.List;
+
+/**
+ * DTO amb els viatges planificats per a les comandes en preparació i el seu informe
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class PlaViatgesDto {
+
+    private List<ViatgeDto> viatges;
+    private InformeViatgesDto informe;
+
+    // Constructors
+    public PlaViatgesDto() {}
+
+    public PlaViatgesDto(List<ViatgeDto> viatges, InformeViatgesDto informe) {
+        this.viatges = viatges;
+        this.informe = informe;
+    }
+
+    // Getters i Setters
+    public List<ViatgeDto> getViatges() {
+        return viatges;
+    }
+
+    public void setViatges(List<ViatgeDto> viatges) {
+        this.viatges = viatges;
+    }
+
+    public InformeViatgesDto getInforme() {
+        return informe;
+    }
+
+    public void setInforme(InformeViatgesDto informe) {
+        this.informe = informe;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "PlaViatgesDto{" +
+                "viatges=" + viatges +
+                ", informe=" + informe +
+                '}';
+    }
+}
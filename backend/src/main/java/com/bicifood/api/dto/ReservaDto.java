@@ -0,0 +1,68 @@
+package com.bicifood.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO per a una reserva temporal d'stock feta al checkout
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class ReservaDto {
+
+    private String id;
+
+    @NotEmpty(message = "La reserva ha de tenir almenys una línia")
+    @Valid
+    private List<LiniaReservaDto> linies;
+
+    private LocalDateTime expiracio;
+
+    // Constructors
+    public ReservaDto() {}
+
+    public ReservaDto(String id, List<LiniaReservaDto> linies, LocalDateTime expiracio) {
+        this.id = id;
+        this.linies = linies;
+        this.expiracio = expiracio;
+    }
+
+    // Getters i Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public List<LiniaReservaDto> getLinies() {
+        return linies;
+    }
+
+    public void setLinies(List<LiniaReservaDto> linies) {
+        this.linies = linies;
+    }
+
+    public LocalDateTime getExpiracio() {
+        return expiracio;
+    }
+
+    public void setExpiracio(LocalDateTime expiracio) {
+        this.expiracio = expiracio;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "ReservaDto{" +
+                "id='" + id + '\'' +
+                ", linies=" + linies +
+                ", expiracio=" + expiracio +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.bicifood.api.dto;
+
+/**
+ * DTO amb el resultat del canvi d'estat d'una comanda en una transició massiva
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class ResultatTransicioDto {
+
+    private Integer comandaId;
+    private String resultat;
+    private String estat;
+
+    // Constructors
+    public ResultatTransicioDto() {}
+
+    public ResultatTransicioDto(Integer comandaId, String resultat, String estat) {
+        this.comandaId = comandaId;
+        this.resultat = resultat;
+        this.estat = estat;
+    }
+
+    // Getters i Setters
+    public Integer getComandaId() {
+        return comandaId;
+    }
+
+    public void setComandaId(Integer comandaId) {
+        this.comandaId = comandaId;
+    }
+
+    public String getResultat() {
+        return resultat;
+    }
+
+    public void setResultat(String resultat) {
+        this.resultat = resultat;
+    }
+
+    public String getEstat() {
+        return estat;
+    }
+
+    public void setEstat(String estat) {
+        this.estat = estat;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "ResultatTransicioDto{" +
+                "comandaId=" + comandaId +
+                ", resultat='" + resultat + '\'' +
+                ", estat='" + estat + '\'' +
+                '}';
+    }
+}
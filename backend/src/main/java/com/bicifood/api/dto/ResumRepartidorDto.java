@@ -0,0 +1,58 @@
+package com.bicifood.api.dto;
+
+/**
+ * DTO amb els comptadors de feina d'un repartidor
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class ResumRepartidorDto {
+
+    private Integer repartidorId;
+    private int pendents;
+    private long completats;
+
+    // Constructors
+    public ResumRepartidorDto() {}
+
+    public ResumRepartidorDto(Integer repartidorId, int pendents, long completats) {
+        this.repartidorId = repartidorId;
+        this.pendents = pendents;
+        this.completats = completats;
+    }
+
+    // Getters i Setters
+    public Integer getRepartidorId() {
+        return repartidorId;
+    }
+
+    public void setRepartidorId(Integer repartidorId) {
+        this.repartidorId = repartidorId;
+    }
+
+    public int getPendents() {
+        return pendents;
+    }
+
+    public void setPendents(int pendents) {
+        this.pendents = pendents;
+    }
+
+    public long getCompletats() {
+        return completats;
+    }
+
+    public void setCompletats(long completats) {
+        this.completats = completats;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "ResumRepartidorDto{" +
+                "repartidorId=" + repartidorId +
+                ", pendents=" + pendents +
+                ", completats=" + completats +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package com.bicifood.api.dto;
+
+/**
+ * DTO amb l'estat d'una petició de comanda asíncrona
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class SeguimentComandaDto {
+
+    private String id;
+    private String estat;
+    private Integer comandaId;
+    private String error;
+
+    // Constructors
+    public SeguimentComandaDto() {}
+
+    public SeguimentComandaDto(String id, String estat, Integer comandaId, String error) {
+        this.id = id;
+        this.estat = estat;
+        this.comandaId = comandaId;
+        this.error = error;
+    }
+
+    // Getters i Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getEstat() {
+        return estat;
+    }
+
+    public void setEstat(String estat) {
+        this.estat = estat;
+    }
+
+    public Integer getComandaId() {
+        return comandaId;
+    }
+
+    public void setComandaId(Integer comandaId) {
+        this.comandaId = comandaId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "SeguimentComandaDto{" +
+                "id='" + id + '\'' +
+                ", estat='" + estat + '\'' +
+                ", comandaId=" + comandaId +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
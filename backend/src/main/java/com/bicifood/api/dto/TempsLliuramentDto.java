@@ -0,0 +1,72 @@
+package com.bicifood.api.dto;
+
+import java.util.Map;
+
+/**
+ * DTO amb els temps de lliurament (de l'assignació al lliurament) globals i per grup
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class TempsLliuramentDto {
+
+    private EstadistiquesTempsDto global;
+    private Map<Integer, EstadistiquesTempsDto> perRepartidor;
+    private Map<String, EstadistiquesTempsDto> perCodiPostal;
+    private Map<Integer, EstadistiquesTempsDto> perHora;
+
+    // Constructors
+    public TempsLliuramentDto() {}
+
+    public TempsLliuramentDto(EstadistiquesTempsDto global, Map<Integer, EstadistiquesTempsDto> perRepartidor,
+                              Map<String, EstadistiquesTempsDto> perCodiPostal, Map<Integer, EstadistiquesTempsDto> perHora) {
+        this.global = global;
+        this.perRepartidor = perRepartidor;
+        this.perCodiPostal = perCodiPostal;
+        this.perHora = perHora;
+    }
+
+    // Getters i Setters
+    public EstadistiquesTempsDto getGlobal() {
+        return global;
+    }
+
+    public void setGlobal(EstadistiquesTempsDto global) {
+        this.global = global;
+    }
+
+    public Map<Integer, EstadistiquesTempsDto> getPerRepartidor() {
+        return perRepartidor;
+    }
+
+    public void setPerRepartidor(Map<Integer, EstadistiquesTempsDto> perRepartidor) {
+        this.perRepartidor = perRepartidor;
+    }
+
+    public Map<String, EstadistiquesTempsDto> getPerCodiPostal() {
+        return perCodiPostal;
+    }
+
+    public void setPerCodiPostal(Map<String, EstadistiquesTempsDto> perCodiPostal) {
+        this.perCodiPostal = perCodiPostal;
+    }
+
+    public Map<Integer, EstadistiquesTempsDto> getPerHora() {
+        return perHora;
+    }
+
+    public void setPerHora(Map<Integer, EstadistiquesTempsDto> perHora) {
+        this.perHora = perHora;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "TempsLliuramentDto{" +
+                "global=" + global +
+                ", perRepartidor=" + perRepartidor +
+                ", perCodiPostal=" + perCodiPostal +
+                ", perHora=" + perHora +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.bicifood.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO per canviar l'estat de diverses comandes alhora
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class TransicioEstatDto {
+
+    @NotEmpty(message = "Cal indicar almenys una comanda")
+    @Size(max = 500, message = "No es poden canviar més de 500 comandes alhora")
+    private List<@NotNull Integer> comandaIds;
+
+    @NotNull(message = "L'estat de destinació és obligatori")
+    private Integer estatId;
+
+    // Constructors
+    public TransicioEstatDto() {}
+
+    public TransicioEstatDto(List<Integer> comandaIds, Integer estatId) {
+        this.comandaIds = comandaIds;
+        this.estatId = estatId;
+    }
+
+    // Getters i Setters
+    public List<Integer> getComandaIds() {
+        return comandaIds;
+    }
+
+    public void setComandaIds(List<Integer> comandaIds) {
+        this.comandaIds = comandaIds;
+    }
+
+    public Integer getEstatId() {
+        return estatId;
+    }
+
+    public void setEstatId(Integer estatId) {
+        this.estatId = estatId;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "TransicioEstatDto{" +
+                "comandaIds=" + comandaIds +
+                ", estatId=" + estatId +
+                '}';
+    }
+}
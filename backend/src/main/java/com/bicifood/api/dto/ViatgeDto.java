@@ -0,0 +1,84 @@
+package com.bicifood.api.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO amb un viatge de repartidor: comandes que es lliuren juntes
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class ViatgeDto {
+
+    private List<Integer> comandaIds;
+    private List<String> codisPostals;
+    private int unitats;
+    private LocalDateTime primeraComanda;
+    private LocalDateTime darreraComanda;
+
+    // Constructors
+    public ViatgeDto() {}
+
+    public ViatgeDto(List<Integer> comandaIds, List<String> codisPostals, int unitats,
+                     LocalDateTime primeraComanda, LocalDateTime darreraComanda) {
+        this.comandaIds = comandaIds;
+        this.codisPostals = codisPostals;
+        this.unitats = unitats;
+        this.primeraComanda = primeraComanda;
+        this.darreraComanda = darreraComanda;
+    }
+
+    // Getters i Setters
+    public List<Integer> getComandaIds() {
+        return comandaIds;
+    }
+
+    public void setComandaIds(List<Integer> comandaIds) {
+        this.comandaIds = comandaIds;
+    }
+
+    public List<String> getCodisPostals() {
+        return codisPostals;
+    }
+
+    public void setCodisPostals(List<String> codisPostals) {
+        this.codisPostals = codisPostals;
+    }
+
+    public int getUnitats() {
+        return unitats;
+    }
+
+    public void setUnitats(int unitats) {
+        this.unitats = unitats;
+    }
+
+    public LocalDateTime getPrimeraComanda() {
+        return primeraComanda;
+    }
+
+    public void setPrimeraComanda(LocalDateTime primeraComanda) {
+        this.primeraComanda = primeraComanda;
+    }
+
+    public LocalDateTime getDarreraComanda() {
+        return darreraComanda;
+    }
+
+    public void setDarreraComanda(LocalDateTime darreraComanda) {
+        this.darreraComanda = darreraComanda;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "ViatgeDto{" +
+                "comandaIds=" + comandaIds +
+                ", codisPostals=" + codisPostals +
+                ", unitats=" + unitats +
+                ", primeraComanda=" + primeraComanda +
+                ", darreraComanda=" + darreraComanda +
+                '}';
+    }
+}
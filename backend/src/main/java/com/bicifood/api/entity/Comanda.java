@@ -15,11 +15,16 @@ import java.util.Set;
  * @version 1.0.0
  */
 @Entity
-@Table(name = "comanda")
+@Table(name = "comanda", indexes = {
+        @Index(name = "idx_comanda_data", columnList = "data_hora_comanda, id_comanda"),
+        @Index(name = "idx_comanda_client_data", columnList = "id_client, data_hora_comanda, id_comanda"),
+        @Index(name = "idx_comanda_estat_data", columnList = "id_estat, data_hora_comanda, id_comanda")
+})
 public class Comanda {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_comanda")
+    @SequenceGenerator(name = "seq_comanda", sequenceName = "seq_comanda", allocationSize = 50)
     @Column(name = "id_comanda")
     private Integer id;
 
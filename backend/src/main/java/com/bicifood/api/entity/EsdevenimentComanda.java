@@ -0,0 +1,138 @@
+package com.bicifood.api.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entitat que representa un canvi d'estat d'una comanda a l'outbox del sistema BiciFood.
+ * Es desa a la mateixa transacció que el canvi i el {@code RelayEsdeveniments} la publica després.
+ * No té clau forana a la comanda perquè l'esdeveniment ha de sobreviure si la comanda s'elimina.
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "esdeveniment_comanda", indexes = {
+        @Index(name = "idx_esdeveniment_data", columnList = "data_hora, id_esdeveniment")
+})
+public class EsdevenimentComanda {
+
+    /** Valor d'{@code estatNou} quan la comanda s'ha cancel·lat i eliminat */
+    public static final String CANCELLADA = "CANCEL·LADA";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_esdeveniment_comanda")
+    @SequenceGenerator(name = "seq_esdeveniment_comanda", sequenceName = "seq_esdeveniment_comanda", allocationSize = 50)
+    @Column(name = "id_esdeveniment")
+    private Long id;
+
+    @Column(name = "id_comanda", nullable = false)
+    private Integer comandaId;
+
+    @Column(name = "id_client")
+    private Integer clientId;
+
+    @Column(name = "estat_anterior", length = 50)
+    private String estatAnterior;
+
+    @Column(name = "estat_nou", nullable = false, length = 50)
+    private String estatNou;
+
+    @Column(name = "data_hora", nullable = false)
+    private LocalDateTime dataHora;
+
+    // Constructors
+    public EsdevenimentComanda() {
+        this.dataHora = LocalDateTime.now();
+    }
+
+    public EsdevenimentComanda(Comanda comanda, String estatAnterior) {
+        this();
+        this.comandaId = comanda.getId();
+        this.clientId = comanda.getClient() != null ? comanda.getClient().getId() : null;
+        this.estatAnterior = estatAnterior;
+        this.estatNou = comanda.getEstat().getNom();
+    }
+
+    public EsdevenimentComanda(Integer comandaId, Integer clientId, String estatAnterior, String estatNou) {
+        this();
+        this.comandaId = comandaId;
+        this.clientId = clientId;
+        this.estatAnterior = estatAnterior;
+        this.estatNou = estatNou;
+    }
+
+    // Getters i Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getComandaId() {
+        return comandaId;
+    }
+
+    public void setComandaId(Integer comandaId) {
+        this.comandaId = comandaId;
+    }
+
+    public Integer getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Integer clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getEstatAnterior() {
+        return estatAnterior;
+    }
+
+    public void setEstatAnterior(String estatAnterior) {
+        this.estatAnterior = estatAnterior;
+    }
+
+    public String getEstatNou() {
+        return estatNou;
+    }
+
+    public void setEstatNou(String estatNou) {
+        this.estatNou = estatNou;
+    }
+
+    public LocalDateTime getDataHora() {
+        return dataHora;
+    }
+
+    public void setDataHora(LocalDateTime dataHora) {
+        this.dataHora = dataHora;
+    }
+
+    // equals, hashCode i toString
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EsdevenimentComanda that)) return false;
+        return getId() != null && getId().equals(that.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "EsdevenimentComanda{" +
+                "id=" + id +
+                ", comandaId=" + comandaId +
+                ", estatAnterior='" + estatAnterior + '\'' +
+                ", estatNou='" + estatNou + '\'' +
+                ", dataHora=" + dataHora +
+                '}';
+    }
+}
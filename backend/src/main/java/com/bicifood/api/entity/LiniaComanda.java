@@ -16,7 +16,8 @@ import java.math.BigDecimal;
 public class LiniaComanda {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_linia_comanda")
+    @SequenceGenerator(name = "seq_linia_comanda", sequenceName = "seq_linia_comanda", allocationSize = 50)
     @Column(name = "id_linia")
     private Integer id;
 
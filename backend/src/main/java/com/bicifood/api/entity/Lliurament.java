@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class Lliurament {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_lliurament")
+    @SequenceGenerator(name = "seq_lliurament", sequenceName = "seq_lliurament", allocationSize = 50)
     @Column(name = "id_lliurament")
     private Integer id;
 
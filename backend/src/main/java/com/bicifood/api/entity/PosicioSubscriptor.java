@@ -0,0 +1,71 @@
+package com.bicifood.api.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entitat que guarda fins a quin esdeveniment de l'outbox ha rebut cada subscriptor.
+ * El relay la fa servir per reprendre la publicació després d'un reinici.
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "posicio_subscriptor")
+public class PosicioSubscriptor {
+
+    @Id
+    @Column(name = "nom_subscriptor", length = 100)
+    private String nom;
+
+    @Column(name = "id_darrer_esdeveniment", nullable = false)
+    private Long darrerEsdevenimentId;
+
+    @Column(name = "data_hora_actualitzacio")
+    private LocalDateTime dataHoraActualitzacio;
+
+    // Constructors
+    public PosicioSubscriptor() {}
+
+    public PosicioSubscriptor(String nom, Long darrerEsdevenimentId) {
+        this.nom = nom;
+        this.darrerEsdevenimentId = darrerEsdevenimentId;
+        this.dataHoraActualitzacio = LocalDateTime.now();
+    }
+
+    // Getters i Setters
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public Long getDarrerEsdevenimentId() {
+        return darrerEsdevenimentId;
+    }
+
+    public void setDarrerEsdevenimentId(Long darrerEsdevenimentId) {
+        this.darrerEsdevenimentId = darrerEsdevenimentId;
+    }
+
+    public LocalDateTime getDataHoraActualitzacio() {
+        return dataHoraActualitzacio;
+    }
+
+    public void setDataHoraActualitzacio(LocalDateTime dataHoraActualitzacio) {
+        this.dataHoraActualitzacio = dataHoraActualitzacio;
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "PosicioSubscriptor{" +
+                "nom='" + nom + '\'' +
+                ", darrerEsdevenimentId=" + darrerEsdevenimentId +
+                ", dataHoraActualitzacio=" + dataHoraActualitzacio +
+                '}';
+    }
+}
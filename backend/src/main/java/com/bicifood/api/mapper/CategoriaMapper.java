@@ -0,0 +1,49 @@
+package com.bicifood.api.mapper;
+
+import com.bicifood.api.dto.CategoriaDto;
+import com.bicifood.api.dto.CategoriaResumDto;
+import com.bicifood.api.entity.Categoria;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mapper escrit a mà entre Categoria i CategoriaDto
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class CategoriaMapper {
+
+    /**
+     * Converteix una entitat Categoria a DTO
+     * @param categoria l'entitat
+     * @return el DTO
+     */
+    public CategoriaDto toDto(Categoria categoria) {
+        CategoriaDto dto = new CategoriaDto(categoria.getNom());
+        dto.setId(categoria.getId());
+        return dto;
+    }
+
+    /**
+     * Converteix un DTO a entitat Categoria
+     * @param dto el DTO
+     * @return l'entitat sense productes associats
+     */
+    public Categoria toEntity(CategoriaDto dto) {
+        Categoria categoria = new Categoria(dto.getNom());
+        categoria.setId(dto.getId());
+        return categoria;
+    }
+
+    /**
+     * Construeix el resum d'una categoria amb els seus recomptes
+     * @param categoria la categoria
+     * @param productes nombre de productes de la categoria
+     * @param productesAmbStock nombre de productes de la categoria amb stock
+     * @return el DTO de resum
+     */
+    public CategoriaResumDto toResumDto(Categoria categoria, int productes, int productesAmbStock) {
+        return new CategoriaResumDto(categoria.getId(), categoria.getNom(), productes, productesAmbStock);
+    }
+}
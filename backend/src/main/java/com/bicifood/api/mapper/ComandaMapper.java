@@ -0,0 +1,168 @@
+package com.bicifood.api.mapper;
+
+import com.bicifood.api.dto.ComandaDto;
+import com.bicifood.api.dto.InformeViatgesDto;
+import com.bicifood.api.dto.LiniaComandaDto;
+import com.bicifood.api.dto.PlaViatgesDto;
+import com.bicifood.api.dto.ResultatTransicioDto;
+import com.bicifood.api.dto.SeguimentComandaDto;
+import com.bicifood.api.dto.ViatgeDto;
+import com.bicifood.api.entity.Comanda;
+import com.bicifood.api.entity.LiniaComanda;
+import com.bicifood.api.entity.Producte;
+import com.bicifood.api.entity.Usuari;
+import com.bicifood.api.model.PlaViatges;
+import com.bicifood.api.model.ResultatTransicio;
+import com.bicifood.api.model.SeguimentComanda;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Mapper escrit a mà entre Comanda i ComandaDto
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class ComandaMapper {
+
+    /**
+     * Converteix una entitat Comanda a DTO, amb les línies ordenades per producte
+     * @param comanda l'entitat
+     * @return el DTO
+     */
+    public ComandaDto toDto(Comanda comanda) {
+        ComandaDto dto = new ComandaDto();
+        dto.setId(comanda.getId());
+        dto.setClientId(comanda.getClient() != null ? comanda.getClient().getId() : null);
+        dto.setDataHoraComanda(comanda.getDataHoraComanda());
+        dto.setImportTotal(comanda.getImportTotal());
+        dto.setAdrecaLliurament(comanda.getAdrecaLliurament());
+        dto.setCpLliurament(comanda.getCpLliurament());
+        dto.setEstat(comanda.getEstat() != null ? comanda.getEstat().getNom() : null);
+        dto.setLinies(comanda.getLiniesComanda().stream()
+                .sorted(Comparator.comparing(linia -> linia.getProducte().getId()))
+                .map(this::toDto)
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
+    /**
+     * Converteix una línia de comanda a DTO
+     * @param linia l'entitat
+     * @return el DTO
+     */
+    public LiniaComandaDto toDto(LiniaComanda linia) {
+        LiniaComandaDto dto = new LiniaComandaDto(linia.getProducte().getId(), linia.getQuantitat());
+        dto.setNomProducte(linia.getProducte().getNom());
+        dto.setPreuUnitari(linia.getPreuUnitari());
+        dto.setSubtotal(linia.getSubtotal());
+        return dto;
+    }
+
+    /**
+     * Converteix un DTO a entitat Comanda; el client només porta l'ID
+     * @param dto el DTO
+     * @return l'entitat sense línies
+     */
+    public Comanda toEntity(ComandaDto dto) {
+        Comanda comanda = new Comanda();
+        Usuari client = new Usuari();
+        client.setId(dto.getClientId());
+        comanda.setClient(client);
+        comanda.setAdrecaLliurament(dto.getAdrecaLliurament());
+        comanda.setCpLliurament(dto.getCpLliurament());
+        return comanda;
+    }
+
+    /**
+     * Converteix les línies del DTO a entitats; els productes només porten l'ID
+     * @param dto el DTO
+     * @return les línies
+     */
+    public List<LiniaComanda> toLinies(ComandaDto dto) {
+        List<LiniaComanda> linies = new ArrayList<>();
+        for (LiniaComandaDto liniaDto : dto.getLinies()) {
+            Producte producte = new Producte();
+            producte.setId(liniaDto.getProducteId());
+            LiniaComanda linia = new LiniaComanda();
+            linia.setProducte(producte);
+            linia.setQuantitat(liniaDto.getQuantitat());
+            linies.add(linia);
+        }
+        return linies;
+    }
+
+    /**
+     * Empremta d'una petició de creació per a les claus d'idempotència.
+     * Només inclou els camps que fan servir {@link #toEntity} i {@link #toLinies}, i cada valor
+     * porta la seva longitud perquè cap contingut (p. ex. un separador dins l'adreça) no pugui
+     * fer coincidir dues peticions diferents
+     * @param dto el DTO de la petició
+     * @param reservaId l'ID de la reserva d'stock, o null
+     * @return l'empremta
+     */
+    public String empremta(ComandaDto dto, String reservaId) {
+        StringBuilder empremta = new StringBuilder();
+        afegirCamp(empremta, dto.getClientId());
+        afegirCamp(empremta, dto.getAdrecaLliurament());
+        afegirCamp(empremta, dto.getCpLliurament());
+        afegirCamp(empremta, reservaId);
+        if (dto.getLinies() != null) {
+            for (LiniaComandaDto linia : dto.getLinies()) {
+                afegirCamp(empremta, linia.getProducteId());
+                afegirCamp(empremta, linia.getQuantitat());
+            }
+        }
+        return empremta.toString();
+    }
+
+    /**
+     * Converteix el seguiment d'una petició asíncrona a DTO
+     * @param seguiment el seguiment
+     * @return el DTO
+     */
+    public SeguimentComandaDto toDto(SeguimentComanda seguiment) {
+        return new SeguimentComandaDto(seguiment.id(), seguiment.estat().name(), seguiment.comandaId(), seguiment.error());
+    }
+
+    /**
+     * Converteix el resultat d'una transició massiva a DTO
+     * @param resultat el resultat d'una comanda
+     * @return el DTO
+     */
+    public ResultatTransicioDto toDto(ResultatTransicio resultat) {
+        return new ResultatTransicioDto(resultat.comandaId(), resultat.resultat().name(), resultat.estat());
+    }
+
+    /**
+     * Converteix un pla de viatges a DTO
+     * @param pla el pla amb l'informe
+     * @return el DTO
+     */
+    public PlaViatgesDto toDto(PlaViatges pla) {
+        List<ViatgeDto> viatges = pla.viatges().stream()
+                .map(viatge -> new ViatgeDto(viatge.comandaIds(), viatge.codisPostals(), viatge.unitats(),
+                        viatge.primeraComanda(), viatge.darreraComanda()))
+                .toList();
+        PlaViatges.Informe informe = pla.informe();
+        return new PlaViatgesDto(viatges, new InformeViatgesDto(informe.comandes(), informe.viatges(),
+                informe.viatgesEstalviats(), informe.comandesPerViatge(), informe.ocupacioMitjana(),
+                informe.ocupacioUnaComanda(), informe.esperaMaximaMinuts(), informe.tempsCalculMicros()));
+    }
+
+    // Mètodes auxiliars
+
+    private static void afegirCamp(StringBuilder empremta, Object valor) {
+        if (valor == null) {
+            empremta.append("-;");
+            return;
+        }
+        String text = valor.toString();
+        empremta.append(text.length()).append(':').append(text).append(';');
+    }
+}
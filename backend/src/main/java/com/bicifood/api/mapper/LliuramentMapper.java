@@ -0,0 +1,68 @@
+package com.bicifood.api.mapper;
+
+import com.bicifood.api.dto.EstadistiquesTempsDto;
+import com.bicifood.api.dto.LliuramentAssignatDto;
+import com.bicifood.api.dto.ResumRepartidorDto;
+import com.bicifood.api.dto.TempsLliuramentDto;
+import com.bicifood.api.model.EstadistiquesTemps;
+import com.bicifood.api.model.LliuramentAssignat;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mapper escrit a mà entre els lliuraments assignats, els temps de lliurament i els DTO de lliurament
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class LliuramentMapper {
+
+    /**
+     * Converteix un lliurament assignat a DTO
+     * @param lliurament el lliurament
+     * @return el DTO
+     */
+    public LliuramentAssignatDto toDto(LliuramentAssignat lliurament) {
+        return new LliuramentAssignatDto(lliurament.lliuramentId(), lliurament.comandaId(),
+                lliurament.adrecaLliurament(), lliurament.cpLliurament(), lliurament.dataHoraAssignacio());
+    }
+
+    /**
+     * Construeix el resum de comptadors d'un repartidor
+     * @param repartidorId l'ID del repartidor
+     * @param pendents lliuraments assignats pendents
+     * @param completats lliuraments completats
+     * @return el DTO
+     */
+    public ResumRepartidorDto toResumDto(Integer repartidorId, int pendents, long completats) {
+        return new ResumRepartidorDto(repartidorId, pendents, completats);
+    }
+
+    /**
+     * Converteix les estadístiques de temps de lliurament a DTO
+     * @param global les estadístiques de tots els lliuraments
+     * @param perRepartidor les estadístiques per repartidor
+     * @param perCodiPostal les estadístiques per codi postal
+     * @param perHora les estadístiques per hora del dia
+     * @return el DTO amb les estadístiques globals i per grup
+     */
+    public TempsLliuramentDto toDto(EstadistiquesTemps global, Map<Integer, EstadistiquesTemps> perRepartidor,
+                                    Map<String, EstadistiquesTemps> perCodiPostal,
+                                    Map<Integer, EstadistiquesTemps> perHora) {
+        return new TempsLliuramentDto(toDto(global), toDtos(perRepartidor), toDtos(perCodiPostal), toDtos(perHora));
+    }
+
+    private EstadistiquesTempsDto toDto(EstadistiquesTemps estadistiques) {
+        return new EstadistiquesTempsDto(estadistiques.mostres(), estadistiques.mitjana(), estadistiques.p50(),
+                estadistiques.p95(), estadistiques.p99(), estadistiques.maxim());
+    }
+
+    private <K> Map<K, EstadistiquesTempsDto> toDtos(Map<K, EstadistiquesTemps> estadistiques) {
+        Map<K, EstadistiquesTempsDto> dtos = new LinkedHashMap<>();
+        estadistiques.forEach((clau, valor) -> dtos.put(clau, toDto(valor)));
+        return dtos;
+    }
+}
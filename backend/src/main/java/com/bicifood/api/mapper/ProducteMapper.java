@@ -0,0 +1,59 @@
+package com.bicifood.api.mapper;
+
+import com.bicifood.api.dto.ProducteDto;
+import com.bicifood.api.entity.Categoria;
+import com.bicifood.api.entity.Producte;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mapper escrit a mà entre Producte i ProducteDto.
+ * Copia els camps directament amb getters i setters, sense reflexió.
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class ProducteMapper {
+
+    /**
+     * Converteix una entitat Producte a DTO
+     * @param producte l'entitat
+     * @return el DTO amb l'ID i el nom de la categoria aplanats
+     */
+    public ProducteDto toDto(Producte producte) {
+        ProducteDto dto = new ProducteDto();
+        dto.setId(producte.getId());
+        dto.setNom(producte.getNom());
+        dto.setPreu(producte.getPreu());
+        dto.setImatgePath(producte.getImatgePath());
+        dto.setStock(producte.getStock());
+        dto.setDescripcio(producte.getDescripcio());
+        Categoria categoria = producte.getCategoria();
+        if (categoria != null) {
+            dto.setCategoriaId(categoria.getId());
+            dto.setCategoriaNom(categoria.getNom());
+        }
+        return dto;
+    }
+
+    /**
+     * Converteix un DTO a entitat Producte
+     * @param dto el DTO
+     * @return l'entitat; la categoria només porta l'ID i el nom, el servei la resol
+     */
+    public Producte toEntity(ProducteDto dto) {
+        Producte producte = new Producte();
+        producte.setId(dto.getId());
+        producte.setNom(dto.getNom());
+        producte.setPreu(dto.getPreu());
+        producte.setImatgePath(dto.getImatgePath());
+        producte.setStock(dto.getStock());
+        producte.setDescripcio(dto.getDescripcio());
+        if (dto.getCategoriaId() != null) {
+            Categoria categoria = new Categoria(dto.getCategoriaNom());
+            categoria.setId(dto.getCategoriaId());
+            producte.setCategoria(categoria);
+        }
+        return producte;
+    }
+}
@@ -0,0 +1,51 @@
+package com.bicifood.api.mapper;
+
+import com.bicifood.api.dto.LiniaReservaDto;
+import com.bicifood.api.dto.ReservaDto;
+import com.bicifood.api.service.ReservesStock;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Mapper escrit a mà entre les reserves d'stock i ReservaDto
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class ReservaMapper {
+
+    /**
+     * Converteix una reserva a DTO
+     * @param reserva la reserva
+     * @return el DTO, amb les línies ordenades per ID de producte
+     */
+    public ReservaDto toDto(ReservesStock.Reserva reserva) {
+        List<LiniaReservaDto> linies = reserva.quantitats().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entrada -> new LiniaReservaDto(entrada.getKey(), entrada.getValue()))
+                .collect(Collectors.toList());
+        LocalDateTime expiracio = LocalDateTime.ofInstant(Instant.ofEpochMilli(reserva.expiraMillis()), ZoneId.systemDefault());
+        return new ReservaDto(reserva.id(), linies, expiracio);
+    }
+
+    /**
+     * Agrupa les línies del DTO en quantitats per producte
+     * @param dto el DTO
+     * @return quantitat per ID de producte
+     */
+    public Map<Integer, Integer> toQuantitats(ReservaDto dto) {
+        Map<Integer, Integer> quantitats = new LinkedHashMap<>();
+        for (LiniaReservaDto linia : dto.getLinies()) {
+            quantitats.merge(linia.getProducteId(), linia.getQuantitat(), Integer::sum);
+        }
+        return quantitats;
+    }
+}
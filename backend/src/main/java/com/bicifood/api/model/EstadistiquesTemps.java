@@ -0,0 +1,15 @@
+package com.bicifood.api.model;
+
+/**
+ * Estadístiques d'un histograma de temps de lliurament, en segons
+ * @param mostres nombre de lliuraments
+ * @param mitjana temps mitjà
+ * @param p50 mediana
+ * @param p95 percentil 95
+ * @param p99 percentil 99
+ * @param maxim temps màxim
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public record EstadistiquesTemps(long mostres, double mitjana, long p50, long p95, long p99, long maxim) {}
@@ -0,0 +1,17 @@
+package com.bicifood.api.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lliurament assignat a un repartidor i encara no lliurat
+ * @param lliuramentId l'ID del lliurament
+ * @param comandaId l'ID de la comanda
+ * @param adrecaLliurament l'adreça de lliurament
+ * @param cpLliurament el codi postal de lliurament
+ * @param dataHoraAssignacio quan s'ha assignat
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public record LliuramentAssignat(Integer lliuramentId, Integer comandaId, String adrecaLliurament,
+                                 String cpLliurament, LocalDateTime dataHoraAssignacio) {}
@@ -0,0 +1,41 @@
+package com.bicifood.api.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pla de viatges de bicicleta per a les comandes en preparació, amb el seu informe
+ * @param viatges els viatges del pla
+ * @param informe la comparació amb el repartiment d'una comanda per viatge
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public record PlaViatges(List<Viatge> viatges, Informe informe) {
+
+    /**
+     * Viatge d'un repartidor
+     * @param comandaIds les comandes, en l'ordre en què s'han afegit
+     * @param codisPostals els codis postals diferents del viatge
+     * @param unitats unitats totals a la bossa
+     * @param primeraComanda data de la comanda més antiga
+     * @param darreraComanda data de la comanda més recent
+     */
+    public record Viatge(List<Integer> comandaIds, List<String> codisPostals, int unitats,
+                         LocalDateTime primeraComanda, LocalDateTime darreraComanda) {}
+
+    /**
+     * Comparació del pla amb el repartiment d'una comanda per viatge
+     * @param comandes comandes planificades
+     * @param viatges viatges del pla
+     * @param viatgesEstalviats viatges menys que amb una comanda per viatge
+     * @param comandesPerViatge mitjana de comandes per viatge
+     * @param ocupacioMitjana ocupació mitjana de la bossa al pla (0 a 1)
+     * @param ocupacioUnaComanda ocupació mitjana de la bossa amb una comanda per viatge (0 a 1)
+     * @param esperaMaximaMinuts màxima diferència de temps entre comandes d'un mateix viatge
+     * @param tempsCalculMicros temps de càlcul de l'heurística
+     */
+    public record Informe(int comandes, int viatges, int viatgesEstalviats, double comandesPerViatge,
+                          double ocupacioMitjana, double ocupacioUnaComanda, long esperaMaximaMinuts,
+                          long tempsCalculMicros) {}
+}
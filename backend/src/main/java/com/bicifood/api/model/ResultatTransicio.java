@@ -0,0 +1,31 @@
+package com.bicifood.api.model;
+
+/**
+ * Resultat del canvi d'estat o de la cancel·lació d'una comanda dins d'una operació massiva
+ * @param comandaId l'ID de la comanda
+ * @param resultat què ha passat amb la comanda
+ * @param estat el nom de l'estat de la comanda després de l'operació, o null si no existeix
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public record ResultatTransicio(Integer comandaId, Resultat resultat, String estat) {
+
+    /**
+     * Resultat possible per a cada comanda
+     */
+    public enum Resultat {
+        /** L'estat s'ha canviat */
+        ACTUALITZADA,
+        /** La comanda s'ha cancel·lat i eliminat */
+        CANCELLADA,
+        /** La comanda ja era a l'estat de destinació */
+        SENSE_CANVI,
+        /** No existeix cap comanda amb aquest ID */
+        NO_TROBADA,
+        /** El graf d'estats no permet la transició des de l'estat actual */
+        NO_PERMESA,
+        /** Una altra operació ha canviat l'estat entre la lectura i l'actualització */
+        CONFLICTE
+    }
+}
@@ -0,0 +1,38 @@
+package com.bicifood.api.model;
+
+/**
+ * Seguiment d'una petició de comanda rebuda de manera asíncrona
+ * @param id identificador de seguiment retornat al client
+ * @param estat estat actual
+ * @param comandaId l'ID de la comanda creada, quan està completada
+ * @param error el motiu de la fallida, si n'hi ha
+ * @param actualitzatMillis darrer canvi d'estat
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public record SeguimentComanda(String id, Estat estat, Integer comandaId, String error, long actualitzatMillis) {
+
+    /**
+     * Estat d'una petició de comanda
+     */
+    public enum Estat { EN_CUA, PROCESSANT, COMPLETADA, FALLIDA }
+
+    /**
+     * Còpia del seguiment amb un estat nou
+     * @param nouEstat el nou estat
+     * @param nouComandaId l'ID de la comanda creada, o null
+     * @param nouError el motiu de la fallida, o null
+     * @return el seguiment actualitzat ara
+     */
+    public SeguimentComanda amb(Estat nouEstat, Integer nouComandaId, String nouError) {
+        return new SeguimentComanda(id, nouEstat, nouComandaId, nouError, System.currentTimeMillis());
+    }
+
+    /**
+     * @return true si la petició ja no canviarà d'estat
+     */
+    public boolean isFinalitzat() {
+        return estat == Estat.COMPLETADA || estat == Estat.FALLIDA;
+    }
+}
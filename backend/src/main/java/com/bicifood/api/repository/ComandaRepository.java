@@ -1,15 +1,20 @@
 package com.bicifood.api.repository;
 
 import com.bicifood.api.entity.Comanda;
+import com.bicifood.api.entity.EstatComanda;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -54,33 +59,23 @@ public interface ComandaRepository extends JpaRepository<Comanda, Integer> {
     List<Comanda> findByEstatNom(@Param("nomEstat") String nomEstat);
 
     /**
-     * Troba comandes pendents (estat PENDENT)
-     * @return llista de comandes pendents
-     */
-    @Query("SELECT c FROM Comanda c WHERE c.estat.nom = 'PENDENT' ORDER BY c.dataHoraComanda ASC")
-    List<Comanda> findPendingOrders();
-
-    /**
-     * Troba comandes en preparació (estat PREPARANT)
-     * @return llista de comandes en preparació
-     */
-    @Query("SELECT c FROM Comanda c WHERE c.estat.nom = 'PREPARANT' ORDER BY c.dataHoraComanda ASC")
-    List<Comanda> findPreparingOrders();
-
-    /**
-     * Troba comandes en ruta (estat EN RUTA)
-     * @return llista de comandes en ruta
+     * Troba comandes d'un estat, de la més antiga a la més recent.
+     * Filtra per la clau forana de l'estat, sense join amb estat_comanda; l'ID s'obté del
+     * registre d'estats en memòria
+     * @param estatId l'ID de l'estat
+     * @return llista de comandes amb aquest estat
      */
-    @Query("SELECT c FROM Comanda c WHERE c.estat.nom = 'EN RUTA' ORDER BY c.dataHoraComanda ASC")
-    List<Comanda> findOrdersInRoute();
+    List<Comanda> findByEstatIdOrderByDataHoraComandaAsc(Integer estatId);
 
     /**
-     * Troba comandes lliurades (estat LLIURADA)
-     * @param pageable paginació
-     * @return pàgina de comandes lliurades
+     * Dades per agrupar en viatges les comandes d'un estat, amb les unitats sumades a la base de dades
+     * @param estatId l'ID de l'estat
+     * @return files [id, cpLliurament, dataHoraComanda, unitats] de la més antiga a la més recent
      */
-    @Query("SELECT c FROM Comanda c WHERE c.estat.nom = 'LLIURADA' ORDER BY c.dataHoraComanda DESC")
-    Page<Comanda> findDeliveredOrders(Pageable pageable);
+    @Query("SELECT c.id, c.cpLliurament, c.dataHoraComanda, SUM(l.quantitat) FROM Comanda c " +
+           "JOIN c.liniesComanda l WHERE c.estat.id = :estatId " +
+           "GROUP BY c.id, c.cpLliurament, c.dataHoraComanda ORDER BY c.dataHoraComanda ASC, c.id ASC")
+    List<Object[]> findDadesViatgeByEstatId(@Param("estatId") Integer estatId);
 
     /**
      * Troba comandes per rang de dates
@@ -146,6 +141,64 @@ public interface ComandaRepository extends JpaRepository<Comanda, Integer> {
     @Query("SELECT c FROM Comanda c ORDER BY c.dataHoraComanda DESC")
     List<Comanda> findRecentOrders(Pageable pageable);
 
+    /**
+     * Pàgina keyset de totes les comandes, de més recent a més antiga.
+     * Retorna les comandes posteriors (en l'ordre) a la parella (data, id) indicada, sense consulta COUNT.
+     * @param data data de la darrera comanda vista
+     * @param id ID de la darrera comanda vista
+     * @param pageable només s'usa la mida
+     * @return llista de comandes
+     */
+    @Query("SELECT c FROM Comanda c WHERE c.dataHoraComanda < :data " +
+           "OR (c.dataHoraComanda = :data AND c.id < :id) " +
+           "ORDER BY c.dataHoraComanda DESC, c.id DESC")
+    List<Comanda> findKeyset(@Param("data") LocalDateTime data, @Param("id") Integer id, Pageable pageable);
+
+    /**
+     * Pàgina keyset de les comandes d'un client
+     * @param clientId l'ID del client
+     * @param data data de la darrera comanda vista
+     * @param id ID de la darrera comanda vista
+     * @param pageable només s'usa la mida
+     * @return llista de comandes
+     */
+    @Query("SELECT c FROM Comanda c WHERE c.client.id = :clientId " +
+           "AND (c.dataHoraComanda < :data OR (c.dataHoraComanda = :data AND c.id < :id)) " +
+           "ORDER BY c.dataHoraComanda DESC, c.id DESC")
+    List<Comanda> findKeysetByClientId(@Param("clientId") Integer clientId, @Param("data") LocalDateTime data,
+                                       @Param("id") Integer id, Pageable pageable);
+
+    /**
+     * Pàgina keyset de les comandes d'un estat
+     * @param estatId l'ID de l'estat
+     * @param data data de la darrera comanda vista
+     * @param id ID de la darrera comanda vista
+     * @param pageable només s'usa la mida
+     * @return llista de comandes
+     */
+    @Query("SELECT c FROM Comanda c WHERE c.estat.id = :estatId " +
+           "AND (c.dataHoraComanda < :data OR (c.dataHoraComanda = :data AND c.id < :id)) " +
+           "ORDER BY c.dataHoraComanda DESC, c.id DESC")
+    List<Comanda> findKeysetByEstatId(@Param("estatId") Integer estatId, @Param("data") LocalDateTime data,
+                                      @Param("id") Integer id, Pageable pageable);
+
+    /**
+     * Pàgina keyset de les comandes d'un rang de dates
+     * @param startDate data d'inici
+     * @param endDate data de fi
+     * @param data data de la darrera comanda vista
+     * @param id ID de la darrera comanda vista
+     * @param pageable només s'usa la mida
+     * @return llista de comandes
+     */
+    @Query("SELECT c FROM Comanda c WHERE c.dataHoraComanda BETWEEN :startDate AND :endDate " +
+           "AND (c.dataHoraComanda < :data OR (c.dataHoraComanda = :data AND c.id < :id)) " +
+           "ORDER BY c.dataHoraComanda DESC, c.id DESC")
+    List<Comanda> findKeysetByDataHoraComandaBetween(@Param("startDate") LocalDateTime startDate,
+                                                     @Param("endDate") LocalDateTime endDate,
+                                                     @Param("data") LocalDateTime data,
+                                                     @Param("id") Integer id, Pageable pageable);
+
     /**
      * Troba comandes per client i estat
      * @param clientId l'ID del client
@@ -154,4 +207,46 @@ public interface ComandaRepository extends JpaRepository<Comanda, Integer> {
      */
     @Query("SELECT c FROM Comanda c WHERE c.client.id = :clientId AND c.estat.id = :estatId ORDER BY c.dataHoraComanda DESC")
     List<Comanda> findByClientIdAndEstatId(@Param("clientId") Integer clientId, @Param("estatId") Integer estatId);
-}
\ No newline at end of file
+
+    /**
+     * Obté l'ID, el client i l'estat de diverses comandes sense carregar-les
+     * @param ids els IDs de les comandes
+     * @return files [id, clientId, estatId] de les comandes que existeixen
+     */
+    @Query("SELECT c.id, c.client.id, c.estat.id FROM Comanda c WHERE c.id IN :ids")
+    List<Object[]> findEstatsByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Canvia l'estat de diverses comandes amb un sol UPDATE.
+     * Només canvia les que continuen a l'estat d'origen, de manera que una modificació
+     * concurrent no se sobreescriu
+     * @param ids els IDs de les comandes
+     * @param estatOrigenId l'estat que han de tenir ara
+     * @param nouEstat l'estat de destinació
+     * @return nombre de comandes actualitzades
+     */
+    @Modifying
+    @Query("UPDATE Comanda c SET c.estat = :nouEstat WHERE c.id IN :ids AND c.estat.id = :estatOrigenId")
+    int updateEstatMassiu(@Param("ids") Collection<Integer> ids, @Param("estatOrigenId") Integer estatOrigenId,
+                          @Param("nouEstat") EstatComanda nouEstat);
+
+    /**
+     * Bloqueja per escriptura les comandes que continuen en un estat, sense carregar-les.
+     * Impedeix que una altra transacció les canviï d'estat mentre es cancel·len
+     * @param ids els IDs de les comandes
+     * @param estatId l'estat que han de tenir
+     * @return files [id, clientId] de les comandes bloquejades
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c.id, c.client.id FROM Comanda c WHERE c.id IN :ids AND c.estat.id = :estatId")
+    List<Object[]> lockByIdsAndEstatId(@Param("ids") Collection<Integer> ids, @Param("estatId") Integer estatId);
+
+    /**
+     * Elimina diverses comandes amb un sol DELETE; les línies i els lliuraments s'han d'haver eliminat abans
+     * @param ids els IDs de les comandes
+     * @return nombre de comandes eliminades
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Comanda c WHERE c.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<Integer> ids);
+}
@@ -0,0 +1,52 @@
+package com.bicifood.api.repository;
+
+import com.bicifood.api.entity.EsdevenimentComanda;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository per l'entitat EsdevenimentComanda (outbox de canvis d'estat)
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Repository
+public interface EsdevenimentComandaRepository extends JpaRepository<EsdevenimentComanda, Long> {
+
+    /**
+     * Troba el següent lot d'esdeveniments a publicar, en ordre d'ID
+     * @param darrerId l'ID del darrer esdeveniment ja publicat
+     * @param pageable mida del lot
+     * @return llista d'esdeveniments posteriors a darrerId
+     */
+    @Query("SELECT e FROM EsdevenimentComanda e WHERE e.id > :darrerId ORDER BY e.id ASC")
+    List<EsdevenimentComanda> findSeguents(@Param("darrerId") Long darrerId, Pageable pageable);
+
+    /**
+     * Troba els esdeveniments d'un rang d'IDs, en ordre d'ID
+     * @param desDe el primer ID del rang
+     * @param finsA el darrer ID del rang
+     * @return llista d'esdeveniments del rang que ja han fet commit
+     */
+    @Query("SELECT e FROM EsdevenimentComanda e WHERE e.id BETWEEN :desDe AND :finsA ORDER BY e.id ASC")
+    List<EsdevenimentComanda> findEntre(@Param("desDe") Long desDe, @Param("finsA") Long finsA);
+
+    /**
+     * Elimina els esdeveniments ja publicats a tots els subscriptors i més antics que una data
+     * @param finsId l'ID més alt publicat a tots els subscriptors
+     * @param abansDe data límit
+     * @return nombre d'esdeveniments eliminats
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EsdevenimentComanda e WHERE e.id <= :finsId AND e.dataHora < :abansDe")
+    int deletePublicats(@Param("finsId") Long finsId, @Param("abansDe") LocalDateTime abansDe);
+}
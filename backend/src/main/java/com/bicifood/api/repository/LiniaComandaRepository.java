@@ -2,11 +2,13 @@ package com.bicifood.api.repository;
 
 import com.bicifood.api.entity.LiniaComanda;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -48,6 +50,13 @@ public interface LiniaComandaRepository extends JpaRepository<LiniaComanda, Inte
     @Query("SELECT COALESCE(SUM(lc.quantitat), 0) FROM LiniaComanda lc WHERE lc.producte.id = :producteId")
     Long calculateTotalQuantitySold(@Param("producteId") Integer producteId);
 
+    /**
+     * Suma la quantitat venuda de cada producte en una sola consulta
+     * @return files [ID de producte, quantitat total]
+     */
+    @Query("SELECT lc.producte.id, SUM(lc.quantitat) FROM LiniaComanda lc GROUP BY lc.producte.id")
+    List<Object[]> sumQuantitatsPerProducte();
+
     /**
      * Troba els productes més venuts (per quantitat)
      * @param limit número màxim de resultats
@@ -114,4 +123,21 @@ public interface LiniaComandaRepository extends JpaRepository<LiniaComanda, Inte
      */
     @Query("SELECT lc FROM LiniaComanda lc WHERE lc.comanda.client.id = :clientId")
     List<LiniaComanda> findByClientId(@Param("clientId") Integer clientId);
-}
\ No newline at end of file
+
+    /**
+     * Suma les quantitats per producte de diverses comandes
+     * @param comandaIds els IDs de les comandes
+     * @return files [producteId, quantitat total]
+     */
+    @Query("SELECT lc.producte.id, SUM(lc.quantitat) FROM LiniaComanda lc WHERE lc.comanda.id IN :comandaIds GROUP BY lc.producte.id")
+    List<Object[]> sumQuantitatsPerProducteByComandaIds(@Param("comandaIds") Collection<Integer> comandaIds);
+
+    /**
+     * Elimina les línies de diverses comandes amb un sol DELETE
+     * @param comandaIds els IDs de les comandes
+     * @return nombre de línies eliminades
+     */
+    @Modifying
+    @Query("DELETE FROM LiniaComanda lc WHERE lc.comanda.id IN :comandaIds")
+    int deleteByComandaIds(@Param("comandaIds") Collection<Integer> comandaIds);
+}
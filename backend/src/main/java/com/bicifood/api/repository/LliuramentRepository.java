@@ -1,14 +1,18 @@
 package com.bicifood.api.repository;
 
 import com.bicifood.api.entity.Lliurament;
+import com.bicifood.api.entity.Usuari;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -125,7 +129,8 @@ public interface LliuramentRepository extends JpaRepository<Lliurament, Integer>
      * Calcula el temps mitjà de lliurament (des de l'assignació fins al lliurament)
      * @param repartidorId l'ID del repartidor (opcional)
      * @return temps mitjà en minuts
-     * NOTA: Temporalment deshabilitada per compatibilitat amb H2
+     * NOTA: Temporalment deshabilitada per compatibilitat amb H2; els temps de lliurament
+     * es calculen en memòria a TempsLliurament
      */
     // @Query("SELECT AVG(CAST((EXTRACT(EPOCH FROM l.dataHoraLliuramentReal) - EXTRACT(EPOCH FROM l.dataHoraAssignacio))/60 AS DOUBLE)) " +
     //        "FROM Lliurament l WHERE l.dataHoraLliuramentReal IS NOT NULL " +
@@ -146,4 +151,88 @@ public interface LliuramentRepository extends JpaRepository<Lliurament, Integer>
      * @return true si existeix, false altrament
      */
     boolean existsByComandaId(Integer comandaId);
-}
\ No newline at end of file
+
+    /**
+     * Marca com a lliurats, amb un sol UPDATE, els lliuraments pendents de diverses comandes
+     * @param comandaIds els IDs de les comandes
+     * @param dataHora la data i hora de lliurament
+     * @return nombre de lliuraments actualitzats
+     */
+    @Modifying
+    @Query("UPDATE Lliurament l SET l.dataHoraLliuramentReal = :dataHora " +
+           "WHERE l.comanda.id IN :comandaIds AND l.dataHoraLliuramentReal IS NULL")
+    int marcarComLliurats(@Param("comandaIds") Collection<Integer> comandaIds, @Param("dataHora") LocalDateTime dataHora);
+
+    /**
+     * Elimina els lliuraments de diverses comandes amb un sol DELETE
+     * @param comandaIds els IDs de les comandes
+     * @return nombre de lliuraments eliminats
+     */
+    @Modifying
+    @Query("DELETE FROM Lliurament l WHERE l.comanda.id IN :comandaIds")
+    int deleteByComandaIds(@Param("comandaIds") Collection<Integer> comandaIds);
+
+    /**
+     * Obté les dades de despatx dels lliuraments sense repartidor, sense carregar les entitats
+     * @return files [lliuramentId, comandaId, cpLliurament, dataHoraComanda, adrecaLliurament]
+     */
+    @Query("SELECT l.id, c.id, c.cpLliurament, c.dataHoraComanda, c.adrecaLliurament FROM Lliurament l JOIN l.comanda c " +
+           "WHERE l.repartidor IS NULL")
+    List<Object[]> findDadesDespatxSenseAssignar();
+
+    /**
+     * Obté les dades de despatx dels lliuraments sense repartidor de diverses comandes
+     * @param comandaIds els IDs de les comandes
+     * @return files [lliuramentId, comandaId, cpLliurament, dataHoraComanda, adrecaLliurament]
+     */
+    @Query("SELECT l.id, c.id, c.cpLliurament, c.dataHoraComanda, c.adrecaLliurament FROM Lliurament l JOIN l.comanda c " +
+           "WHERE l.repartidor IS NULL AND c.id IN :comandaIds")
+    List<Object[]> findDadesDespatxSenseAssignarByComandaIds(@Param("comandaIds") Collection<Integer> comandaIds);
+
+    /**
+     * Obté els lliuraments assignats i encara no lliurats, en ordre d'assignació
+     * @return files [repartidorId, lliuramentId, comandaId, adrecaLliurament, cpLliurament, dataHoraAssignacio]
+     */
+    @Query("SELECT l.repartidor.id, l.id, c.id, c.adrecaLliurament, c.cpLliurament, l.dataHoraAssignacio " +
+           "FROM Lliurament l JOIN l.comanda c WHERE l.repartidor IS NOT NULL AND l.dataHoraLliuramentReal IS NULL " +
+           "ORDER BY l.dataHoraAssignacio ASC, l.id ASC")
+    List<Object[]> findLliuramentsPendentsAssignats();
+
+    /**
+     * Conta els lliuraments completats de cada repartidor
+     * @return files [repartidorId, nombre de lliuraments completats]
+     */
+    @Query("SELECT l.repartidor.id, COUNT(l) FROM Lliurament l " +
+           "WHERE l.repartidor IS NOT NULL AND l.dataHoraLliuramentReal IS NOT NULL GROUP BY l.repartidor.id")
+    List<Object[]> countLliuramentsCompletatsPerRepartidor();
+
+    /**
+     * Assigna un repartidor a diversos lliuraments amb un sol UPDATE, només si encara no en tenen
+     * @param ids els IDs dels lliuraments
+     * @param repartidor el repartidor
+     * @return nombre de lliuraments assignats
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Lliurament l SET l.repartidor = :repartidor, l.dataHoraAssignacio = :dataHora " +
+           "WHERE l.id IN :ids AND l.repartidor IS NULL")
+    int assignarRepartidor(@Param("ids") Collection<Integer> ids, @Param("repartidor") Usuari repartidor,
+                           @Param("dataHora") LocalDateTime dataHora);
+
+    /**
+     * Obté el repartidor de diversos lliuraments
+     * @param ids els IDs dels lliuraments
+     * @return files [lliuramentId, repartidorId] dels lliuraments que existeixen
+     */
+    @Query("SELECT l.id, l.repartidor.id FROM Lliurament l WHERE l.id IN :ids")
+    List<Object[]> findRepartidorsByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Obté les dades de temps dels lliuraments completats des d'una data, sense agregar-les
+     * @param desDe data mínima de lliurament
+     * @return files [repartidorId, cpLliurament, dataHoraAssignacio, dataHoraLliuramentReal]
+     */
+    @Query("SELECT l.repartidor.id, c.cpLliurament, l.dataHoraAssignacio, l.dataHoraLliuramentReal " +
+           "FROM Lliurament l JOIN l.comanda c WHERE l.repartidor IS NOT NULL AND l.dataHoraLliuramentReal >= :desDe")
+    List<Object[]> findTempsLliuramentDesDe(@Param("desDe") LocalDateTime desDe);
+}
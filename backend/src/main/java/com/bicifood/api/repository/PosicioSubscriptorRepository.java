@@ -0,0 +1,15 @@
+package com.bicifood.api.repository;
+
+import com.bicifood.api.entity.PosicioSubscriptor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository per l'entitat PosicioSubscriptor
+ * 
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Repository
+public interface PosicioSubscriptorRepository extends JpaRepository<PosicioSubscriptor, String> {
+}
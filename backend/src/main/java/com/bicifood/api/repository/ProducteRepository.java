@@ -3,12 +3,15 @@ package com.bicifood.api.repository;
 import com.bicifood.api.entity.Producte;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,6 +53,29 @@ public interface ProducteRepository extends JpaRepository<Producte, Integer> {
      */
     Page<Producte> findByCategoriaId(Integer categoriaId, Pageable pageable);
 
+    /**
+     * Troba productes pels seus IDs amb la categoria carregada a la mateixa consulta
+     * @param ids els IDs dels productes
+     * @return llista de productes trobats
+     */
+    @Query("SELECT p FROM Producte p LEFT JOIN FETCH p.categoria WHERE p.id IN :ids")
+    List<Producte> findAllAmbCategoriaByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Troba tots els productes com a Slice (sense consulta COUNT)
+     * @param pageable paginació
+     * @return slice de productes
+     */
+    Slice<Producte> findSliceBy(Pageable pageable);
+
+    /**
+     * Troba productes per categoria com a Slice (sense consulta COUNT)
+     * @param categoriaId l'ID de la categoria
+     * @param pageable paginació
+     * @return slice de productes d'aquesta categoria
+     */
+    Slice<Producte> findSliceByCategoriaId(Integer categoriaId, Pageable pageable);
+
     /**
      * Troba productes per nom (cerca parcial, case-insensitive)
      * @param nom part del nom del producte
@@ -93,6 +119,18 @@ public interface ProducteRepository extends JpaRepository<Producte, Integer> {
                                      @Param("maxPreu") BigDecimal maxPreu, 
                                      Pageable pageable);
 
+    /**
+     * Troba productes per rang de preus com a Slice (sense consulta COUNT)
+     * @param minPreu preu mínim
+     * @param maxPreu preu màxim
+     * @param pageable paginació
+     * @return slice de productes en el rang de preus
+     */
+    @Query("SELECT p FROM Producte p WHERE p.preu BETWEEN :minPreu AND :maxPreu")
+    Slice<Producte> findSliceByPreuBetween(@Param("minPreu") BigDecimal minPreu,
+                                           @Param("maxPreu") BigDecimal maxPreu,
+                                           Pageable pageable);
+
     /**
      * Troba productes ordenats per preu (ascendent)
      * @param pageable paginació
@@ -129,6 +167,17 @@ public interface ProducteRepository extends JpaRepository<Producte, Integer> {
            "LOWER(p.descripcio) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     Page<Producte> searchProducts(@Param("searchTerm") String searchTerm, Pageable pageable);
 
+    /**
+     * Cerca productes per nom o descripció com a Slice (sense consulta COUNT)
+     * @param searchTerm terme de cerca
+     * @param pageable paginació
+     * @return slice de productes que coincideixen
+     */
+    @Query("SELECT p FROM Producte p WHERE " +
+           "LOWER(p.nom) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(p.descripcio) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    Slice<Producte> searchProductsSlice(@Param("searchTerm") String searchTerm, Pageable pageable);
+
     /**
      * Troba productes per categoria i amb stock disponible
      * @param categoriaId l'ID de la categoria
@@ -136,4 +185,42 @@ public interface ProducteRepository extends JpaRepository<Producte, Integer> {
      */
     @Query("SELECT p FROM Producte p WHERE p.categoria.id = :categoriaId AND p.stock > 0")
     List<Producte> findAvailableProductsByCategory(@Param("categoriaId") Integer categoriaId);
-}
\ No newline at end of file
+
+    /**
+     * Obté només l'stock actual d'un producte
+     * @param id l'ID del producte
+     * @return Optional amb l'stock si el producte existeix
+     */
+    @Query("SELECT p.stock FROM Producte p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Integer id);
+
+    /**
+     * Obté l'stock de tots els productes
+     * @return parelles [ID, stock]
+     */
+    @Query("SELECT p.id, p.stock FROM Producte p")
+    List<Object[]> findIdsIStocks();
+
+    /**
+     * Resta stock de manera atòmica només si n'hi ha prou; la comprovació i l'escriptura
+     * són una sola sentència, sense llegir l'stock abans
+     * @param id l'ID del producte
+     * @param quantitat la quantitat a restar
+     * @return 1 si s'ha descomptat, 0 si el producte no existeix o no hi ha prou stock
+     */
+    @Modifying
+    // SQL natiu: en JPQL Hibernate converteix el paràmetre amb el columnDefinition ("int default 0"), que no és un tipus vàlid per a CAST
+    @Query(value = "UPDATE producte SET stock = stock - :quantitat WHERE id_producte = :id AND stock >= :quantitat",
+           nativeQuery = true)
+    int decrementarStock(@Param("id") Integer id, @Param("quantitat") Integer quantitat);
+
+    /**
+     * Suma stock de manera atòmica (p. ex. en cancel·lar una comanda)
+     * @param id l'ID del producte
+     * @param quantitat la quantitat a sumar
+     * @return 1 si s'ha actualitzat, 0 si el producte no existeix
+     */
+    @Modifying
+    @Query(value = "UPDATE producte SET stock = stock + :quantitat WHERE id_producte = :id", nativeQuery = true)
+    int incrementarStock(@Param("id") Integer id, @Param("quantitat") Integer quantitat);
+}
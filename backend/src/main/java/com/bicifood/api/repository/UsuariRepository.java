@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +35,14 @@ public interface UsuariRepository extends JpaRepository<Usuari, Integer> {
      */
     boolean existsByEmail(String email);
 
+    /**
+     * Troba usuaris pels seus IDs amb el rol carregat a la mateixa consulta
+     * @param ids els IDs dels usuaris
+     * @return llista d'usuaris trobats
+     */
+    @Query("SELECT u FROM Usuari u LEFT JOIN FETCH u.rol WHERE u.id IN :ids")
+    List<Usuari> findAllAmbRolByIdIn(@Param("ids") Collection<Integer> ids);
+
     /**
      * Troba usuaris pel rol
      * @param rolId l'ID del rol
@@ -0,0 +1,302 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Producte;
+import com.bicifood.api.repository.CategoriaRepository;
+import com.bicifood.api.repository.ProducteRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Catàleg de productes en memòria amb còpia en escriptura.
+ * Les lectures es serveixen d'un {@link CatalegSnapshot} immutable; les escriptures
+ * registren els productes modificats i, quan la transacció fa commit, es publica
+ * atòmicament un snapshot nou amb una versió més alta. Els productes escrits amb valors
+ * absoluts es tornen a llegir just abans del commit, dins de la mateixa transacció i amb les
+ * files encara bloquejades per l'escriptura, de manera que publicar-los no demana cap altra
+ * connexió; les variacions d'stock de les comandes
+ * s'apliquen com a increments pel camí ràpid del snapshot, que no reordena ni reindexa res.
+ * Les categories hi viatgen amb els productes i es tornen a llegir quan alguna canvia.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class CatalegProductes {
+
+    @Autowired
+    private ProducteRepository producteRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Identifica l'arrencada perquè els ETag d'una execució anterior no coincideixin mai */
+    private final String arrencada = Long.toString(System.currentTimeMillis(), 36);
+
+    private volatile CatalegSnapshot actual;
+
+    private long darreraVersio;
+
+    /**
+     * Ordena la publicació dels canvis respecte del commit a la base de dades. Les transaccions
+     * amb variacions d'stock tenen el bloqueig de lectura des d'abans del commit fins que les han
+     * publicades; les que escriuen valors absoluts, i la reconciliació, tenen el d'escriptura. Així
+     * cap variació no pot fer commit entre la lectura d'una fila i la publicació del seu valor.
+     */
+    private final ReentrantReadWriteLock ordreCommits = new ReentrantReadWriteLock();
+
+    /**
+     * Carrega el catàleg quan l'aplicació està llesta
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        recarregar();
+    }
+
+    /**
+     * Obté el snapshot vigent, carregant-lo si encara no existeix
+     * @return el snapshot actual del catàleg
+     */
+    public CatalegSnapshot snapshot() {
+        CatalegSnapshot snapshot = actual;
+        return snapshot != null ? snapshot : recarregar();
+    }
+
+    /**
+     * ETag fort del catàleg; canvia amb qualsevol escriptura de productes o categories
+     * @return l'ETag amb cometes, llest per a la capçalera HTTP
+     */
+    public String etag() {
+        return "\"" + arrencada + "-" + snapshot().getVersio() + "\"";
+    }
+
+    /**
+     * Torna a llegir tot el catàleg de la base de dades
+     * @return el nou snapshot publicat
+     */
+    public synchronized CatalegSnapshot recarregar() {
+        List<Producte> copies = new ArrayList<>();
+        for (Producte producte : producteRepository.findAll()) {
+            copies.add(CatalegSnapshot.copiar(producte));
+        }
+        CatalegSnapshot nou = new CatalegSnapshot(++darreraVersio, copies, categoriaRepository.findAll());
+        actual = nou;
+        return nou;
+    }
+
+    /**
+     * Registra un producte creat o modificat; es tornarà a llegir abans del commit i es publicarà
+     * quan la transacció l'hagi fet
+     * @param producte el producte modificat
+     */
+    public void registrarCanvi(Producte producte) {
+        registrar(pendents -> pendents.rellegir.add(producte.getId()));
+    }
+
+    /**
+     * Registra un producte eliminat; es retirarà quan la transacció faci commit
+     * @param id l'ID del producte eliminat
+     */
+    public void registrarEliminacio(Integer id) {
+        registrar(pendents -> pendents.rellegir.add(id));
+    }
+
+    /**
+     * Registra una variació d'stock feta amb un UPDATE atòmic a la base de dades.
+     * Es desa com a increment: les variacions de transaccions concurrents commuten entre elles,
+     * i {@link #ordreCommits} impedeix que s'apliquin fora d'ordre respecte d'una escriptura absoluta.
+     * @param id l'ID del producte
+     * @param variacio unitats afegides (positiu) o retirades (negatiu)
+     */
+    public void registrarVariacioStock(Integer id, int variacio) {
+        registrar(pendents -> pendents.variacionsStock.merge(id, variacio, Integer::sum));
+    }
+
+    /**
+     * Programa una recàrrega completa (p. ex. quan canvia una categoria) per després del commit
+     */
+    public void programarRecarrega() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recarregar();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recarregar();
+            }
+        });
+    }
+
+    /**
+     * Compara periòdicament l'stock del snapshot amb el de la base de dades i corregeix les
+     * diferències (p. ex. modificacions fetes fora de l'aplicació). Té el bloqueig d'escriptura
+     * mentre llegeix, de manera que cap variació no està a mig aplicar
+     */
+    @Scheduled(fixedDelayString = "${app.cataleg.reconciliacio-ms:300000}",
+               initialDelayString = "${app.cataleg.reconciliacio-ms:300000}")
+    public void reconciliar() {
+        if (actual == null) {
+            return;
+        }
+        ordreCommits.writeLock().lock();
+        try {
+            List<Object[]> stocks = producteRepository.findIdsIStocks();
+            synchronized (this) {
+                CatalegSnapshot base = actual;
+                Map<Integer, Integer> diferents = new HashMap<>();
+                for (Object[] fila : stocks) {
+                    Integer id = (Integer) fila[0];
+                    Integer stock = (Integer) fila[1];
+                    base.findById(id)
+                            .filter(producte -> !Objects.equals(producte.getStock(), stock))
+                            .ifPresent(producte -> diferents.put(id, stock));
+                }
+                if (!diferents.isEmpty()) {
+                    actual = base.ambStock(++darreraVersio, diferents);
+                }
+            }
+        } finally {
+            ordreCommits.writeLock().unlock();
+        }
+    }
+
+    // Mètodes auxiliars
+
+    /**
+     * Canvis acumulats per una transacció
+     */
+    private static final class Pendents {
+        /** Productes amb escriptures absolutes (creats, modificats o eliminats) */
+        private final Set<Integer> rellegir = new LinkedHashSet<>();
+        private final Map<Integer, Integer> variacionsStock = new LinkedHashMap<>();
+        /** Valor de les files de {@link #rellegir} tal com fan commit; null si s'han eliminat */
+        private Map<Integer, Producte> llegits = Map.of();
+        private Lock bloqueig;
+    }
+
+    private void registrar(Consumer<Pendents> canvi) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Pendents immediats = new Pendents();
+            canvi.accept(immediats);
+            immediats.llegits = llegir(immediats.rellegir);
+            aplicar(immediats);
+            return;
+        }
+
+        Pendents pendents = (Pendents) TransactionSynchronizationManager.getResource(this);
+        if (pendents == null) {
+            Pendents nous = new Pendents();
+            TransactionSynchronizationManager.bindResource(this, nous);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Totes les escriptures surten abans de prendre el bloqueig: cap transacció no
+                    // ha d'esperar un bloqueig de fila mentre el té
+                    producteRepository.flush();
+                    nous.bloqueig = nous.rellegir.isEmpty() ? ordreCommits.readLock() : ordreCommits.writeLock();
+                    nous.bloqueig.lock();
+                    // Les files escrites queden bloquejades fins al commit: el que es llegeix ara és el que hi quedarà
+                    nous.llegits = llegir(nous.rellegir);
+                }
+
+                @Override
+                public void afterCommit() {
+                    aplicar(nous);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalegProductes.this);
+                    if (nous.bloqueig != null) {
+                        nous.bloqueig.unlock();
+                    }
+                }
+            });
+            pendents = nous;
+        }
+        canvi.accept(pendents);
+    }
+
+    private void aplicar(Pendents pendents) {
+        if (pendents.rellegir.isEmpty() && pendents.variacionsStock.isEmpty()) {
+            return;
+        }
+        publicar(pendents.llegits, pendents.variacionsStock);
+    }
+
+    private synchronized void publicar(Map<Integer, Producte> llegits, Map<Integer, Integer> variacionsStock) {
+        CatalegSnapshot base = actual;
+        if (base == null) {
+            recarregar();
+            return;
+        }
+        if (llegits.isEmpty()) {
+            Map<Integer, Integer> stocks = new HashMap<>();
+            variacionsStock.forEach((id, variacio) -> base.findById(id)
+                    .ifPresent(producte -> stocks.put(id, producte.getStock() + variacio)));
+            actual = base.ambStock(++darreraVersio, stocks);
+            return;
+        }
+        Map<Integer, Producte> canvis = new LinkedHashMap<>(llegits);
+        variacionsStock.forEach((id, variacio) -> {
+            if (!llegits.containsKey(id)) {
+                base.findById(id).ifPresent(producte -> {
+                    Producte copia = CatalegSnapshot.copiar(producte);
+                    copia.setStock(copia.getStock() + variacio);
+                    canvis.put(id, copia);
+                });
+            }
+        });
+        actual = base.ambCanvis(++darreraVersio, canvis);
+    }
+
+    /**
+     * Llegeix el valor actual de les files d'uns productes. Dins d'una transacció es refresquen
+     * les entitats del context de persistència, que poden no incloure els UPDATE fets directament
+     * a la fila (p. ex. les variacions d'stock); fora, cada lectura ja és nova
+     * @return còpia de cada producte per ID; null si ja no existeix
+     */
+    private Map<Integer, Producte> llegir(Set<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, Producte> llegits = new LinkedHashMap<>();
+        ids.forEach(id -> llegits.put(id, null));
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            for (Integer id : ids) {
+                Producte producte = entityManager.find(Producte.class, id);
+                if (producte != null) {
+                    entityManager.refresh(producte);
+                    llegits.put(id, CatalegSnapshot.copiar(producte));
+                }
+            }
+        } else {
+            for (Producte producte : producteRepository.findAllById(ids)) {
+                llegits.put(producte.getId(), CatalegSnapshot.copiar(producte));
+            }
+        }
+        return llegits;
+    }
+}
@@ -0,0 +1,527 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Categoria;
+import com.bicifood.api.entity.Producte;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Fotografia immutable i versionada del catàleg de productes.
+ * Els productes que conté són còpies desacoblades de la sessió JPA i no s'han de modificar.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public final class CatalegSnapshot {
+
+    private static final Comparator<Producte> PER_ID = Comparator.comparing(Producte::getId);
+
+    private static final Map<String, Comparator<Producte>> ORDENACIONS = Map.of(
+            "id", PER_ID,
+            "nom", Comparator.comparing(Producte::getNom, Comparator.nullsLast(Comparator.naturalOrder())),
+            "preu", Comparator.comparing(Producte::getPreu, Comparator.nullsLast(Comparator.naturalOrder())),
+            "stock", Comparator.comparing(Producte::getStock, Comparator.nullsLast(Comparator.naturalOrder())),
+            "descripcio", Comparator.comparing(Producte::getDescripcio, Comparator.nullsLast(Comparator.naturalOrder()))
+    );
+
+    private final long versio;
+    /** Productes per ID en un array dens (els IDs són IDENTITY); les posicions sense producte són null */
+    private final Producte[] perId;
+    /** IDs dels productes en ordre ascendent */
+    private final int[] ids;
+    private final List<Producte> productes;
+    private final Map<String, Integer> perNom;
+    private final Map<Integer, int[]> perCategoria;
+    private final List<Categoria> categories;
+    private final Map<Integer, Integer> ambStockPerCategoria;
+    private final IndexCerca indexCerca;
+    private final IndexPreus indexPreus;
+    private final IndexDisponibilitat indexDisponibilitat;
+
+    CatalegSnapshot(long versio, Collection<Producte> copies, Collection<Categoria> categories) {
+        this(versio, copies, ordenarCategories(categories), null, null, null);
+    }
+
+    private CatalegSnapshot(long versio, Collection<Producte> copies, List<Categoria> categories, IndexCerca indexCerca,
+                            IndexPreus indexPreus, IndexDisponibilitat indexDisponibilitat) {
+        List<Producte> ordenats = new ArrayList<>(copies);
+        ordenats.sort(PER_ID);
+
+        int maximId = ordenats.isEmpty() ? -1 : ordenats.get(ordenats.size() - 1).getId();
+        Producte[] densos = new Producte[maximId + 1];
+        int[] ordreIds = new int[ordenats.size()];
+        Map<String, Integer> noms = new HashMap<>(ordenats.size() * 2);
+        Map<Integer, List<Integer>> agrupats = new HashMap<>();
+        Map<Integer, Integer> ambStock = new HashMap<>();
+        for (int i = 0; i < ordenats.size(); i++) {
+            Producte producte = ordenats.get(i);
+            densos[producte.getId()] = producte;
+            ordreIds[i] = producte.getId();
+            noms.put(producte.getNom(), producte.getId());
+            if (producte.getCategoria() != null) {
+                Integer categoriaId = producte.getCategoria().getId();
+                agrupats.computeIfAbsent(categoriaId, k -> new ArrayList<>()).add(producte.getId());
+                if (teStock(producte)) {
+                    ambStock.merge(categoriaId, 1, Integer::sum);
+                }
+            }
+        }
+        Map<Integer, int[]> categoriesIds = new HashMap<>();
+        agrupats.forEach((id, llista) -> categoriesIds.put(id, llista.stream().mapToInt(Integer::intValue).toArray()));
+
+        this.versio = versio;
+        this.perId = densos;
+        this.ids = ordreIds;
+        this.productes = new Vista(densos, ordreIds);
+        this.perNom = Collections.unmodifiableMap(noms);
+        this.perCategoria = Collections.unmodifiableMap(categoriesIds);
+        this.categories = categories;
+        this.ambStockPerCategoria = Collections.unmodifiableMap(ambStock);
+        this.indexCerca = indexCerca != null ? indexCerca : IndexCerca.construir(this.productes);
+        this.indexPreus = indexPreus != null ? indexPreus : IndexPreus.construir(this.productes);
+        this.indexDisponibilitat = indexDisponibilitat != null ? indexDisponibilitat :
+                IndexDisponibilitat.construir(this.productes);
+    }
+
+    /**
+     * Snapshot que comparteix amb l'anterior tot excepte l'stock (vegeu {@link #ambStock})
+     */
+    private CatalegSnapshot(long versio, CatalegSnapshot base, Producte[] perId,
+                            Map<Integer, Integer> ambStockPerCategoria, IndexDisponibilitat indexDisponibilitat) {
+        this.versio = versio;
+        this.perId = perId;
+        this.ids = base.ids;
+        this.productes = new Vista(perId, base.ids);
+        this.perNom = base.perNom;
+        this.perCategoria = base.perCategoria;
+        this.categories = base.categories;
+        this.ambStockPerCategoria = ambStockPerCategoria;
+        this.indexCerca = base.indexCerca;
+        this.indexPreus = base.indexPreus;
+        this.indexDisponibilitat = indexDisponibilitat;
+    }
+
+    /**
+     * Crea un snapshot nou aplicant canvis sobre aquest (còpia en escriptura)
+     * @param novaVersio la versió del snapshot resultant
+     * @param canvis productes modificats per ID; un valor null indica que el producte s'ha eliminat
+     * @return el nou snapshot
+     */
+    CatalegSnapshot ambCanvis(long novaVersio, Map<Integer, Producte> canvis) {
+        Map<Integer, Producte> resultat = new HashMap<>(ids.length * 2);
+        for (int id : ids) {
+            resultat.put(id, perId[id]);
+        }
+        Map<Integer, Producte> anteriors = new HashMap<>();
+        boolean textModificat = false;
+        boolean preuModificat = false;
+        for (Map.Entry<Integer, Producte> canvi : canvis.entrySet()) {
+            Producte anterior = producte(canvi.getKey());
+            Producte producte = canvi.getValue();
+            if (anterior != null) {
+                anteriors.put(canvi.getKey(), anterior);
+            }
+            if (producte == null) {
+                resultat.remove(canvi.getKey());
+                textModificat |= anterior != null;
+                preuModificat |= anterior != null;
+            } else {
+                resultat.put(canvi.getKey(), copiar(producte));
+                textModificat |= anterior == null ||
+                        !Objects.equals(anterior.getNom(), producte.getNom()) ||
+                        !Objects.equals(anterior.getDescripcio(), producte.getDescripcio());
+                preuModificat |= anterior == null || anterior.getPreu().compareTo(producte.getPreu()) != 0;
+            }
+        }
+        // Sense canvis de text es reutilitza l'índex de cerca; els de preu actualitzen l'índex
+        // de preus de manera incremental
+        return new CatalegSnapshot(novaVersio, resultat.values(), categories,
+                textModificat ? null : indexCerca,
+                preuModificat ? indexPreus.ambCanvis(canvis) : indexPreus,
+                indexDisponibilitat.ambCanvis(canvis, anteriors));
+    }
+
+    /**
+     * Crea un snapshot nou on només canvia l'stock d'alguns productes.
+     * És el camí de cada comanda: no es torna a ordenar ni a indexar res; només es copia
+     * l'array de productes per ID i els bitmaps d'stock. Els IDs que no són al catàleg s'ignoren
+     * @param novaVersio la versió del snapshot resultant
+     * @param stocks el nou stock per ID de producte
+     * @return el nou snapshot
+     */
+    CatalegSnapshot ambStock(long novaVersio, Map<Integer, Integer> stocks) {
+        Producte[] nous = perId.clone();
+        Map<Integer, Integer> ambStock = new HashMap<>(ambStockPerCategoria);
+        List<Producte> actualitzats = new ArrayList<>(stocks.size());
+        for (Map.Entry<Integer, Integer> stock : stocks.entrySet()) {
+            Producte anterior = producte(stock.getKey());
+            if (anterior == null) {
+                continue;
+            }
+            Producte copia = copiar(anterior);
+            copia.setStock(stock.getValue());
+            nous[copia.getId()] = copia;
+            actualitzats.add(copia);
+            if (copia.getCategoria() != null && teStock(anterior) != teStock(copia)) {
+                ambStock.merge(copia.getCategoria().getId(), teStock(copia) ? 1 : -1, Integer::sum);
+            }
+        }
+        return new CatalegSnapshot(novaVersio, this, nous, Collections.unmodifiableMap(ambStock),
+                indexDisponibilitat.ambStock(actualitzats));
+    }
+
+    /**
+     * Copia un producte desacoblant-lo de la sessió JPA
+     * @param original el producte gestionat
+     * @return una còpia amb els camps bàsics i la categoria
+     */
+    static Producte copiar(Producte original) {
+        Producte copia = new Producte();
+        copia.setId(original.getId());
+        copia.setNom(original.getNom());
+        copia.setPreu(original.getPreu());
+        copia.setImatgePath(original.getImatgePath());
+        copia.setStock(original.getStock());
+        copia.setDescripcio(original.getDescripcio());
+        if (original.getCategoria() != null) {
+            Categoria categoria = new Categoria(original.getCategoria().getNom());
+            categoria.setId(original.getCategoria().getId());
+            copia.setCategoria(categoria);
+        }
+        return copia;
+    }
+
+    // Consultes
+
+    /**
+     * @return totes les categories (còpies desacoblades), ordenades per ID
+     */
+    public List<Categoria> getCategories() {
+        return categories;
+    }
+
+    /**
+     * @param categoriaId l'ID de la categoria
+     * @return el nombre de productes de la categoria
+     */
+    public int comptarProductes(Integer categoriaId) {
+        return findByCategoria(categoriaId).size();
+    }
+
+    /**
+     * @param categoriaId l'ID de la categoria
+     * @return el nombre de productes de la categoria amb stock disponible
+     */
+    public int comptarProductesAmbStock(Integer categoriaId) {
+        return ambStockPerCategoria.getOrDefault(categoriaId, 0);
+    }
+
+    public long getVersio() {
+        return versio;
+    }
+
+    public int size() {
+        return productes.size();
+    }
+
+    public List<Producte> getProductes() {
+        return productes;
+    }
+
+    public Optional<Producte> findById(Integer id) {
+        return Optional.ofNullable(id != null ? producte(id) : null);
+    }
+
+    public Optional<Producte> findByNom(String nom) {
+        Integer id = perNom.get(nom);
+        return Optional.ofNullable(id != null ? perId[id] : null);
+    }
+
+    public boolean existsByNom(String nom) {
+        return perNom.containsKey(nom);
+    }
+
+    public List<Producte> findByCategoria(Integer categoriaId) {
+        int[] idsCategoria = perCategoria.get(categoriaId);
+        return idsCategoria != null ? new Vista(perId, idsCategoria) : List.of();
+    }
+
+    public Page<Producte> findAll(Pageable pageable) {
+        // Ordenació només per preu: es resol directament amb l'índex de preus
+        Sort.Order order = pageable.getSort().getOrderFor("preu");
+        if (order != null && pageable.getSort().stream().count() == 1) {
+            return findAllOrderByPreu(order.isAscending(), pageable);
+        }
+        return paginar(productes, pageable);
+    }
+
+    public Page<Producte> findByCategoria(Integer categoriaId, Pageable pageable) {
+        return paginar(findByCategoria(categoriaId), pageable);
+    }
+
+    public Page<Producte> findByNomContainingIgnoreCase(String nom, Pageable pageable) {
+        String terme = nom.toLowerCase(Locale.ROOT);
+        return paginar(filtrar(productes, p -> p.getNom().toLowerCase(Locale.ROOT).contains(terme)), pageable);
+    }
+
+    /**
+     * Retorna els productes amb ID més gran que l'indicat, en ordre d'ID (paginació keyset)
+     * @param despresDe l'ID del darrer producte vist, o null per començar pel principi
+     * @param limit nombre màxim de productes
+     * @return llista de productes
+     */
+    public List<Producte> findAllDespresDe(Integer despresDe, int limit) {
+        return despresDe(productes, despresDe, limit);
+    }
+
+    /**
+     * Retorna els productes d'una categoria amb ID més gran que l'indicat, en ordre d'ID
+     * @param categoriaId l'ID de la categoria
+     * @param despresDe l'ID del darrer producte vist, o null per començar pel principi
+     * @param limit nombre màxim de productes
+     * @return llista de productes
+     */
+    public List<Producte> findByCategoriaDespresDe(Integer categoriaId, Integer despresDe, int limit) {
+        return despresDe(findByCategoria(categoriaId), despresDe, limit);
+    }
+
+    /**
+     * Cerca productes per nom i descripció amb l'índex invertit
+     * @param searchTerm terme de cerca
+     * @param pageable paginació; sense ordenació explícita es retornen per rellevància
+     * @return pàgina de productes que coincideixen
+     */
+    public Page<Producte> searchProducts(String searchTerm, Pageable pageable) {
+        List<Integer> ids = indexCerca.cercar(searchTerm);
+        List<Producte> resultats = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            resultats.add(perId[id]);
+        }
+        return paginar(resultats, pageable);
+    }
+
+    public List<Producte> findAvailableProducts() {
+        return resoldre(indexDisponibilitat.ambStock());
+    }
+
+    /**
+     * Productes amb stock baix; el llindar per defecte es respon directament amb el bitmap
+     * @param limit el límit de stock
+     * @return llista de productes amb 0 < stock <= limit
+     */
+    public List<Producte> findLowStockProducts(Integer limit) {
+        if (limit == IndexDisponibilitat.LLINDAR_STOCK_BAIX) {
+            return resoldre(indexDisponibilitat.stockBaix());
+        }
+        return filtrar(resoldre(indexDisponibilitat.ambStock()), p -> p.getStock() <= limit);
+    }
+
+    public List<Producte> findOutOfStockProducts() {
+        return resoldre(indexDisponibilitat.senseStock());
+    }
+
+    public List<Producte> findAvailableProductsByCategory(Integer categoriaId) {
+        return resoldre(indexDisponibilitat.ambStockPerCategoria(categoriaId));
+    }
+
+    /**
+     * Filtra per rang de preus amb l'índex de preus; sense ordenació explícita, el resultat
+     * surt ordenat per preu ascendent
+     * @param minPreu preu mínim
+     * @param maxPreu preu màxim
+     * @param pageable paginació
+     * @return pàgina de productes en el rang
+     */
+    public Page<Producte> findByPreuBetween(BigDecimal minPreu, BigDecimal maxPreu, Pageable pageable) {
+        int inici = indexPreus.primeraPosicioDesDe(IndexPreus.limitCentims(minPreu, true));
+        int fi = Math.max(inici, indexPreus.primeraPosicioDespresDe(IndexPreus.limitCentims(maxPreu, false)));
+        if (pageable.getSort().isSorted()) {
+            return paginar(rangIndexPreus(inici, fi), pageable);
+        }
+        return paginaIndexPreus(inici, fi, false, pageable);
+    }
+
+    /**
+     * Llista tots els productes ordenats per preu directament des de l'índex de preus
+     * @param ascending true per ordre ascendent
+     * @param pageable paginació (se n'ignora l'ordenació)
+     * @return pàgina de productes
+     */
+    public Page<Producte> findAllOrderByPreu(boolean ascending, Pageable pageable) {
+        return paginaIndexPreus(0, indexPreus.size(), !ascending, pageable);
+    }
+
+    /**
+     * Indica si el snapshot pot aplicar l'ordenació demanada
+     * @param sort l'ordenació sol·licitada
+     * @return true si totes les propietats són ordenables en memòria
+     */
+    public static boolean suportaOrdenacio(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!ORDENACIONS.containsKey(order.getProperty())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Mètodes auxiliars
+
+    private static List<Categoria> ordenarCategories(Collection<Categoria> originals) {
+        List<Categoria> copies = new ArrayList<>(originals.size());
+        for (Categoria original : originals) {
+            Categoria categoria = new Categoria(original.getNom());
+            categoria.setId(original.getId());
+            copies.add(categoria);
+        }
+        copies.sort(Comparator.comparing(Categoria::getId));
+        return Collections.unmodifiableList(copies);
+    }
+
+    /**
+     * Llista immutable de productes, en l'ordre d'un array d'IDs, resolta sobre l'array per ID
+     */
+    private static final class Vista extends AbstractList<Producte> implements RandomAccess {
+        private final Producte[] perId;
+        private final int[] ids;
+
+        private Vista(Producte[] perId, int[] ids) {
+            this.perId = perId;
+            this.ids = ids;
+        }
+
+        @Override
+        public Producte get(int index) {
+            return perId[ids[index]];
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    private Producte producte(int id) {
+        return id >= 0 && id < perId.length ? perId[id] : null;
+    }
+
+    private static boolean teStock(Producte producte) {
+        return producte.getStock() != null && producte.getStock() > 0;
+    }
+
+    /**
+     * Converteix un bitmap d'IDs en productes, en ordre d'ID
+     */
+    private List<Producte> resoldre(BitSet ids) {
+        List<Producte> resultat = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            resultat.add(perId[id]);
+        }
+        return resultat;
+    }
+
+    private static List<Producte> filtrar(List<Producte> origen, Predicate<Producte> condicio) {
+        List<Producte> resultat = new ArrayList<>();
+        for (Producte producte : origen) {
+            if (condicio.test(producte)) {
+                resultat.add(producte);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Cerca binària sobre una llista ordenada per ID
+     */
+    private static List<Producte> despresDe(List<Producte> ordenatsPerId, Integer despresDe, int limit) {
+        int inici = 0;
+        if (despresDe != null) {
+            int baix = 0;
+            int alt = ordenatsPerId.size();
+            while (baix < alt) {
+                int mig = (baix + alt) >>> 1;
+                if (ordenatsPerId.get(mig).getId() <= despresDe) {
+                    baix = mig + 1;
+                } else {
+                    alt = mig;
+                }
+            }
+            inici = baix;
+        }
+        return ordenatsPerId.subList(inici, Math.min(inici + limit, ordenatsPerId.size()));
+    }
+
+    private static Page<Producte> paginar(List<Producte> items, Pageable pageable) {
+        List<Producte> ordenats = items;
+        if (pageable.getSort().isSorted()) {
+            ordenats = new ArrayList<>(items);
+            ordenats.sort(comparador(pageable.getSort()));
+        }
+        return pagina(ordenats, pageable);
+    }
+
+    private List<Producte> rangIndexPreus(int inici, int fi) {
+        List<Producte> resultat = new ArrayList<>(fi - inici);
+        for (int i = inici; i < fi; i++) {
+            resultat.add(perId[indexPreus.idA(i)]);
+        }
+        return resultat;
+    }
+
+    /**
+     * Pagina les posicions [inici, fi) de l'índex de preus sense materialitzar tot el rang.
+     * En ordre invers el desempat continua sent l'ID ascendent, com al comparador
+     */
+    private Page<Producte> paginaIndexPreus(int inici, int fi, boolean invers, Pageable pageable) {
+        int total = fi - inici;
+        if (pageable.isUnpaged() && !invers) {
+            return new PageImpl<>(rangIndexPreus(inici, fi));
+        }
+        int desde = pageable.isUnpaged() ? 0 : (int) Math.min(pageable.getOffset(), total);
+        int fins = pageable.isUnpaged() ? total : Math.min(desde + pageable.getPageSize(), total);
+        List<Producte> contingut = new ArrayList<>(fins - desde);
+        for (int i = desde; i < fins; i++) {
+            contingut.add(perId[indexPreus.idA(invers ? indexPreus.posicioDescendent(inici, fi, i) : inici + i)]);
+        }
+        return pageable.isUnpaged() ? new PageImpl<>(contingut) : new PageImpl<>(contingut, pageable, total);
+    }
+
+    static <T> Page<T> pagina(List<T> items, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(items);
+        }
+        int inici = (int) Math.min(pageable.getOffset(), items.size());
+        int fi = Math.min(inici + pageable.getPageSize(), items.size());
+        return new PageImpl<>(items.subList(inici, fi), pageable, items.size());
+    }
+
+    private static Comparator<Producte> comparador(Sort sort) {
+        Comparator<Producte> resultat = null;
+        for (Sort.Order order : sort) {
+            Comparator<Producte> comparador = ORDENACIONS.get(order.getProperty());
+            if (order.isDescending()) {
+                comparador = comparador.reversed();
+            }
+            resultat = resultat == null ? comparador : resultat.thenComparing(comparador);
+        }
+        return resultat.thenComparing(PER_ID);
+    }
+}
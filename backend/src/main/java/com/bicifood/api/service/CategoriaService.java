@@ -20,6 +20,9 @@ public class CategoriaService {
     @Autowired
     private CategoriaRepository categoriaRepository;
 
+    @Autowired
+    private CatalegProductes cataleg;
+
     /**
      * Obté totes les categories
      */
@@ -27,6 +30,14 @@ public class CategoriaService {
         return categoriaRepository.findAll();
     }
 
+    /**
+     * Obté el catàleg en memòria, amb les categories i els recomptes de productes mantinguts
+     * a cada escriptura de productes
+     */
+    public CatalegSnapshot findCataleg() {
+        return cataleg.snapshot();
+    }
+
     /**
      * Obté una categoria per ID
      */
@@ -38,7 +49,9 @@ public class CategoriaService {
      * Guarda una categoria
      */
     public Categoria save(Categoria categoria) {
-        return categoriaRepository.save(categoria);
+        Categoria categoriaDesada = categoriaRepository.save(categoria);
+        cataleg.programarRecarrega();
+        return categoriaDesada;
     }
 
     /**
@@ -46,6 +59,7 @@ public class CategoriaService {
      */
     public void deleteById(Integer id) {
         categoriaRepository.deleteById(id);
+        cataleg.programarRecarrega();
     }
 
     /**
@@ -1,27 +1,41 @@
 package com.bicifood.api.service;
 
+import com.bicifood.api.dto.PaginaCursorDto;
 import com.bicifood.api.entity.Usuari;
 import com.bicifood.api.entity.Comanda;
+import com.bicifood.api.entity.EsdevenimentComanda;
 import com.bicifood.api.entity.EstatComanda;
 import com.bicifood.api.entity.LiniaComanda;
 import com.bicifood.api.entity.Producte;
 import com.bicifood.api.entity.Lliurament;
+import com.bicifood.api.model.ResultatTransicio;
 import com.bicifood.api.repository.UsuariRepository;
 import com.bicifood.api.repository.ComandaRepository;
-import com.bicifood.api.repository.EstatComandaRepository;
+import com.bicifood.api.repository.EsdevenimentComandaRepository;
 import com.bicifood.api.repository.LiniaComandaRepository;
 import com.bicifood.api.repository.ProducteRepository;
 import com.bicifood.api.repository.LliuramentRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Service per gestionar comandes
@@ -33,6 +47,12 @@ import java.util.Optional;
 @Transactional
 public class ComandaService {
 
+    /** Màxim de comandes per transició massiva (limita la mida de la llista IN) */
+    private static final int MAXIM_TRANSICIO_MASSIVA = 500;
+
+    /** Posició inicial de la paginació keyset: més tard que qualsevol comanda real */
+    private static final LocalDateTime INICI_KEYSET = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     @Autowired
     private ComandaRepository comandaRepository;
 
@@ -40,7 +60,7 @@ public class ComandaService {
     private UsuariRepository usuariRepository;
 
     @Autowired
-    private EstatComandaRepository estatComandaRepository;
+    private RegistreEstats registreEstats;
 
     @Autowired
     private LiniaComandaRepository liniaComandaRepository;
@@ -48,9 +68,27 @@ public class ComandaService {
     @Autowired
     private ProducteRepository producteRepository;
 
+    @Autowired
+    private ProducteService producteService;
+
+    @Autowired
+    private ReservesStock reservesStock;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private EsdevenimentComandaRepository esdevenimentRepository;
+
     @Autowired
     private LliuramentRepository lliuramentRepository;
 
+    @Autowired
+    private CatalegProductes cataleg;
+
+    @Autowired
+    private RankingPopularitat rankingPopularitat;
+
     /**
      * Troba totes les comandes
      * @param pageable paginació
@@ -71,6 +109,19 @@ public class ComandaService {
         return comandaRepository.findById(id);
     }
 
+    /**
+     * Obté l'estat d'una comanda sense carregar-la
+     * @param id l'ID de la comanda
+     * @return Optional amb el nom de l'estat si la comanda existeix
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> findNomEstat(Integer id) {
+        return comandaRepository.findEstatsByIds(List.of(id)).stream()
+                .findFirst()
+                .flatMap(fila -> registreEstats.findById((Integer) fila[2]))
+                .map(EstatComanda::getNom);
+    }
+
     /**
      * Crea una nova comanda
      * @param comanda la comanda a crear
@@ -88,9 +139,7 @@ public class ComandaService {
 
         // Verificar que l'estat existeix, si no, assignar PENDENT per defecte
         if (comanda.getEstat() == null) {
-            EstatComanda estatPendent = estatComandaRepository.findByNom("PENDENT")
-                    .orElseThrow(() -> new RuntimeException("Estat PENDENT no trobat"));
-            comanda.setEstat(estatPendent);
+            comanda.setEstat(registreEstats.get(RegistreEstats.PENDENT));
         }
 
         comanda.setClient(client);
@@ -103,57 +152,120 @@ public class ComandaService {
     }
 
     /**
-     * Crea una comanda completa amb línies
+     * Crea una comanda completa amb línies.
+     * Els productes es carreguen amb una sola consulta i l'stock es descompta amb un UPDATE
+     * condicional atòmic per producte, sense llegir-lo i escriure'l des de Java. La resta
+     * d'escriptures (comanda, línies i lliurament) s'envien en lots JDBC en un únic flush final;
+     * els IDs surten de seqüències amb pool, de manera que cap INSERT s'ha d'executar per separat.
      * @param comanda la comanda
      * @param liniesComanda les línies de la comanda
      * @return la comanda creada amb les seves línies
      */
     public Comanda createComandaWithLines(Comanda comanda, List<LiniaComanda> liniesComanda) {
-        // Crear la comanda primer
-        Comanda comandaCreada = save(comanda);
+        return createComandaWithLines(comanda, liniesComanda, null);
+    }
 
-        // Processar cada línia
-        BigDecimal importTotal = BigDecimal.ZERO;
-        
-        for (LiniaComanda linia : liniesComanda) {
-            // Verificar que el producte existeix i té stock suficient
-            Producte producte = producteRepository.findById(linia.getProducte().getId())
-                    .orElseThrow(() -> new RuntimeException("Producte no trobat amb ID: " + linia.getProducte().getId()));
+    /**
+     * Crea una comanda completa amb línies a partir d'una reserva d'stock feta al checkout
+     * @param comanda la comanda
+     * @param liniesComanda les línies de la comanda
+     * @param reservaId l'ID de la reserva que cobreix les línies, o null si no n'hi ha
+     * @return la comanda creada amb les seves línies
+     */
+    public Comanda createComandaWithLines(Comanda comanda, List<LiniaComanda> liniesComanda, String reservaId) {
+        PeticioComanda peticio = new PeticioComanda(comanda, liniesComanda, reservaId);
+        createComandesEnGrup(List.of(peticio));
+        if (peticio.getError() != null) {
+            throw peticio.getError();
+        }
+        return peticio.getComanda();
+    }
 
-            if (producte.getStock() < linia.getQuantitat()) {
-                throw new RuntimeException("Stock insuficient per al producte: " + producte.getNom() + 
-                                         ". Disponible: " + producte.getStock() + ", Sol·licitat: " + linia.getQuantitat());
+    /**
+     * Crea un grup de comandes en una sola transacció (group commit).
+     * Els productes i els clients de tot el grup es carreguen amb una consulta cadascun, i
+     * l'stock de totes les comandes es valida contra aquesta mateixa lectura: les comandes que
+     * no hi caben, o que no són vàlides, es rebutgen soles sense afectar les altres. Totes les
+     * files s'escriuen en un sol flush i, com a darrera escriptura abans del commit, l'stock de
+     * les acceptades es descompta amb un UPDATE condicional per producte per a tot el grup.
+     * Si aquell descompte falla igualment (una venda concurrent fora del grup), es llança
+     * l'excepció i es desfà tot el grup; el cridant pot tornar a provar les comandes una a una.
+     * @param peticions les comandes del grup; cada una queda creada o rebutjada
+     */
+    public void createComandesEnGrup(List<PeticioComanda> peticions) {
+        // Carregar d'una vegada els productes i els clients de tot el grup
+        List<LiniaComanda> totesLesLinies = new ArrayList<>();
+        Set<Integer> clientIds = new HashSet<>();
+        for (PeticioComanda peticio : peticions) {
+            totesLesLinies.addAll(peticio.getLinies());
+            Usuari client = peticio.getComanda().getClient();
+            if (client != null && client.getId() != null) {
+                clientIds.add(client.getId());
             }
-
-            // Configurar la línia
-            linia.setComanda(comandaCreada);
-            linia.setProducte(producte);
-            linia.setPreuUnitari(producte.getPreu());
-            linia.calcularSubtotal();
-
-            // Guardar la línia
-            liniaComandaRepository.save(linia);
-
-            // Reduir stock del producte
-            producte.setStock(producte.getStock() - linia.getQuantitat());
-            producteRepository.save(producte);
-
-            importTotal = importTotal.add(linia.getSubtotal());
+        }
+        Map<Integer, Producte> productes = carregarProductes(totesLesLinies);
+        Map<Integer, Usuari> clients = new HashMap<>();
+        for (Usuari client : usuariRepository.findAllAmbRolByIdIn(clientIds)) {
+            clients.put(client.getId(), client);
         }
 
-        // Actualitzar import total de la comanda
-        comandaCreada.setImportTotal(importTotal);
-        comandaCreada = comandaRepository.save(comandaCreada);
-
-        // Crear el lliurament automàticament
-        Lliurament lliurament = new Lliurament(comandaCreada);
-        lliuramentRepository.save(lliurament);
+        // Validar cada comanda contra la mateixa lectura d'stock
+        Map<Integer, Integer> stockLliure = new HashMap<>();
+        for (Producte producte : productes.values()) {
+            stockLliure.put(producte.getId(), producte.getStock());
+        }
+        Map<Integer, Integer> quantitatsGrup = new HashMap<>();
+        List<PeticioComanda> acceptades = new ArrayList<>();
+        for (PeticioComanda peticio : peticions) {
+            try {
+                Map<Integer, Integer> quantitats = prepararComanda(peticio, productes, clients, stockLliure);
+                quantitats.forEach((producteId, quantitat) -> {
+                    stockLliure.merge(producteId, -quantitat, Integer::sum);
+                    quantitatsGrup.merge(producteId, quantitat, Integer::sum);
+                });
+                acceptades.add(peticio);
+            } catch (RuntimeException e) {
+                peticio.rebutjar(e);
+            }
+        }
+        if (acceptades.isEmpty()) {
+            return;
+        }
 
-        return comandaCreada;
+        // Escriure les comandes, les línies i els lliuraments del grup
+        List<LiniaComanda> linies = new ArrayList<>();
+        List<Lliurament> lliuraments = new ArrayList<>();
+        for (PeticioComanda peticio : acceptades) {
+            Comanda comanda = comandaRepository.save(peticio.getComanda());
+            for (LiniaComanda linia : peticio.getLinies()) {
+                linia.setComanda(comanda);
+            }
+            comanda.getLiniesComanda().addAll(peticio.getLinies());
+            linies.addAll(peticio.getLinies());
+            lliuraments.add(new Lliurament(comanda));
+        }
+        liniaComandaRepository.saveAll(linies);
+        lliuramentRepository.saveAll(lliuraments);
+        esdevenimentRepository.saveAll(acceptades.stream()
+                .map(peticio -> new EsdevenimentComanda(peticio.getComanda(), null))
+                .toList());
+        rankingPopularitat.registrarVenda(quantitatsGrup);
+
+        // Un sol flush: els INSERT s'agrupen en lots
+        comandaRepository.flush();
+
+        // Reduir stock de tot el grup just abans del commit: els bloquejos de fila dels productes
+        // més venuts només es mantenen el temps dels UPDATE i del commit, no durant els INSERT
+        ResultatDescompteStock descompte = producteService.descomptarStock(quantitatsGrup);
+        if (!descompte.isCorrecte()) {
+            throw new RuntimeException(descriureFallides(descompte, productes));
+        }
+        acceptades.forEach(PeticioComanda::marcarCreada);
     }
 
     /**
-     * Actualitza l'estat d'una comanda
+     * Actualitza l'estat d'una comanda. La transició es valida contra l'estat llegit i la fila es
+     * bloqueja només si encara hi és; si una altra operació l'ha canviat mentrestant, falla
      * @param id l'ID de la comanda
      * @param nouEstatId l'ID del nou estat
      * @return la comanda actualitzada
@@ -162,13 +274,26 @@ public class ComandaService {
         Comanda comanda = comandaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Comanda no trobada amb ID: " + id));
 
-        EstatComanda nouEstat = estatComandaRepository.findById(nouEstatId)
+        EstatComanda nouEstat = registreEstats.findById(nouEstatId)
                 .orElseThrow(() -> new RuntimeException("Estat no trobat amb ID: " + nouEstatId));
 
+        EstatComanda estatAnterior = comanda.getEstat();
+        if (estatAnterior.equals(nouEstat)) {
+            return comanda;
+        }
+        registreEstats.comprovarTransicio(estatAnterior, nouEstat);
+        // Bloquejar la fila només si continua a l'estat validat, com el canvi massiu: una altra
+        // operació que l'hagi mogut mentrestant no pot generar un segon esdeveniment del mateix canvi
+        if (comandaRepository.lockByIdsAndEstatId(List.of(id), estatAnterior.getId()).isEmpty()) {
+            throw new RuntimeException("La comanda " + id + " ha canviat d'estat mentre s'actualitzava");
+        }
         comanda.setEstat(nouEstat);
 
+        // Publicar el canvi a l'outbox dins la mateixa transacció
+        esdevenimentRepository.save(new EsdevenimentComanda(comanda, estatAnterior.getNom()));
+
         // Si l'estat és LLIURADA, marcar el lliurament com a completat
-        if ("LLIURADA".equals(nouEstat.getNom())) {
+        if (registreEstats.es(nouEstat, RegistreEstats.LLIURADA)) {
             Optional<Lliurament> lliuramentOpt = lliuramentRepository.findByComandaId(id);
             if (lliuramentOpt.isPresent()) {
                 Lliurament lliurament = lliuramentOpt.get();
@@ -180,28 +305,187 @@ public class ComandaService {
         return comandaRepository.save(comanda);
     }
 
+    /**
+     * Canvia l'estat de diverses comandes alhora (p. ex. la cuina passant-les a PREPARANT).
+     * Es llegeix l'estat actual de totes amb una consulta, es validen contra el graf d'estats i
+     * les que poden canviar es bloquegen i s'actualitzen amb un UPDATE per estat d'origen; si el destí és
+     * LLIURADA, els lliuraments es marquen també amb un sol UPDATE. Només es publiquen a l'outbox
+     * els canvis fets per aquest UPDATE: una comanda que una altra operació ja ha dut a l'estat de
+     * destinació es retorna com a SENSE_CANVI.
+     * @param comandaIds els IDs de les comandes
+     * @param nouEstatId l'ID de l'estat de destinació
+     * @return el resultat per a cada ID, en l'ordre rebut i sense repetits
+     */
+    public List<ResultatTransicio> updateEstatMassiu(List<Integer> comandaIds, Integer nouEstatId) {
+        EstatComanda nouEstat = registreEstats.findById(nouEstatId)
+                .orElseThrow(() -> new RuntimeException("Estat no trobat amb ID: " + nouEstatId));
+        Set<Integer> ids = new LinkedHashSet<>(comandaIds);
+        if (ids.isEmpty() || ids.size() > MAXIM_TRANSICIO_MASSIVA) {
+            throw new RuntimeException("Cal indicar entre 1 i " + MAXIM_TRANSICIO_MASSIVA + " comandes");
+        }
+
+        // Estat actual de cada comanda, sense carregar les entitats
+        Map<Integer, Integer> estatsActuals = new HashMap<>();
+        Map<Integer, Integer> clients = new HashMap<>();
+        for (Object[] fila : comandaRepository.findEstatsByIds(ids)) {
+            estatsActuals.put((Integer) fila[0], (Integer) fila[2]);
+            clients.put((Integer) fila[0], (Integer) fila[1]);
+        }
+
+        // Classificar i agrupar per estat d'origen les que poden canviar
+        Map<Integer, ResultatTransicio> resultats = new HashMap<>();
+        Map<Integer, List<Integer>> perOrigen = new HashMap<>();
+        for (Integer id : ids) {
+            Integer estatId = estatsActuals.get(id);
+            if (estatId == null) {
+                resultats.put(id, new ResultatTransicio(id, ResultatTransicio.Resultat.NO_TROBADA, null));
+                continue;
+            }
+            EstatComanda estat = registreEstats.findById(estatId).orElseThrow();
+            if (estat.equals(nouEstat)) {
+                resultats.put(id, new ResultatTransicio(id, ResultatTransicio.Resultat.SENSE_CANVI, estat.getNom()));
+            } else if (!registreEstats.potTransicionar(estat, nouEstat)) {
+                resultats.put(id, new ResultatTransicio(id, ResultatTransicio.Resultat.NO_PERMESA, estat.getNom()));
+            } else {
+                perOrigen.computeIfAbsent(estatId, k -> new ArrayList<>()).add(id);
+            }
+        }
+
+        // Per cada estat d'origen, bloquejar les que hi continuen i canviar només aquestes amb un UPDATE;
+        // les que una altra operació ha mogut mentrestant no generen cap esdeveniment
+        List<Integer> actualitzades = new ArrayList<>();
+        List<EsdevenimentComanda> esdeveniments = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> grup : perOrigen.entrySet()) {
+            String estatOrigen = registreEstats.findById(grup.getKey()).orElseThrow().getNom();
+            List<Integer> candidates = grup.getValue();
+            List<Integer> bloquejades = new ArrayList<>();
+            for (Object[] fila : comandaRepository.lockByIdsAndEstatId(candidates, grup.getKey())) {
+                bloquejades.add((Integer) fila[0]);
+            }
+            if (bloquejades.size() != candidates.size()) {
+                Map<Integer, Integer> estatsNous = new HashMap<>();
+                for (Object[] fila : comandaRepository.findEstatsByIds(candidates)) {
+                    estatsNous.put((Integer) fila[0], (Integer) fila[2]);
+                }
+                for (Integer id : candidates) {
+                    if (bloquejades.contains(id)) {
+                        continue;
+                    }
+                    Integer estatNou = estatsNous.get(id);
+                    if (estatNou == null) {
+                        resultats.put(id, new ResultatTransicio(id, ResultatTransicio.Resultat.NO_TROBADA, null));
+                    } else if (nouEstat.getId().equals(estatNou)) {
+                        resultats.put(id, new ResultatTransicio(id, ResultatTransicio.Resultat.SENSE_CANVI, nouEstat.getNom()));
+                    } else {
+                        resultats.put(id, new ResultatTransicio(id, ResultatTransicio.Resultat.CONFLICTE,
+                                registreEstats.findById(estatNou).orElseThrow().getNom()));
+                    }
+                }
+            }
+            if (bloquejades.isEmpty()) {
+                continue;
+            }
+            comandaRepository.updateEstatMassiu(bloquejades, grup.getKey(), nouEstat);
+            for (Integer id : bloquejades) {
+                resultats.put(id, new ResultatTransicio(id, ResultatTransicio.Resultat.ACTUALITZADA, nouEstat.getNom()));
+                esdeveniments.add(new EsdevenimentComanda(id, clients.get(id), estatOrigen, nouEstat.getNom()));
+                actualitzades.add(id);
+            }
+        }
+
+        // Completar els lliuraments i publicar els canvis a l'outbox
+        if (!actualitzades.isEmpty()) {
+            if (registreEstats.es(nouEstat, RegistreEstats.LLIURADA)) {
+                lliuramentRepository.marcarComLliurats(actualitzades, LocalDateTime.now());
+            }
+            esdevenimentRepository.saveAll(esdeveniments);
+        }
+
+        return ids.stream().map(resultats::get).toList();
+    }
+
     /**
      * Elimina una comanda
      * @param id l'ID de la comanda a eliminar
      */
     public void deleteById(Integer id) {
-        Comanda comanda = comandaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Comanda no trobada amb ID: " + id));
+        ResultatTransicio resultat = cancellarComandes(List.of(id)).get(0);
+        switch (resultat.resultat()) {
+            case NO_TROBADA -> throw new RuntimeException("Comanda no trobada amb ID: " + id);
+            case NO_PERMESA, CONFLICTE -> throw new RuntimeException("Només es poden eliminar comandes en estat PENDENT");
+            default -> { }
+        }
+    }
 
-        // Només es pot eliminar si està en estat PENDENT
-        if (!"PENDENT".equals(comanda.getEstat().getNom())) {
-            throw new RuntimeException("Només es poden eliminar comandes en estat PENDENT");
+    /**
+     * Cancel·la i elimina diverses comandes alhora (p. ex. la neteja de final de servei).
+     * Només es poden cancel·lar les comandes PENDENT; es bloquegen amb una consulta perquè no
+     * canviïn d'estat mentrestant. L'stock es restaura amb un UPDATE per producte diferent, amb
+     * les quantitats ja sumades per la base de dades, i les línies, els lliuraments i les comandes
+     * s'eliminen amb un DELETE cadascun. Cada cancel·lació es publica a l'outbox.
+     * @param comandaIds els IDs de les comandes
+     * @return el resultat per a cada ID, en l'ordre rebut i sense repetits
+     */
+    public List<ResultatTransicio> cancellarComandes(List<Integer> comandaIds) {
+        Set<Integer> ids = new LinkedHashSet<>(comandaIds);
+        if (ids.isEmpty() || ids.size() > MAXIM_TRANSICIO_MASSIVA) {
+            throw new RuntimeException("Cal indicar entre 1 i " + MAXIM_TRANSICIO_MASSIVA + " comandes");
         }
+        EstatComanda pendent = registreEstats.get(RegistreEstats.PENDENT);
 
-        // Restaurar stock dels productes
-        List<LiniaComanda> linies = liniaComandaRepository.findByComandaId(id);
-        for (LiniaComanda linia : linies) {
-            Producte producte = linia.getProducte();
-            producte.setStock(producte.getStock() + linia.getQuantitat());
-            producteRepository.save(producte);
+        // Bloquejar les que continuen PENDENT i classificar la resta
+        Map<Integer, Integer> cancellables = new HashMap<>();
+        for (Object[] fila : comandaRepository.lockByIdsAndEstatId(ids, pendent.getId())) {
+            cancellables.put((Integer) fila[0], (Integer) fila[1]);
+        }
+        Map<Integer, ResultatTransicio> resultats = new HashMap<>();
+        if (cancellables.size() < ids.size()) {
+            for (Object[] fila : comandaRepository.findEstatsByIds(ids)) {
+                Integer id = (Integer) fila[0];
+                if (!cancellables.containsKey(id)) {
+                    String estat = registreEstats.findById((Integer) fila[2]).map(EstatComanda::getNom).orElse(null);
+                    resultats.put(id, new ResultatTransicio(id, ResultatTransicio.Resultat.NO_PERMESA, estat));
+                }
+            }
+        }
+        for (Integer id : ids) {
+            if (!cancellables.containsKey(id)) {
+                resultats.putIfAbsent(id, new ResultatTransicio(id, ResultatTransicio.Resultat.NO_TROBADA, null));
+            }
         }
+        if (cancellables.isEmpty()) {
+            return ids.stream().map(resultats::get).toList();
+        }
+        Set<Integer> cancellar = cancellables.keySet();
 
-        comandaRepository.deleteById(id);
+        // Restaurar stock: una suma per producte i un UPDATE per producte, en ordre d'ID
+        Map<Integer, Integer> quantitatsRetornades = new TreeMap<>();
+        for (Object[] fila : liniaComandaRepository.sumQuantitatsPerProducteByComandaIds(cancellar)) {
+            quantitatsRetornades.put((Integer) fila[0], ((Number) fila[1]).intValue());
+        }
+        quantitatsRetornades.forEach((producteId, quantitat) -> {
+            producteRepository.incrementarStock(producteId, quantitat);
+            cataleg.registrarVariacioStock(producteId, quantitat);
+        });
+        rankingPopularitat.registrarCancellacio(quantitatsRetornades);
+
+        // Publicar les cancel·lacions abans d'eliminar les comandes
+        List<EsdevenimentComanda> esdeveniments = new ArrayList<>();
+        cancellables.forEach((id, clientId) -> esdeveniments.add(
+                new EsdevenimentComanda(id, clientId, pendent.getNom(), EsdevenimentComanda.CANCELLADA)));
+        esdevenimentRepository.saveAll(esdeveniments);
+        // Escriure-les ara: el DELETE de comandes buida el context de persistència
+        esdevenimentRepository.flush();
+
+        // Eliminar en bloc, de les files filles a les comandes
+        liniaComandaRepository.deleteByComandaIds(cancellar);
+        lliuramentRepository.deleteByComandaIds(cancellar);
+        comandaRepository.deleteAllByIds(cancellar);
+
+        for (Integer id : cancellar) {
+            resultats.put(id, new ResultatTransicio(id, ResultatTransicio.Resultat.CANCELLADA, null));
+        }
+        return ids.stream().map(resultats::get).toList();
     }
 
     /**
@@ -232,16 +516,7 @@ public class ComandaService {
      */
     @Transactional(readOnly = true)
     public List<Comanda> findPendingOrders() {
-        return comandaRepository.findPendingOrders();
-    }
-
-    /**
-     * Troba comandes en preparació
-     * @return llista de comandes en preparació
-     */
-    @Transactional(readOnly = true)
-    public List<Comanda> findPreparingOrders() {
-        return comandaRepository.findPreparingOrders();
+        return comandaRepository.findByEstatIdOrderByDataHoraComandaAsc(registreEstats.getId(RegistreEstats.PENDENT));
     }
 
     /**
@@ -250,7 +525,7 @@ public class ComandaService {
      */
     @Transactional(readOnly = true)
     public List<Comanda> findOrdersInRoute() {
-        return comandaRepository.findOrdersInRoute();
+        return comandaRepository.findByEstatIdOrderByDataHoraComandaAsc(registreEstats.getId(RegistreEstats.EN_RUTA));
     }
 
     /**
@@ -265,6 +540,58 @@ public class ComandaService {
         return comandaRepository.findByDataHoraComandaBetween(startDate, endDate, pageable);
     }
 
+    /**
+     * Troba totes les comandes amb paginació keyset (de més recent a més antiga, sense COUNT)
+     * @param cursor cursor retornat per la pàgina anterior, o null per a la primera
+     * @param mida nombre màxim de comandes
+     * @return pàgina amb el cursor de la següent
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDto<Comanda> findAllKeyset(String cursor, int mida) {
+        return paginaKeyset(cursor, mida, comandaRepository::findKeyset);
+    }
+
+    /**
+     * Troba comandes per client amb paginació keyset
+     * @param clientId l'ID del client
+     * @param cursor cursor de la pàgina anterior, o null per a la primera
+     * @param mida nombre màxim de comandes
+     * @return pàgina amb el cursor de la següent
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDto<Comanda> findByClientKeyset(Integer clientId, String cursor, int mida) {
+        return paginaKeyset(cursor, mida,
+                (data, id, pageable) -> comandaRepository.findKeysetByClientId(clientId, data, id, pageable));
+    }
+
+    /**
+     * Troba comandes per estat amb paginació keyset
+     * @param estatId l'ID de l'estat
+     * @param cursor cursor de la pàgina anterior, o null per a la primera
+     * @param mida nombre màxim de comandes
+     * @return pàgina amb el cursor de la següent
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDto<Comanda> findByEstatKeyset(Integer estatId, String cursor, int mida) {
+        return paginaKeyset(cursor, mida,
+                (data, id, pageable) -> comandaRepository.findKeysetByEstatId(estatId, data, id, pageable));
+    }
+
+    /**
+     * Troba comandes per rang de dates amb paginació keyset
+     * @param startDate data d'inici
+     * @param endDate data de fi
+     * @param cursor cursor de la pàgina anterior, o null per a la primera
+     * @param mida nombre màxim de comandes
+     * @return pàgina amb el cursor de la següent
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDto<Comanda> findByDateRangeKeyset(LocalDateTime startDate, LocalDateTime endDate,
+                                                          String cursor, int mida) {
+        return paginaKeyset(cursor, mida, (data, id, pageable) ->
+                comandaRepository.findKeysetByDataHoraComandaBetween(startDate, endDate, data, id, pageable));
+    }
+
     /**
      * Calcula l'import total de vendes per un client
      * @param clientId l'ID del client
@@ -295,4 +622,138 @@ public class ComandaService {
     public List<Comanda> findRecentOrders(Pageable pageable) {
         return comandaRepository.findRecentOrders(pageable);
     }
-}
\ No newline at end of file
+
+    // Mètodes auxiliars
+
+    /**
+     * Valida una comanda del grup i la deixa llesta per persistir.
+     * Tot el que pot fer fallar la comanda es comprova aquí, abans d'escriure res: una excepció
+     * dins d'un repositori marcaria per rollback la transacció de tot el grup.
+     * @return les quantitats de la comanda per ID de producte
+     */
+    private Map<Integer, Integer> prepararComanda(PeticioComanda peticio, Map<Integer, Producte> productes,
+                                                  Map<Integer, Usuari> clients, Map<Integer, Integer> stockLliure) {
+        Comanda comanda = peticio.getComanda();
+
+        // Verificar que el client existeix
+        if (comanda.getClient() == null || comanda.getClient().getId() == null) {
+            throw new RuntimeException("El client és obligatori");
+        }
+        Usuari client = clients.get(comanda.getClient().getId());
+        if (client == null) {
+            throw new RuntimeException("Client no trobat amb ID: " + comanda.getClient().getId());
+        }
+
+        // Verificar que els productes existeixen i agrupar les quantitats
+        Map<Integer, Integer> quantitats = new HashMap<>();
+        for (LiniaComanda linia : peticio.getLinies()) {
+            Integer producteId = linia.getProducte().getId();
+            if (!productes.containsKey(producteId)) {
+                throw new RuntimeException("Producte no trobat amb ID: " + producteId);
+            }
+            if (linia.getQuantitat() == null || linia.getQuantitat() < 1) {
+                throw new RuntimeException("La quantitat ha de ser almenys 1");
+            }
+            quantitats.merge(producteId, linia.getQuantitat(), Integer::sum);
+        }
+
+        // Preu i subtotal de cada línia
+        BigDecimal importTotal = BigDecimal.ZERO;
+        for (LiniaComanda linia : peticio.getLinies()) {
+            Producte producte = productes.get(linia.getProducte().getId());
+            linia.setProducte(producte);
+            linia.setPreuUnitari(producte.getPreu());
+            linia.calcularSubtotal();
+            importTotal = importTotal.add(linia.getSubtotal());
+        }
+
+        // Completar la comanda; si no té estat, PENDENT per defecte
+        comanda.setClient(client);
+        if (comanda.getEstat() == null) {
+            comanda.setEstat(registreEstats.get(RegistreEstats.PENDENT));
+        }
+        if (comanda.getDataHoraComanda() == null) {
+            comanda.setDataHoraComanda(LocalDateTime.now());
+        }
+        comanda.setImportTotal(importTotal);
+
+        Set<ConstraintViolation<Object>> violacions = new HashSet<>(validator.validate(comanda));
+        for (LiniaComanda linia : peticio.getLinies()) {
+            violacions.addAll(validator.validate(linia));
+        }
+        if (!violacions.isEmpty()) {
+            throw new ConstraintViolationException(violacions);
+        }
+
+        // Stock segons la lectura del grup, descomptant el que ja s'han quedat les comandes anteriors
+        for (Map.Entry<Integer, Integer> entrada : quantitats.entrySet()) {
+            int lliure = stockLliure.get(entrada.getKey());
+            if (lliure < entrada.getValue()) {
+                throw new RuntimeException("Stock insuficient per al producte: " + productes.get(entrada.getKey()).getNom() +
+                        ". Disponible: " + Math.max(0, lliure) + ", Sol·licitat: " + entrada.getValue());
+            }
+        }
+
+        // Convertir la reserva en comanda o, sense reserva, retenir les unitats fins al commit
+        // respectant les reserves dels altres clients. És l'últim pas perquè tots dos tenen efectes
+        if (peticio.getReservaId() != null) {
+            reservesStock.consumir(peticio.getReservaId(), quantitats);
+        } else {
+            reservesStock.retenirPerComanda(quantitats, productes);
+        }
+        return quantitats;
+    }
+
+    /**
+     * Construeix el missatge d'error amb totes les línies sense stock suficient
+     */
+    private String descriureFallides(ResultatDescompteStock descompte, Map<Integer, Producte> productes) {
+        StringBuilder missatge = new StringBuilder();
+        for (ResultatDescompteStock.Fallida fallida : descompte.getFallides()) {
+            if (missatge.length() > 0) {
+                missatge.append("; ");
+            }
+            missatge.append("Stock insuficient per al producte: ").append(productes.get(fallida.producteId()).getNom())
+                    .append(". Disponible: ").append(fallida.disponible())
+                    .append(", Sol·licitat: ").append(fallida.sollicitat());
+        }
+        return missatge.toString();
+    }
+
+    /**
+     * Carrega els productes referenciats per les línies, amb la seva categoria, amb una única consulta
+     */
+    private Map<Integer, Producte> carregarProductes(List<LiniaComanda> liniesComanda) {
+        Set<Integer> ids = new HashSet<>();
+        for (LiniaComanda linia : liniesComanda) {
+            ids.add(linia.getProducte().getId());
+        }
+        Map<Integer, Producte> productes = new HashMap<>();
+        for (Producte producte : producteRepository.findAllAmbCategoriaByIdIn(ids)) {
+            productes.put(producte.getId(), producte);
+        }
+        return productes;
+    }
+
+    @FunctionalInterface
+    private interface ConsultaKeyset {
+        List<Comanda> buscar(LocalDateTime data, Integer id, Pageable pageable);
+    }
+
+    /**
+     * Executa una consulta keyset demanant un element de més per saber si hi ha pàgina següent
+     */
+    private PaginaCursorDto<Comanda> paginaKeyset(String cursor, int mida, ConsultaKeyset consulta) {
+        CursorKeyset.Posicio posicio = CursorKeyset.descodificar(cursor);
+        LocalDateTime data = posicio != null ? posicio.clauData() : INICI_KEYSET;
+        Integer id = posicio != null ? posicio.id() : Integer.MAX_VALUE;
+
+        List<Comanda> comandes = consulta.buscar(data, id, PageRequest.ofSize(mida + 1));
+        if (comandes.size() <= mida) {
+            return new PaginaCursorDto<>(comandes, null);
+        }
+        List<Comanda> pagina = comandes.subList(0, mida);
+        Comanda darrera = pagina.get(mida - 1);
+        return new PaginaCursorDto<>(pagina, CursorKeyset.codificar(darrera.getDataHoraComanda(), darrera.getId()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.bicifood.api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Codifica i descodifica els cursors opacs de la paginació keyset.
+ * Un cursor és la parella (clau d'ordenació, id) del darrer element retornat.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public final class CursorKeyset {
+
+    private static final String SEPARADOR = "|";
+
+    private CursorKeyset() {}
+
+    /**
+     * Posició descodificada d'un cursor
+     * @param clau la clau d'ordenació serialitzada (pot ser buida si l'ordre és només per id)
+     * @param id l'id del darrer element
+     */
+    public record Posicio(String clau, int id) {
+
+        /**
+         * Interpreta la clau d'ordenació com a data i hora
+         * @return la data de la clau
+         * @throws IllegalArgumentException si la clau no és una data ISO vàlida
+         */
+        public LocalDateTime clauData() {
+            try {
+                return LocalDateTime.parse(clau);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Cursor no vàlid: la clau no és una data (" + clau + ")", e);
+            }
+        }
+    }
+
+    /**
+     * Crea un cursor opac
+     * @param clau la clau d'ordenació del darrer element
+     * @param id l'id del darrer element
+     * @return el cursor codificat en Base64 URL-safe
+     */
+    public static String codificar(Object clau, Integer id) {
+        String text = (clau != null ? clau.toString() : "") + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Descodifica un cursor
+     * @param cursor el cursor rebut del client
+     * @return la posició, o null si el cursor és buit (primera pàgina)
+     * @throws IllegalArgumentException si el cursor no és vàlid
+     */
+    public static Posicio descodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = text.lastIndexOf(SEPARADOR);
+            return new Posicio(text.substring(0, separador), Integer.parseInt(text.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor no vàlid: " + cursor, e);
+        }
+    }
+}
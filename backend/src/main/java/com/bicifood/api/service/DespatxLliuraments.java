@@ -0,0 +1,299 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.EsdevenimentComanda;
+import com.bicifood.api.entity.Usuari;
+import com.bicifood.api.model.LliuramentAssignat;
+import com.bicifood.api.repository.LliuramentRepository;
+import com.bicifood.api.repository.UsuariRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Motor de despatx dels lliuraments sense repartidor.
+ * Els lliuraments pendents d'assignar es guarden en memòria en una cua de prioritat per zona
+ * (el codi postal de lliurament), ordenada per antiguitat de la comanda. Cada pocs segons
+ * s'assignen en lot, sempre començant per la comanda més antiga de totes les zones, al
+ * repartidor menys carregat de la mateixa zona o, si no n'hi ha cap amb capacitat, al menys
+ * carregat de tots. La càrrega de cada repartidor surt del {@link TaulerRepartidors}.
+ * Els pendents es carreguen una vegada de la base de dades en arrencar; després es mantenen amb
+ * els esdeveniments de l'outbox (comandes noves i cancel·lades), de manera que cap cicle
+ * recorre la taula de lliuraments. Les assignacions s'escriuen amb un UPDATE per repartidor i
+ * s'anuncien al {@link TaulerRepartidors} i a {@link DifusioEstatsComandes}.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class DespatxLliuraments implements SubscriptorEsdevenimentsComanda {
+
+    /**
+     * Lliurament pendent d'assignar
+     */
+    private record Pendent(Integer lliuramentId, Integer comandaId, String zona, LocalDateTime dataHoraComanda,
+                           String adrecaLliurament) {}
+
+    /**
+     * Repartidor disponible per al despatx
+     */
+    private record Repartidor(Usuari usuari, String zona) {
+        Integer id() {
+            return usuari.getId();
+        }
+    }
+
+    private static final Comparator<Pendent> PER_ANTIGUITAT = Comparator
+            .comparing(Pendent::dataHoraComanda, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Pendent::comandaId);
+
+    @Autowired
+    private LliuramentRepository lliuramentRepository;
+
+    @Autowired
+    private UsuariRepository usuariRepository;
+
+    @Autowired
+    private TaulerRepartidors taulerRepartidors;
+
+    @Autowired
+    private DifusioEstatsComandes difusioEstats;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.despatx.capacitat-repartidor:3}")
+    private int capacitatRepartidor;
+
+    @Value("${app.despatx.maxim-per-cicle:200}")
+    private int maximPerCicle;
+
+    /** Cues de pendents per zona */
+    private final Map<String, PriorityQueue<Pendent>> cues = new HashMap<>();
+
+    /** Pendents vigents per ID de comanda; una entrada de cua que no hi és s'ha cancel·lat */
+    private final Map<Integer, Pendent> pendents = new HashMap<>();
+
+    /** Assignacions del cicle en curs que encara no són al tauler, per repartidor */
+    private final Map<Integer, Integer> previstes = new HashMap<>();
+
+    private List<Repartidor> repartidors = List.of();
+    private Map<String, List<Repartidor>> repartidorsPerZona = Map.of();
+
+    private volatile boolean carregat;
+
+    private Counter assignacions;
+
+    @PostConstruct
+    public void iniciar() {
+        Gauge.builder("bicifood.despatx.pendents", this, despatx -> despatx.comptarPendents())
+                .description("Lliuraments pendents d'assignar a un repartidor")
+                .register(meterRegistry);
+        assignacions = Counter.builder("bicifood.despatx.assignacions")
+                .description("Lliuraments assignats pel motor de despatx")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carrega els repartidors i els lliuraments sense assignar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void carregar() {
+        taulerRepartidors.carregar();
+        recarregarRepartidors();
+        for (Object[] fila : lliuramentRepository.findDadesDespatxSenseAssignar()) {
+            encuar(fila);
+        }
+        carregat = true;
+    }
+
+    /**
+     * Torna a llegir la llista de repartidors (altes, baixes i canvis de zona)
+     */
+    @Scheduled(fixedRate = 300_000, initialDelay = 300_000)
+    public synchronized void recarregarRepartidors() {
+        List<Repartidor> llegits = new ArrayList<>();
+        Map<String, List<Repartidor>> perZona = new HashMap<>();
+        for (Usuari usuari : usuariRepository.findAllRepartidors()) {
+            Repartidor repartidor = new Repartidor(usuari, zona(usuari.getCodiPostal()));
+            llegits.add(repartidor);
+            perZona.computeIfAbsent(repartidor.zona(), k -> new ArrayList<>()).add(repartidor);
+        }
+        repartidors = List.copyOf(llegits);
+        repartidorsPerZona = Map.copyOf(perZona);
+    }
+
+    @Override
+    public synchronized void rebre(List<EsdevenimentComanda> esdeveniments) {
+        if (!carregat) {
+            throw new IllegalStateException("El despatx encara no s'ha carregat");
+        }
+        List<Integer> noves = new ArrayList<>();
+        for (EsdevenimentComanda esdeveniment : esdeveniments) {
+            Integer comandaId = esdeveniment.getComandaId();
+            if (esdeveniment.getEstatAnterior() == null) {
+                if (!pendents.containsKey(comandaId)) {
+                    noves.add(comandaId);
+                }
+            } else if (EsdevenimentComanda.CANCELLADA.equals(esdeveniment.getEstatNou())) {
+                pendents.remove(comandaId);
+            }
+        }
+        if (!noves.isEmpty()) {
+            for (Object[] fila : lliuramentRepository.findDadesDespatxSenseAssignarByComandaIds(noves)) {
+                encuar(fila);
+            }
+        }
+    }
+
+    /**
+     * Assigna en lot els lliuraments pendents, de més antic a més recent
+     */
+    @Scheduled(fixedDelayString = "${app.despatx.interval-ms:3000}")
+    public synchronized void despatxar() {
+        if (!carregat || pendents.isEmpty() || repartidors.isEmpty()) {
+            return;
+        }
+
+        // Cap de cua de cada zona, ordenats per antiguitat
+        PriorityQueue<PriorityQueue<Pendent>> zones = new PriorityQueue<>(
+                Comparator.comparing(PriorityQueue::peek, PER_ANTIGUITAT));
+        for (PriorityQueue<Pendent> cua : cues.values()) {
+            if (descartarCancellats(cua)) {
+                zones.add(cua);
+            }
+        }
+
+        Map<Repartidor, List<Pendent>> perRepartidor = new HashMap<>();
+        int assignats = 0;
+        while (!zones.isEmpty() && assignats < maximPerCicle) {
+            PriorityQueue<Pendent> cua = zones.poll();
+            Pendent pendent = cua.peek();
+            Repartidor repartidor = triarRepartidor(pendent.zona());
+            if (repartidor == null) {
+                break;
+            }
+            cua.poll();
+            pendents.remove(pendent.comandaId());
+            previstes.merge(repartidor.id(), 1, Integer::sum);
+            perRepartidor.computeIfAbsent(repartidor, k -> new ArrayList<>()).add(pendent);
+            assignats++;
+            if (descartarCancellats(cua)) {
+                zones.add(cua);
+            }
+        }
+        cues.values().removeIf(PriorityQueue::isEmpty);
+
+        perRepartidor.forEach(this::escriure);
+        previstes.clear();
+    }
+
+    /**
+     * @return lliuraments pendents d'assignar
+     */
+    public synchronized int comptarPendents() {
+        return pendents.size();
+    }
+
+    // Mètodes auxiliars
+
+    private void encuar(Object[] fila) {
+        Pendent pendent = new Pendent((Integer) fila[0], (Integer) fila[1], zona((String) fila[2]),
+                (LocalDateTime) fila[3], (String) fila[4]);
+        if (pendents.putIfAbsent(pendent.comandaId(), pendent) == null) {
+            cues.computeIfAbsent(pendent.zona(), k -> new PriorityQueue<>(PER_ANTIGUITAT)).add(pendent);
+        }
+    }
+
+    /**
+     * Treu del cap de la cua les entrades cancel·lades
+     * @return true si la cua encara té pendents
+     */
+    private boolean descartarCancellats(PriorityQueue<Pendent> cua) {
+        while (!cua.isEmpty() && pendents.get(cua.peek().comandaId()) != cua.peek()) {
+            cua.poll();
+        }
+        return !cua.isEmpty();
+    }
+
+    /**
+     * El repartidor amb menys càrrega de la zona o, si cap té capacitat, el de menys càrrega de tots
+     * @return el repartidor triat, o null si tots són plens
+     */
+    private Repartidor triarRepartidor(String zona) {
+        Repartidor triat = menysCarregat(repartidorsPerZona.getOrDefault(zona, List.of()));
+        return triat != null ? triat : menysCarregat(repartidors);
+    }
+
+    private Repartidor menysCarregat(List<Repartidor> candidats) {
+        Repartidor triat = null;
+        int minima = capacitatRepartidor;
+        for (Repartidor repartidor : candidats) {
+            int actual = taulerRepartidors.comptarPendents(repartidor.id()) + previstes.getOrDefault(repartidor.id(), 0);
+            if (actual < minima) {
+                triat = repartidor;
+                minima = actual;
+            }
+        }
+        return triat;
+    }
+
+    /**
+     * Escriu les assignacions d'un repartidor i les passa al tauler; les que no s'han pogut fer es descarten
+     */
+    private void escriure(Repartidor repartidor, List<Pendent> lot) {
+        List<Integer> lliuramentIds = lot.stream().map(Pendent::lliuramentId).toList();
+        Set<Integer> fetes = new HashSet<>(lliuramentIds);
+        LocalDateTime ara = LocalDateTime.now();
+        try {
+            int actualitzats = lliuramentRepository.assignarRepartidor(lliuramentIds, repartidor.usuari(), ara);
+            if (actualitzats != lot.size()) {
+                // Algun lliurament s'ha eliminat o ja tenia repartidor
+                fetes.clear();
+                for (Object[] fila : lliuramentRepository.findRepartidorsByIds(lliuramentIds)) {
+                    if (repartidor.id().equals(fila[1])) {
+                        fetes.add((Integer) fila[0]);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Es tornaran a provar al proper cicle
+            fetes.clear();
+            lot.forEach(pendent -> {
+                if (pendents.putIfAbsent(pendent.comandaId(), pendent) == null) {
+                    cues.computeIfAbsent(pendent.zona(), k -> new PriorityQueue<>(PER_ANTIGUITAT)).add(pendent);
+                }
+            });
+        }
+        List<LliuramentAssignat> assignats = new ArrayList<>();
+        for (Pendent pendent : lot) {
+            if (fetes.contains(pendent.lliuramentId())) {
+                assignats.add(new LliuramentAssignat(pendent.lliuramentId(), pendent.comandaId(),
+                        pendent.adrecaLliurament(), pendent.zona(), ara));
+            }
+        }
+        taulerRepartidors.assignar(repartidor.id(), assignats);
+        difusioEstats.publicarAssignacions(repartidor.id(), assignats);
+        assignacions.increment(assignats.size());
+    }
+
+    private static String zona(String codiPostal) {
+        return codiPostal != null ? codiPostal.trim() : "";
+    }
+}
@@ -0,0 +1,338 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.EsdevenimentComanda;
+import com.bicifood.api.model.LliuramentAssignat;
+import com.bicifood.api.repository.LliuramentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Difusió per Server-Sent Events dels canvis d'estat de les comandes.
+ * Hi ha dos tipus de subscripció: a una comanda (la pàgina de seguiment del client) i a un
+ * repartidor (l'app del repartidor, que rep els canvis de les comandes que té assignades i les
+ * assignacions noves). És un subscriptor més de l'outbox, amb la seva pròpia posició: el
+ * repartidor de cada comanda surt d'un mapa en memòria que es carrega en arrencar amb els
+ * lliuraments assignats pendents i s'actualitza amb les assignacions noves que anuncia el
+ * {@link DespatxLliuraments}, de manera que difondre un esdeveniment no fa cap consulta.
+ * Una connexió inactiva només ocupa l'emissor i una cua buida: no té cap fil associat. Cada
+ * subscripció té una cua acotada ({@code app.sse.capacitat-cua}) i un fil virtual que l'envia
+ * només mentre té feina; un client que no llegeix prou de pressa omple la cua i es desconnecta,
+ * i en tornar-se a connectar rep l'estat actual. El nombre de connexions també és acotat
+ * ({@code app.sse.maxim-connexions}).
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class DifusioEstatsComandes implements SubscriptorEsdevenimentsComanda {
+
+    /**
+     * Canvi d'estat d'una comanda tal com s'envia al client
+     * @param comandaId l'ID de la comanda
+     * @param estatAnterior l'estat anterior, o null si és l'estat actual en subscriure's
+     * @param estatNou l'estat nou
+     * @param dataHora quan s'ha produït el canvi
+     */
+    public record CanviEstat(Integer comandaId, String estatAnterior, String estatNou, LocalDateTime dataHora) {}
+
+    /**
+     * Esdeveniment pendent d'enviar; es comparteix entre subscripcions i el SseEventBuilder es
+     * construeix en enviar-lo, perquè no es pot reutilitzar
+     */
+    private record Missatge(String nom, String id, Object dades) {}
+
+    /**
+     * Subscripció d'un client: l'emissor i la cua d'esdeveniments pendents d'enviar
+     */
+    private final class Subscripcio {
+        private final SseEmitter emissor;
+        private final Map<Integer, Set<Subscripcio>> index;
+        private final Integer clau;
+        private final BlockingQueue<Missatge> cua = new ArrayBlockingQueue<>(capacitatCua);
+        private final AtomicBoolean enviant = new AtomicBoolean();
+        private final AtomicBoolean eliminada = new AtomicBoolean();
+
+        private Subscripcio(SseEmitter emissor, Map<Integer, Set<Subscripcio>> index, Integer clau) {
+            this.emissor = emissor;
+            this.index = index;
+            this.clau = clau;
+        }
+    }
+
+    /** Marca de la cua: cal tancar la connexió després d'enviar el que hi ha davant */
+    private static final Missatge TANCAR = new Missatge(null, null, null);
+
+    /** Comentari buit per mantenir viva la connexió */
+    private static final Missatge BATEC = new Missatge(null, null, null);
+
+    private static final String ESDEVENIMENT_ESTAT = "estat";
+    private static final String ESDEVENIMENT_ASSIGNACIO = "assignacio";
+
+    @Autowired
+    private LliuramentRepository lliuramentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.sse.maxim-connexions:50000}")
+    private int maximConnexions;
+
+    @Value("${app.sse.capacitat-cua:16}")
+    private int capacitatCua;
+
+    @Value("${app.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final Map<Integer, Set<Subscripcio>> perComanda = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Subscripcio>> perRepartidor = new ConcurrentHashMap<>();
+    private final AtomicInteger connexions = new AtomicInteger();
+
+    /** Repartidor de cada lliurament assignat i pendent, per ID de comanda */
+    private final Map<Integer, Integer> repartidorPerComanda = new ConcurrentHashMap<>();
+
+    private volatile boolean carregat;
+
+    private final ExecutorService enviaments = Executors.newVirtualThreadPerTaskExecutor();
+
+    private Counter desconnexionsLentes;
+
+    @PostConstruct
+    public void iniciar() {
+        Gauge.builder("bicifood.sse.connexions", connexions, AtomicInteger::get)
+                .description("Connexions SSE obertes de seguiment de comandes")
+                .register(meterRegistry);
+        desconnexionsLentes = Counter.builder("bicifood.sse.desconnexions")
+                .description("Connexions SSE tancades perquè el client no llegia prou de pressa")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void aturar() {
+        enviaments.shutdownNow();
+    }
+
+    /**
+     * Carrega el repartidor dels lliuraments assignats i encara no lliurats
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        for (Object[] fila : lliuramentRepository.findLliuramentsPendentsAssignats()) {
+            // Una assignació anunciada mentre es carregava ja hi és
+            repartidorPerComanda.putIfAbsent((Integer) fila[2], (Integer) fila[0]);
+        }
+        carregat = true;
+    }
+
+    /**
+     * Obre una subscripció als canvis d'una comanda; el primer esdeveniment és l'estat actual.
+     * Si la comanda ja és en un estat final, s'envia l'estat i es tanca la connexió
+     * @param comandaId l'ID de la comanda
+     * @param estatActual l'estat actual de la comanda
+     * @return l'emissor, o buit si s'ha arribat al màxim de connexions
+     */
+    public Optional<SseEmitter> subscriureComanda(Integer comandaId, String estatActual) {
+        Optional<Subscripcio> subscripcio = subscriure(perComanda, comandaId);
+        subscripcio.ifPresent(s -> {
+            encuar(s, estat(null, new CanviEstat(comandaId, null, estatActual, LocalDateTime.now())));
+            if (esFinal(estatActual)) {
+                encuar(s, TANCAR);
+            }
+        });
+        return subscripcio.map(s -> s.emissor);
+    }
+
+    /**
+     * Obre una subscripció als canvis de les comandes assignades a un repartidor
+     * @param repartidorId l'ID del repartidor
+     * @return l'emissor, o buit si s'ha arribat al màxim de connexions
+     */
+    public Optional<SseEmitter> subscriureRepartidor(Integer repartidorId) {
+        return subscriure(perRepartidor, repartidorId).map(s -> s.emissor);
+    }
+
+    /**
+     * Difon cada canvi d'estat als subscriptors de la comanda i del seu repartidor.
+     * Quan la comanda arriba a un estat final es tanquen les subscripcions a la comanda
+     * i s'oblida el seu repartidor
+     * @param esdeveniments esdeveniments nous, en ordre d'ID
+     */
+    @Override
+    public void rebre(List<EsdevenimentComanda> esdeveniments) {
+        if (!carregat) {
+            throw new IllegalStateException("La difusió d'estats encara no s'ha carregat");
+        }
+        for (EsdevenimentComanda esdeveniment : esdeveniments) {
+            boolean esFinal = esFinal(esdeveniment.getEstatNou());
+            Integer repartidorId = esFinal
+                    ? repartidorPerComanda.remove(esdeveniment.getComandaId())
+                    : repartidorPerComanda.get(esdeveniment.getComandaId());
+            difondre(esdeveniment, repartidorId, esFinal);
+        }
+    }
+
+    /**
+     * Avisa un repartidor dels lliuraments que se li acaben d'assignar i en recorda les comandes
+     * per difondre-li'n els canvis d'estat
+     * @param repartidorId l'ID del repartidor
+     * @param lliuraments els lliuraments assignats
+     */
+    public void publicarAssignacions(Integer repartidorId, List<LliuramentAssignat> lliuraments) {
+        Set<Subscripcio> subscripcions = perRepartidor.getOrDefault(repartidorId, Set.of());
+        for (LliuramentAssignat lliurament : lliuraments) {
+            repartidorPerComanda.put(lliurament.comandaId(), repartidorId);
+            Missatge missatge = new Missatge(ESDEVENIMENT_ASSIGNACIO, null, lliurament);
+            subscripcions.forEach(subscripcio -> encuar(subscripcio, missatge));
+        }
+    }
+
+    /**
+     * Envia un comentari a les connexions sense feina perquè els intermediaris no les tanquin
+     * i per detectar els clients que ja no hi són
+     */
+    @Scheduled(fixedRateString = "${app.sse.heartbeat-ms:25000}")
+    public void mantenirConnexions() {
+        for (Map<Integer, Set<Subscripcio>> index : List.of(perComanda, perRepartidor)) {
+            for (Set<Subscripcio> subscripcions : index.values()) {
+                for (Subscripcio subscripcio : subscripcions) {
+                    if (subscripcio.cua.isEmpty()) {
+                        encuar(subscripcio, BATEC);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return connexions obertes
+     */
+    public int comptarConnexions() {
+        return connexions.get();
+    }
+
+    // Mètodes auxiliars
+
+    private void difondre(EsdevenimentComanda esdeveniment, Integer repartidorId, boolean esFinal) {
+        CanviEstat canvi = new CanviEstat(esdeveniment.getComandaId(), esdeveniment.getEstatAnterior(),
+                esdeveniment.getEstatNou(), esdeveniment.getDataHora());
+        Missatge missatge = estat(esdeveniment.getId(), canvi);
+        for (Subscripcio subscripcio : perComanda.getOrDefault(canvi.comandaId(), Set.of())) {
+            encuar(subscripcio, missatge);
+            if (esFinal) {
+                encuar(subscripcio, TANCAR);
+            }
+        }
+        if (repartidorId != null) {
+            for (Subscripcio subscripcio : perRepartidor.getOrDefault(repartidorId, Set.of())) {
+                encuar(subscripcio, missatge);
+            }
+        }
+    }
+
+    private Optional<Subscripcio> subscriure(Map<Integer, Set<Subscripcio>> index, Integer clau) {
+        if (connexions.incrementAndGet() > maximConnexions) {
+            connexions.decrementAndGet();
+            return Optional.empty();
+        }
+        Subscripcio subscripcio = new Subscripcio(new SseEmitter(timeoutMs), index, clau);
+        subscripcio.emissor.onCompletion(() -> eliminar(subscripcio));
+        subscripcio.emissor.onTimeout(() -> eliminar(subscripcio));
+        subscripcio.emissor.onError(error -> eliminar(subscripcio));
+        index.computeIfAbsent(clau, k -> ConcurrentHashMap.newKeySet()).add(subscripcio);
+        return Optional.of(subscripcio);
+    }
+
+    private void eliminar(Subscripcio subscripcio) {
+        if (!subscripcio.eliminada.compareAndSet(false, true)) {
+            return;
+        }
+        subscripcio.index.computeIfPresent(subscripcio.clau, (clau, subscripcions) -> {
+            subscripcions.remove(subscripcio);
+            return subscripcions.isEmpty() ? null : subscripcions;
+        });
+        subscripcio.cua.clear();
+        connexions.decrementAndGet();
+    }
+
+    /**
+     * Posa un missatge a la cua d'una subscripció i, si no s'està enviant, llança l'enviament.
+     * Si la cua és plena el client no llegeix: es tanca la connexió
+     */
+    private void encuar(Subscripcio subscripcio, Missatge missatge) {
+        if (subscripcio.eliminada.get()) {
+            return;
+        }
+        if (!subscripcio.cua.offer(missatge)) {
+            desconnexionsLentes.increment();
+            eliminar(subscripcio);
+            subscripcio.emissor.complete();
+            return;
+        }
+        if (subscripcio.enviant.compareAndSet(false, true)) {
+            enviaments.execute(() -> enviar(subscripcio));
+        }
+    }
+
+    /**
+     * Buida la cua d'una subscripció; només hi ha un fil enviant per subscripció alhora
+     */
+    private void enviar(Subscripcio subscripcio) {
+        do {
+            Missatge missatge;
+            while ((missatge = subscripcio.cua.poll()) != null) {
+                try {
+                    if (missatge == TANCAR) {
+                        eliminar(subscripcio);
+                        subscripcio.emissor.complete();
+                        return;
+                    }
+                    subscripcio.emissor.send(construir(missatge));
+                } catch (Exception e) {
+                    // El client s'ha desconnectat; el contenidor notifica l'error i Spring tanca la petició
+                    eliminar(subscripcio);
+                    return;
+                }
+            }
+            subscripcio.enviant.set(false);
+            // Un missatge encuat just després de buidar la cua no ha llançat cap enviament
+        } while (!subscripcio.cua.isEmpty() && subscripcio.enviant.compareAndSet(false, true));
+    }
+
+    private static Missatge estat(Long id, CanviEstat canvi) {
+        return new Missatge(ESDEVENIMENT_ESTAT, id != null ? String.valueOf(id) : null, canvi);
+    }
+
+    private static SseEmitter.SseEventBuilder construir(Missatge missatge) {
+        if (missatge == BATEC) {
+            return SseEmitter.event().comment("");
+        }
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name(missatge.nom()).data(missatge.dades());
+        return missatge.id() != null ? event.id(missatge.id()) : event;
+    }
+
+    private static boolean esFinal(String estat) {
+        return RegistreEstats.LLIURADA.equals(estat) || EsdevenimentComanda.CANCELLADA.equals(estat);
+    }
+}
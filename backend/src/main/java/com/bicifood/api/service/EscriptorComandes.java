@@ -0,0 +1,210 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Comanda;
+import com.bicifood.api.entity.LiniaComanda;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escriptor de comandes amb group commit.
+ * Les comandes que arriben alhora s'acumulen durant una finestra curta (o fins a una mida
+ * màxima de grup) i un sol fil les escriu amb {@link ComandaService#createComandesEnGrup}: una
+ * transacció, una lectura de productes i un flush per grup en lloc d'un per comanda.
+ * Cada cridant rep el resultat de la seva comanda; si el grup sencer falla (p. ex. una venda
+ * concurrent fora del grup ha deixat sense stock un producte), les comandes es tornen a provar
+ * una a una perquè la fallada d'una no faci fallar les altres.
+ * En aturar-se escriu totes les comandes que ja té a la cua abans d'acabar.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class EscriptorComandes {
+
+    private record Pendent(PeticioComanda peticio, CompletableFuture<Comanda> resultat) {}
+
+    /** Marca de final: el fil escriu el grup que té a mig fer i acaba */
+    private static final Pendent FINAL = new Pendent(null, null);
+
+    @Autowired
+    private ComandaService comandaService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.escriptor.finestra-ms:5}")
+    private long finestraMs;
+
+    @Value("${app.escriptor.mida-grup:32}")
+    private int midaGrup;
+
+    @Value("${app.escriptor.capacitat-cua:2000}")
+    private int capacitatCua;
+
+    @Value("${app.escriptor.espera-aturada-segons:30}")
+    private long esperaAturadaSegons;
+
+    private BlockingQueue<Pendent> cua;
+
+    private Thread fil;
+
+    private volatile boolean acceptant = true;
+
+    private DistributionSummary midaGrups;
+    private Counter reintents;
+
+    @PostConstruct
+    public void iniciar() {
+        cua = new LinkedBlockingQueue<>(capacitatCua);
+        midaGrups = DistributionSummary.builder("bicifood.comandes.grup.mida")
+                .description("Comandes escrites en cada transacció de grup")
+                .register(meterRegistry);
+        reintents = Counter.builder("bicifood.comandes.grup.reintents")
+                .description("Grups desfets que s'han tornat a provar comanda a comanda")
+                .register(meterRegistry);
+        fil = Thread.ofVirtual().name("escriptor-comandes").start(this::escriure);
+    }
+
+    /**
+     * Deixa d'acceptar comandes i espera, fins al temps màxim configurat, que s'escriguin les
+     * que ja són a la cua; si el temps s'esgota, interromp el fil
+     */
+    @PreDestroy
+    public void aturar() throws InterruptedException {
+        acceptant = false;
+        long limit = System.nanoTime() + TimeUnit.SECONDS.toNanos(esperaAturadaSegons);
+        if (cua.offer(FINAL, limit - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            fil.join(Duration.ofNanos(Math.max(1, limit - System.nanoTime())));
+        }
+        if (fil.isAlive()) {
+            fil.interrupt();
+            fil.join();
+        }
+
+        // Comandes enviades en l'últim moment, darrere de la marca de final
+        Pendent pendent;
+        while ((pendent = cua.poll()) != null) {
+            if (pendent != FINAL) {
+                pendent.resultat().completeExceptionally(new RuntimeException("Escriptor de comandes aturat"));
+            }
+        }
+    }
+
+    /**
+     * Envia una comanda al proper grup d'escriptura; bloqueja si la cua és plena
+     * @param comanda la comanda (client i adreça)
+     * @param linies les línies de la comanda
+     * @param reservaId l'ID de la reserva d'stock, o null
+     * @return un futur que es completa amb la comanda creada o amb el motiu del rebuig
+     */
+    public CompletableFuture<Comanda> enviar(Comanda comanda, List<LiniaComanda> linies, String reservaId) {
+        Pendent pendent = new Pendent(new PeticioComanda(comanda, linies, reservaId), new CompletableFuture<>());
+        if (!acceptant) {
+            pendent.resultat().completeExceptionally(new RuntimeException("Escriptor de comandes aturat"));
+            return pendent.resultat();
+        }
+        try {
+            cua.put(pendent);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pendent.resultat().completeExceptionally(new RuntimeException("Petició de comanda interrompuda"));
+        }
+        return pendent.resultat();
+    }
+
+    /**
+     * Envia una comanda i n'espera el resultat
+     * @return la comanda creada
+     * @throws RuntimeException si la comanda s'ha rebutjat
+     */
+    public Comanda crear(Comanda comanda, List<LiniaComanda> linies, String reservaId) {
+        try {
+            return enviar(comanda, linies, reservaId).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Petició de comanda interrompuda");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // Mètodes auxiliars
+
+    private void escriure() {
+        List<Pendent> grup = new ArrayList<>(midaGrup);
+        boolean finalTrobat = false;
+        while (!finalTrobat && !Thread.currentThread().isInterrupted()) {
+            try {
+                Pendent primer = cua.take();
+                if (primer == FINAL) {
+                    return;
+                }
+                grup.add(primer);
+                long limit = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(finestraMs);
+                while (grup.size() < midaGrup) {
+                    Pendent seguent = cua.poll(limit - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (seguent == null) {
+                        break;
+                    }
+                    if (seguent == FINAL) {
+                        finalTrobat = true;
+                        break;
+                    }
+                    grup.add(seguent);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                grup.forEach(p -> p.resultat().completeExceptionally(new RuntimeException("Escriptor de comandes aturat")));
+                return;
+            }
+            midaGrups.record(grup.size());
+            escriureGrup(grup);
+            grup.clear();
+        }
+    }
+
+    private void escriureGrup(List<Pendent> grup) {
+        try {
+            comandaService.createComandesEnGrup(grup.stream().map(Pendent::peticio).toList());
+        } catch (RuntimeException e) {
+            // El grup s'ha desfet: totes les comandes es tornen a provar soles, també les rebutjades
+            // perquè l'stock que havien consumit les anteriors del grup ja no està descomptat
+            reintents.increment();
+            for (Pendent pendent : grup) {
+                PeticioComanda peticio = pendent.peticio();
+                peticio.reiniciar();
+                try {
+                    comandaService.createComandesEnGrup(List.of(peticio));
+                } catch (RuntimeException individual) {
+                    peticio.rebutjar(individual);
+                }
+            }
+        }
+        for (Pendent pendent : grup) {
+            PeticioComanda peticio = pendent.peticio();
+            if (peticio.getError() != null) {
+                pendent.resultat().completeExceptionally(peticio.getError());
+            } else {
+                pendent.resultat().complete(peticio.getComanda());
+            }
+        }
+    }
+}
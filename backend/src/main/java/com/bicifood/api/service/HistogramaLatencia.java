@@ -0,0 +1,108 @@
+package com.bicifood.api.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latències de memòria fixa, a l'estil HDR.
+ * Els valors (en segons) es compten en cubetes log-lineals: els valors petits tenen cubeta
+ * pròpia i a partir d'aquí cada potència de dos es divideix en {@value #SUBCUBETES} cubetes
+ * iguals, de manera que l'error relatiu dels percentils és com a molt d'un 3%. Registrar és
+ * O(1) i sense bloquejos; calcular un percentil recorre les cubetes, que són un nombre fix.
+ * Els valors més grans que el màxim es compten a la darrera cubeta.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+final class HistogramaLatencia {
+
+    private static final int SUBCUBETES = 32;
+    private static final int BITS_SUBCUBETA = 5;
+
+    /** Valor màxim representable: 24 hores */
+    static final long MAXIM_SEGONS = 86_400;
+
+    private static final int CUBETES = index(MAXIM_SEGONS) + 1;
+
+    private final AtomicLongArray comptadors = new AtomicLongArray(CUBETES);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maxim = new AtomicLong();
+
+    /**
+     * Registra una latència
+     * @param segons la latència en segons; els valors negatius es compten com a 0
+     */
+    void registrar(long segons) {
+        long valor = Math.max(0, Math.min(segons, MAXIM_SEGONS));
+        comptadors.incrementAndGet(index(valor));
+        total.increment();
+        suma.add(valor);
+        maxim.accumulateAndGet(valor, Math::max);
+    }
+
+    /**
+     * @return nombre de latències registrades
+     */
+    long getMostres() {
+        return total.sum();
+    }
+
+    /**
+     * @return la mitjana en segons, o 0 si no hi ha mostres
+     */
+    double getMitjana() {
+        long mostres = total.sum();
+        return mostres == 0 ? 0 : (double) suma.sum() / mostres;
+    }
+
+    /**
+     * @return la latència màxima registrada en segons
+     */
+    long getMaxim() {
+        return maxim.get();
+    }
+
+    /**
+     * Calcula un percentil
+     * @param percentil entre 0 i 1 (p. ex. 0.95)
+     * @return el valor del percentil en segons (punt mitjà de la cubeta), o 0 si no hi ha mostres
+     */
+    long percentil(double percentil) {
+        long mostres = total.sum();
+        if (mostres == 0) {
+            return 0;
+        }
+        long objectiu = Math.max(1, (long) Math.ceil(percentil * mostres));
+        long acumulat = 0;
+        for (int i = 0; i < CUBETES; i++) {
+            acumulat += comptadors.get(i);
+            if (acumulat >= objectiu) {
+                return Math.min(valorMitja(i), maxim.get());
+            }
+        }
+        return maxim.get();
+    }
+
+    // Mètodes auxiliars
+
+    private static int index(long valor) {
+        if (valor < 2 * SUBCUBETES) {
+            return (int) valor;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(valor);
+        int desplacament = exponent - BITS_SUBCUBETA;
+        return (exponent - BITS_SUBCUBETA + 1) * SUBCUBETES + (int) (valor >> desplacament) - SUBCUBETES;
+    }
+
+    private static long valorMitja(int index) {
+        if (index < 2 * SUBCUBETES) {
+            return index;
+        }
+        int exponent = index / SUBCUBETES + BITS_SUBCUBETA - 1;
+        int desplacament = exponent - BITS_SUBCUBETA;
+        long inferior = (long) (index % SUBCUBETES + SUBCUBETES) << desplacament;
+        return inferior + (1L << desplacament) / 2;
+    }
+}
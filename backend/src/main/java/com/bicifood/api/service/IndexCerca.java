@@ -0,0 +1,227 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Producte;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índex invertit immutable sobre el nom i la descripció dels productes.
+ * Normalitza accents del català i el castellà, tokenitza i ordena els resultats amb BM25
+ * (el nom pesa més que la descripció). Cada paraula de la consulta es tracta com a prefix,
+ * de manera que la cerca funciona mentre l'usuari escriu.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+final class IndexCerca {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PES_NOM = 2.0;
+    private static final double PES_DESCRIPCIO = 1.0;
+
+    private static final Pattern MARQUES_DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /** Termes ordenats alfabèticament, per poder resoldre prefixos amb cerca binària */
+    private final String[] termes;
+    private final Postings[] postings;
+
+    /** ID de producte per a cada document */
+    private final int[] producteIds;
+    private final int[] llargadaNom;
+    private final int[] llargadaDescripcio;
+    private final double mitjanaNom;
+    private final double mitjanaDescripcio;
+
+    private record Postings(int[] documents, int[] freqNom, int[] freqDescripcio) {}
+
+    private IndexCerca(String[] termes, Postings[] postings, int[] producteIds,
+                       int[] llargadaNom, int[] llargadaDescripcio) {
+        this.termes = termes;
+        this.postings = postings;
+        this.producteIds = producteIds;
+        this.llargadaNom = llargadaNom;
+        this.llargadaDescripcio = llargadaDescripcio;
+        this.mitjanaNom = mitjana(llargadaNom);
+        this.mitjanaDescripcio = mitjana(llargadaDescripcio);
+    }
+
+    /**
+     * Construeix l'índex per a una llista de productes
+     * @param productes els productes a indexar
+     * @return l'índex construït
+     */
+    static IndexCerca construir(List<Producte> productes) {
+        int n = productes.size();
+        int[] ids = new int[n];
+        int[] llargadesNom = new int[n];
+        int[] llargadesDescripcio = new int[n];
+        TreeMap<String, Map<Integer, int[]>> frequencies = new TreeMap<>();
+
+        for (int doc = 0; doc < n; doc++) {
+            Producte producte = productes.get(doc);
+            ids[doc] = producte.getId();
+            List<String> tokensNom = tokenitzar(producte.getNom());
+            List<String> tokensDescripcio = tokenitzar(producte.getDescripcio());
+            llargadesNom[doc] = tokensNom.size();
+            llargadesDescripcio[doc] = tokensDescripcio.size();
+            for (String token : tokensNom) {
+                frequencies.computeIfAbsent(token, t -> new TreeMap<>()).computeIfAbsent(doc, d -> new int[2])[0]++;
+            }
+            for (String token : tokensDescripcio) {
+                frequencies.computeIfAbsent(token, t -> new TreeMap<>()).computeIfAbsent(doc, d -> new int[2])[1]++;
+            }
+        }
+
+        String[] termes = new String[frequencies.size()];
+        Postings[] postings = new Postings[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Map<Integer, int[]>> entrada : frequencies.entrySet()) {
+            Map<Integer, int[]> perDocument = entrada.getValue();
+            int[] documents = new int[perDocument.size()];
+            int[] freqNom = new int[perDocument.size()];
+            int[] freqDescripcio = new int[perDocument.size()];
+            int j = 0;
+            for (Map.Entry<Integer, int[]> doc : perDocument.entrySet()) {
+                documents[j] = doc.getKey();
+                freqNom[j] = doc.getValue()[0];
+                freqDescripcio[j] = doc.getValue()[1];
+                j++;
+            }
+            termes[i] = entrada.getKey();
+            postings[i] = new Postings(documents, freqNom, freqDescripcio);
+            i++;
+        }
+        return new IndexCerca(termes, postings, ids, llargadesNom, llargadesDescripcio);
+    }
+
+    /**
+     * Cerca productes que contenen totes les paraules de la consulta (com a prefix)
+     * @param consulta el text introduït per l'usuari
+     * @return IDs de producte ordenats per rellevància descendent
+     */
+    List<Integer> cercar(String consulta) {
+        List<String> tokens = tokenitzar(consulta);
+        if (tokens.isEmpty()) {
+            List<Integer> tots = new ArrayList<>(producteIds.length);
+            for (int id : producteIds) {
+                tots.add(id);
+            }
+            return tots;
+        }
+
+        int n = producteIds.length;
+        Map<Integer, Acumulador> acumulats = new HashMap<>();
+        for (int q = 0; q < tokens.size(); q++) {
+            int inici = primerAmbPrefix(tokens.get(q));
+            for (int t = inici; t < termes.length && termes[t].startsWith(tokens.get(q)); t++) {
+                Postings p = postings[t];
+                double idf = Math.log(1 + (n - p.documents().length + 0.5) / (p.documents().length + 0.5));
+                for (int k = 0; k < p.documents().length; k++) {
+                    int doc = p.documents()[k];
+                    Acumulador acc = acumulats.get(doc);
+                    if (acc == null) {
+                        if (q > 0) {
+                            continue;
+                        }
+                        acc = new Acumulador();
+                        acumulats.put(doc, acc);
+                    }
+                    if (acc.tokens < q) {
+                        continue;
+                    }
+                    acc.puntuacio += idf * (PES_NOM * bm25(p.freqNom()[k], llargadaNom[doc], mitjanaNom)
+                            + PES_DESCRIPCIO * bm25(p.freqDescripcio()[k], llargadaDescripcio[doc], mitjanaDescripcio));
+                    acc.tokens = q + 1;
+                }
+            }
+        }
+
+        int totalTokens = tokens.size();
+        List<Map.Entry<Integer, Acumulador>> coincidencies = new ArrayList<>();
+        for (Map.Entry<Integer, Acumulador> entrada : acumulats.entrySet()) {
+            if (entrada.getValue().tokens == totalTokens) {
+                coincidencies.add(entrada);
+            }
+        }
+        coincidencies.sort((a, b) -> {
+            int perPuntuacio = Double.compare(b.getValue().puntuacio, a.getValue().puntuacio);
+            return perPuntuacio != 0 ? perPuntuacio : Integer.compare(producteIds[a.getKey()], producteIds[b.getKey()]);
+        });
+
+        List<Integer> resultat = new ArrayList<>(coincidencies.size());
+        for (Map.Entry<Integer, Acumulador> entrada : coincidencies) {
+            resultat.add(producteIds[entrada.getKey()]);
+        }
+        return resultat;
+    }
+
+    /**
+     * Normalitza un text: minúscules i sense accents (à → a, ç → c, ñ → n, l·l → ll)
+     * @param text el text original
+     * @return el text normalitzat
+     */
+    static String normalitzar(String text) {
+        String sensePuntVolat = text.replace("·", "").replace("•", "");
+        String descompost = Normalizer.normalize(sensePuntVolat, Normalizer.Form.NFD);
+        return MARQUES_DIACRITIQUES.matcher(descompost).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Divideix un text en termes normalitzats
+     * @param text el text original (pot ser null)
+     * @return llista de termes
+     */
+    static List<String> tokenitzar(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARADORS.split(normalitzar(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Mètodes auxiliars
+
+    private int primerAmbPrefix(String prefix) {
+        int posicio = Arrays.binarySearch(termes, prefix);
+        return posicio >= 0 ? posicio : -posicio - 1;
+    }
+
+    private static double bm25(int frequencia, int llargada, double mitjana) {
+        if (frequencia == 0) {
+            return 0;
+        }
+        double normalitzacio = mitjana > 0 ? llargada / mitjana : 1;
+        return frequencia * (K1 + 1) / (frequencia + K1 * (1 - B + B * normalitzacio));
+    }
+
+    private static double mitjana(int[] valors) {
+        if (valors.length == 0) {
+            return 0;
+        }
+        long suma = 0;
+        for (int valor : valors) {
+            suma += valor;
+        }
+        return (double) suma / valors.length;
+    }
+
+    private static final class Acumulador {
+        private double puntuacio;
+        private int tokens;
+    }
+}
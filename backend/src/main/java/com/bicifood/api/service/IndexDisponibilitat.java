@@ -0,0 +1,158 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Producte;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bitmaps immutables de disponibilitat d'stock, indexats per ID de producte.
+ * Manté els conjunts amb stock, sense stock i amb stock baix, i la pertinença de cada
+ * producte a la seva categoria; les consultes per categoria són interseccions de bitmaps.
+ * Els IDs de producte són densos (IDENTITY), de manera que un BitSet és compacte.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+final class IndexDisponibilitat {
+
+    /** Llindar d'stock baix precalculat (el valor per defecte de /products/low-stock) */
+    static final int LLINDAR_STOCK_BAIX = 10;
+
+    private static final BitSet BUIT = new BitSet();
+
+    private final BitSet ambStock;
+    private final BitSet senseStock;
+    private final BitSet stockBaix;
+    private final Map<Integer, BitSet> perCategoria;
+
+    private IndexDisponibilitat(BitSet ambStock, BitSet senseStock, BitSet stockBaix, Map<Integer, BitSet> perCategoria) {
+        this.ambStock = ambStock;
+        this.senseStock = senseStock;
+        this.stockBaix = stockBaix;
+        this.perCategoria = perCategoria;
+    }
+
+    /**
+     * Construeix els bitmaps per a tots els productes
+     * @param productes els productes del catàleg
+     * @return l'índex construït
+     */
+    static IndexDisponibilitat construir(Collection<Producte> productes) {
+        IndexDisponibilitat index = new IndexDisponibilitat(new BitSet(), new BitSet(), new BitSet(), new HashMap<>());
+        for (Producte producte : productes) {
+            index.afegir(producte);
+        }
+        return index;
+    }
+
+    /**
+     * Crea un índex nou aplicant canvis; només es copien els bitmaps afectats
+     * @param canvis productes modificats per ID; un valor null indica que s'ha eliminat
+     * @param anteriors productes tal com eren al snapshot anterior
+     * @return el nou índex
+     */
+    IndexDisponibilitat ambCanvis(Map<Integer, Producte> canvis, Map<Integer, Producte> anteriors) {
+        Map<Integer, BitSet> categories = new HashMap<>(perCategoria);
+        Set<Integer> copiades = new HashSet<>();
+        IndexDisponibilitat nou = new IndexDisponibilitat((BitSet) ambStock.clone(), (BitSet) senseStock.clone(),
+                (BitSet) stockBaix.clone(), categories);
+        for (Map.Entry<Integer, Producte> canvi : canvis.entrySet()) {
+            int id = canvi.getKey();
+            nou.ambStock.clear(id);
+            nou.senseStock.clear(id);
+            nou.stockBaix.clear(id);
+            Producte anterior = anteriors.get(id);
+            if (anterior != null && anterior.getCategoria() != null) {
+                propia(categories, copiades, anterior.getCategoria().getId()).clear(id);
+            }
+            Producte producte = canvi.getValue();
+            if (producte != null) {
+                if (producte.getCategoria() != null) {
+                    propia(categories, copiades, producte.getCategoria().getId());
+                }
+                nou.afegir(producte);
+            }
+        }
+        return nou;
+    }
+
+    /**
+     * Crea un índex nou on només canvia l'stock; els bitmaps de categoria es comparteixen
+     * @param actualitzats productes amb el nou stock (la categoria no ha canviat)
+     * @return el nou índex
+     */
+    IndexDisponibilitat ambStock(Collection<Producte> actualitzats) {
+        IndexDisponibilitat nou = new IndexDisponibilitat((BitSet) ambStock.clone(), (BitSet) senseStock.clone(),
+                (BitSet) stockBaix.clone(), perCategoria);
+        for (Producte producte : actualitzats) {
+            int id = producte.getId();
+            nou.ambStock.clear(id);
+            nou.senseStock.clear(id);
+            nou.stockBaix.clear(id);
+            nou.marcarStock(id, producte.getStock());
+        }
+        return nou;
+    }
+
+    // Consultes (retornen bitmaps nous que el cridant pot modificar)
+
+    BitSet ambStock() {
+        return (BitSet) ambStock.clone();
+    }
+
+    BitSet senseStock() {
+        return (BitSet) senseStock.clone();
+    }
+
+    BitSet stockBaix() {
+        return (BitSet) stockBaix.clone();
+    }
+
+    BitSet ambStockPerCategoria(Integer categoriaId) {
+        BitSet resultat = (BitSet) perCategoria.getOrDefault(categoriaId, BUIT).clone();
+        resultat.and(ambStock);
+        return resultat;
+    }
+
+    // Mètodes auxiliars
+
+    /**
+     * Obté el bitmap d'una categoria per modificar-lo, copiant-lo la primera vegada
+     */
+    private static BitSet propia(Map<Integer, BitSet> categories, Set<Integer> copiades, Integer categoriaId) {
+        BitSet bitmap = categories.get(categoriaId);
+        if (copiades.add(categoriaId)) {
+            bitmap = bitmap != null ? (BitSet) bitmap.clone() : new BitSet();
+            categories.put(categoriaId, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Marca un producte als bitmaps; els bitmaps de categoria ja han de ser propis d'aquest índex
+     */
+    private void afegir(Producte producte) {
+        int id = producte.getId();
+        marcarStock(id, producte.getStock());
+        if (producte.getCategoria() != null) {
+            perCategoria.computeIfAbsent(producte.getCategoria().getId(), k -> new BitSet()).set(id);
+        }
+    }
+
+    private void marcarStock(int id, Integer valor) {
+        int stock = valor != null ? valor : 0;
+        if (stock > 0) {
+            ambStock.set(id);
+            if (stock <= LLINDAR_STOCK_BAIX) {
+                stockBaix.set(id);
+            }
+        } else {
+            senseStock.set(id);
+        }
+    }
+}
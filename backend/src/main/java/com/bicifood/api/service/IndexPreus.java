@@ -0,0 +1,178 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Producte;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Índex immutable de preus en cèntims, amb arrays primitius ordenats per (preu, id).
+ * Resol filtres per rang de preus i llistats ordenats per preu amb cerca binària,
+ * sense comparar BigDecimal ni tornar a ordenar.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+final class IndexPreus {
+
+    private final int[] centims;
+    private final int[] ids;
+
+    private IndexPreus(int[] centims, int[] ids) {
+        this.centims = centims;
+        this.ids = ids;
+    }
+
+    /**
+     * Construeix l'índex ordenant tots els productes
+     * @param productes els productes a indexar
+     * @return l'índex construït
+     */
+    static IndexPreus construir(Collection<Producte> productes) {
+        long[] claus = new long[productes.size()];
+        int i = 0;
+        for (Producte producte : productes) {
+            claus[i++] = clau(centims(producte.getPreu()), producte.getId());
+        }
+        Arrays.sort(claus);
+        return desclau(claus, claus.length);
+    }
+
+    /**
+     * Crea un índex nou aplicant canvis de manera incremental: elimina les entrades dels
+     * productes modificats i fusiona les noves, en temps lineal i sense reordenar
+     * @param canvis productes modificats per ID; un valor null indica que s'ha eliminat
+     * @return el nou índex
+     */
+    IndexPreus ambCanvis(Map<Integer, Producte> canvis) {
+        long[] noves = new long[canvis.size()];
+        int totalNoves = 0;
+        for (Producte producte : canvis.values()) {
+            if (producte != null) {
+                noves[totalNoves++] = clau(centims(producte.getPreu()), producte.getId());
+            }
+        }
+        Arrays.sort(noves, 0, totalNoves);
+
+        long[] resultat = new long[ids.length + totalNoves];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (canvis.containsKey(ids[i])) {
+                continue;
+            }
+            long existent = clau(centims[i], ids[i]);
+            while (j < totalNoves && noves[j] < existent) {
+                resultat[n++] = noves[j++];
+            }
+            resultat[n++] = existent;
+        }
+        while (j < totalNoves) {
+            resultat[n++] = noves[j++];
+        }
+        return desclau(resultat, n);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * @param posicio posició dins l'ordre (preu, id) ascendent
+     * @return l'ID del producte en aquella posició
+     */
+    int idA(int posicio) {
+        return ids[posicio];
+    }
+
+    /**
+     * Posició del producte que ocupa un lloc en l'ordre per preu descendent i, a igualtat de
+     * preu, per ID ascendent (el mateix desempat que l'ordenació amb comparador)
+     * @param inici primera posició del rang
+     * @param fi posició següent a la darrera del rang
+     * @param lloc lloc dins l'ordre descendent del rang, començant per 0
+     * @return la posició dins l'ordre (preu, id) ascendent
+     */
+    int posicioDescendent(int inici, int fi, int lloc) {
+        int posicio = fi - 1 - lloc;
+        int preu = centims[posicio];
+        int primera = Math.max(inici, primeraPosicioDesDe(preu));
+        int darrera = Math.min(fi, primeraPosicioDespresDe(preu)) - 1;
+        // Dins del grup del mateix preu l'ordre d'ID es manté ascendent
+        return primera + darrera - posicio;
+    }
+
+    /**
+     * @param minim preu mínim en cèntims
+     * @return la primera posició amb preu més gran o igual que el mínim
+     */
+    int primeraPosicioDesDe(int minim) {
+        int baix = 0;
+        int alt = centims.length;
+        while (baix < alt) {
+            int mig = (baix + alt) >>> 1;
+            if (centims[mig] < minim) {
+                baix = mig + 1;
+            } else {
+                alt = mig;
+            }
+        }
+        return baix;
+    }
+
+    /**
+     * @param maxim preu màxim en cèntims
+     * @return la primera posició amb preu estrictament més gran que el màxim
+     */
+    int primeraPosicioDespresDe(int maxim) {
+        return maxim == Integer.MAX_VALUE ? centims.length : primeraPosicioDesDe(maxim + 1);
+    }
+
+    /**
+     * Converteix un preu a cèntims
+     * @param preu el preu amb dos decimals
+     * @return el preu en cèntims
+     */
+    static int centims(BigDecimal preu) {
+        return preu.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    /**
+     * Converteix un límit de preu a cèntims, arrodonint cap a dins del rang
+     * @param preu el límit
+     * @param minim true si és el límit inferior
+     * @return el límit en cèntims, saturat al rang d'int
+     */
+    static int limitCentims(BigDecimal preu, boolean minim) {
+        BigDecimal centims = preu.movePointRight(2).setScale(0, minim ? RoundingMode.CEILING : RoundingMode.FLOOR);
+        if (centims.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) > 0) {
+            return Integer.MAX_VALUE;
+        }
+        if (centims.compareTo(BigDecimal.valueOf(Integer.MIN_VALUE)) < 0) {
+            return Integer.MIN_VALUE;
+        }
+        return centims.intValue();
+    }
+
+    // Mètodes auxiliars
+
+    /**
+     * Empaqueta (preu, id) en un long que s'ordena igual que la parella
+     */
+    private static long clau(int centims, int id) {
+        return ((long) centims << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    private static IndexPreus desclau(long[] claus, int total) {
+        int[] centims = new int[total];
+        int[] ids = new int[total];
+        for (int i = 0; i < total; i++) {
+            centims[i] = (int) (claus[i] >> 32);
+            ids[i] = (int) claus[i];
+        }
+        return new IndexPreus(centims, ids);
+    }
+}
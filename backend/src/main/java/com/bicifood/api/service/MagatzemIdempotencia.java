@@ -0,0 +1,160 @@
+package com.bicifood.api.service;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Magatzem acotat i amb caducitat de claus d'idempotència (capçalera Idempotency-Key).
+ * La primera petició amb una clau executa l'acció i en desa el resultat; les repeticions
+ * el retornen en O(1) sense tornar-la a executar. Si dues peticions amb la mateixa clau
+ * arriben alhora, només una executa l'acció i l'altra n'espera el resultat.
+ * Si l'acció falla, la clau s'allibera perquè el client pugui tornar-ho a provar.
+ *
+ * @param <T> tipus del resultat desat
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public final class MagatzemIdempotencia<T> {
+
+    /**
+     * Resultat d'una execució idempotent
+     * @param valor el resultat de l'acció
+     * @param repetit true si s'ha retornat un resultat desat d'una petició anterior
+     */
+    public record Resultat<T>(T valor, boolean repetit) {}
+
+    /**
+     * Una clau ja feta servir arriba amb una petició diferent de la que la va fer servir primer
+     */
+    public static final class ClauReutilitzadaException extends RuntimeException {
+        public ClauReutilitzadaException(String clau) {
+            super("Clau d'idempotència reutilitzada amb una petició diferent: " + clau);
+        }
+    }
+
+    private record Entrada<T>(CompletableFuture<T> resultat, String empremta, long creadaMillis) {}
+
+    private record Ordre<T>(String clau, Entrada<T> entrada) {}
+
+    private final int maximClaus;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<String, Entrada<T>> entrades = new ConcurrentHashMap<>();
+
+    /** Claus en ordre d'arribada; amb un TTL fix és també l'ordre de caducitat */
+    private final Queue<Ordre<T>> ordre = new ConcurrentLinkedQueue<>();
+
+    /** Mida de {@link #ordre}, que pot tenir entrades que ja no són a {@link #entrades} */
+    private final AtomicInteger midaOrdre = new AtomicInteger();
+
+    private final AtomicBoolean purgant = new AtomicBoolean();
+
+    /**
+     * @param maximClaus nombre màxim de claus desades; en superar-lo es descarten les més antigues
+     * @param ttlMillis temps durant el qual es recorda una clau
+     */
+    public MagatzemIdempotencia(int maximClaus, long ttlMillis) {
+        this.maximClaus = maximClaus;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Executa una acció com a molt una vegada per clau
+     * @param clau la clau d'idempotència enviada pel client
+     * @param empremta resum de la petició; la mateixa clau amb una petició diferent és un error
+     * @param accio l'acció a executar
+     * @return el resultat, nou o desat
+     * @throws ClauReutilitzadaException si la clau ja s'ha fet servir amb una petició diferent
+     */
+    public Resultat<T> executar(String clau, String empremta, Supplier<T> accio) {
+        long ara = System.currentTimeMillis();
+        purgar(ara);
+
+        Entrada<T> nova = new Entrada<>(new CompletableFuture<>(), empremta, ara);
+        Entrada<T> actual = entrades.compute(clau, (k, existent) ->
+                existent == null || caducada(existent, ara) ? nova : existent);
+
+        if (actual != nova) {
+            if (!actual.empremta().equals(empremta)) {
+                throw new ClauReutilitzadaException(clau);
+            }
+            return new Resultat<>(esperar(actual.resultat()), true);
+        }
+
+        Ordre<T> posicio = new Ordre<>(clau, nova);
+        ordre.add(posicio);
+        midaOrdre.incrementAndGet();
+        try {
+            T valor = accio.get();
+            nova.resultat().complete(valor);
+            return new Resultat<>(valor, false);
+        } catch (RuntimeException e) {
+            entrades.remove(clau, nova);
+            if (ordre.remove(posicio)) {
+                midaOrdre.decrementAndGet();
+            }
+            nova.resultat().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return nombre de claus desades actualment
+     */
+    public int size() {
+        return entrades.size();
+    }
+
+    /**
+     * @return nombre de posicions a la cua de caducitat; mai no supera gaire el màxim de claus
+     */
+    int midaOrdre() {
+        return midaOrdre.get();
+    }
+
+    // Mètodes auxiliars
+
+    private boolean caducada(Entrada<T> entrada, long ara) {
+        return ara - entrada.creadaMillis() > ttlMillis;
+    }
+
+    /**
+     * Descarta les claus caducades i, si se supera el màxim, les més antigues. Les posicions de
+     * claus que ja no hi són (substituïdes després de caducar) també compten per al màxim
+     */
+    private void purgar(long ara) {
+        // Només un fil purga alhora; els altres no l'esperen
+        if (!purgant.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Ordre<T> cap;
+            while ((cap = ordre.peek()) != null && (entrades.size() >= maximClaus || midaOrdre.get() >= maximClaus
+                    || caducada(cap.entrada(), ara) || entrades.get(cap.clau()) != cap.entrada())) {
+                if (ordre.remove(cap)) {
+                    midaOrdre.decrementAndGet();
+                }
+                entrades.remove(cap.clau(), cap.entrada());
+            }
+        } finally {
+            purgant.set(false);
+        }
+    }
+
+    private static <T> T esperar(CompletableFuture<T> resultat) {
+        try {
+            return resultat.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
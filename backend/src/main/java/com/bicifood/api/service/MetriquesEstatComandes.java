@@ -0,0 +1,35 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.EsdevenimentComanda;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Subscriptor de l'outbox que compta els canvis d'estat de les comandes per estat de destinació
+ * ({@code bicifood.comandes.transicions}). Amb l'entrega almenys una vegada un lot repetit
+ * es pot comptar dues vegades; per a un comptador de tendència és acceptable.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class MetriquesEstatComandes implements SubscriptorEsdevenimentsComanda {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public void rebre(List<EsdevenimentComanda> esdeveniments) {
+        for (EsdevenimentComanda esdeveniment : esdeveniments) {
+            Counter.builder("bicifood.comandes.transicions")
+                    .description("Canvis d'estat de comandes publicats per l'outbox")
+                    .tag("estat", esdeveniment.getEstatNou())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
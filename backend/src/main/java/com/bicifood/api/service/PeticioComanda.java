@@ -0,0 +1,84 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Comanda;
+import com.bicifood.api.entity.LiniaComanda;
+
+import java.util.List;
+
+/**
+ * Una comanda pendent de crear dins d'un grup, amb el seu resultat.
+ * {@link ComandaService#createComandesEnGrup} la marca com a creada o rebutjada; una comanda
+ * rebutjada no afecta les altres del grup.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public final class PeticioComanda {
+
+    private final Comanda comanda;
+    private final List<LiniaComanda> linies;
+    private final String reservaId;
+
+    private boolean creada;
+    private RuntimeException error;
+
+    /**
+     * @param comanda la comanda (client i adreça)
+     * @param linies les línies; els productes només cal que portin l'ID
+     * @param reservaId l'ID de la reserva d'stock, o null
+     */
+    public PeticioComanda(Comanda comanda, List<LiniaComanda> linies, String reservaId) {
+        this.comanda = comanda;
+        this.linies = linies;
+        this.reservaId = reservaId;
+    }
+
+    public Comanda getComanda() {
+        return comanda;
+    }
+
+    public List<LiniaComanda> getLinies() {
+        return linies;
+    }
+
+    public String getReservaId() {
+        return reservaId;
+    }
+
+    /**
+     * @return true si la comanda s'ha escrit (serà definitiva quan la transacció faci commit)
+     */
+    public boolean isCreada() {
+        return creada;
+    }
+
+    /**
+     * @return el motiu del rebuig, o null si no s'ha rebutjat
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    void marcarCreada() {
+        this.creada = true;
+    }
+
+    void rebutjar(RuntimeException error) {
+        this.error = error;
+    }
+
+    /**
+     * Torna la petició a l'estat inicial després d'un rollback perquè es pugui tornar a provar:
+     * els IDs assignats per la seqüència ja no són vàlids
+     */
+    void reiniciar() {
+        creada = false;
+        error = null;
+        comanda.setId(null);
+        comanda.getLiniesComanda().clear();
+        for (LiniaComanda linia : linies) {
+            linia.setId(null);
+            linia.setComanda(null);
+        }
+    }
+}
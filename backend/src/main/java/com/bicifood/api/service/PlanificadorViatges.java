@@ -0,0 +1,245 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.model.PlaViatges;
+import com.bicifood.api.model.PlaViatges.Informe;
+import com.bicifood.api.model.PlaViatges.Viatge;
+import com.bicifood.api.repository.ComandaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agrupa les comandes en preparació en viatges de bicicleta.
+ * Un viatge reuneix comandes de codis postals propers (mateixa província i diferència numèrica
+ * de com a molt {@code app.viatges.distancia-cp}), fetes dins d'una finestra de temps des de la
+ * més antiga, i que caben a la bossa del repartidor (suma de quantitats de les línies).
+ * L'heurística és voraç: pren sempre la comanda sense viatge més antiga com a llavor i hi afegeix
+ * la candidata del codi postal més proper i, a igualtat, la més antiga, fins que el viatge és ple.
+ * Les comandes es llegeixen amb una sola consulta agregada i es reparteixen per codi postal, de
+ * manera que cada llavor només mira els codis postals veïns; el cost és gairebé lineal i un pla
+ * de pocs centenars de comandes es calcula en mil·lisegons.
+ * Cada pla porta un informe que el compara amb el repartiment d'una comanda per viatge.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class PlanificadorViatges {
+
+    /**
+     * Comanda a agrupar
+     * @param comandaId l'ID de la comanda
+     * @param cpLliurament el codi postal de lliurament
+     * @param dataHoraComanda quan es va fer
+     * @param unitats suma de les quantitats de les línies
+     */
+    public record ComandaViatge(Integer comandaId, String cpLliurament, LocalDateTime dataHoraComanda, int unitats) {}
+
+    /**
+     * Comandes d'un codi postal, de la més antiga a la més recent; les anteriors a l'índex
+     * d'inici ja tenen viatge
+     */
+    private static final class Zona {
+        private final List<Integer> comandes = new ArrayList<>();
+        private int inici;
+    }
+
+    private static final Comparator<ComandaViatge> PER_ANTIGUITAT = Comparator
+            .comparing(ComandaViatge::dataHoraComanda, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ComandaViatge::comandaId);
+
+    @Autowired
+    private ComandaRepository comandaRepository;
+
+    @Autowired
+    private RegistreEstats registreEstats;
+
+    @Value("${app.viatges.capacitat-bossa:12}")
+    private int capacitatBossa;
+
+    @Value("${app.viatges.maxim-comandes:4}")
+    private int maximComandes;
+
+    @Value("${app.viatges.distancia-cp:2}")
+    private int distanciaCp;
+
+    @Value("${app.viatges.finestra-minuts:20}")
+    private long finestraMinuts;
+
+    /**
+     * Planifica els viatges de les comandes que són a PREPARANT
+     * @return el pla amb l'informe
+     */
+    public PlaViatges planificar() {
+        List<ComandaViatge> comandes = new ArrayList<>();
+        for (Object[] fila : comandaRepository.findDadesViatgeByEstatId(registreEstats.getId(RegistreEstats.PREPARANT))) {
+            comandes.add(new ComandaViatge((Integer) fila[0], (String) fila[1], (LocalDateTime) fila[2],
+                    ((Number) fila[3]).intValue()));
+        }
+        return agrupar(comandes);
+    }
+
+    /**
+     * Agrupa un conjunt de comandes en viatges
+     * @param entrada les comandes, en qualsevol ordre
+     * @return el pla amb l'informe
+     */
+    public PlaViatges agrupar(List<ComandaViatge> entrada) {
+        long inici = System.nanoTime();
+        List<ComandaViatge> comandes = new ArrayList<>(entrada);
+        comandes.sort(PER_ANTIGUITAT);
+
+        Map<String, Zona> zones = new HashMap<>();
+        for (int i = 0; i < comandes.size(); i++) {
+            zones.computeIfAbsent(zona(comandes.get(i).cpLliurament()), k -> new Zona()).comandes.add(i);
+        }
+
+        Map<String, List<Zona>> veines = new HashMap<>();
+        zones.keySet().forEach(codiPostal -> veines.put(codiPostal, veines(codiPostal, zones)));
+
+        boolean[] assignades = new boolean[comandes.size()];
+        List<Viatge> viatges = new ArrayList<>();
+        for (int llavor = 0; llavor < comandes.size(); llavor++) {
+            if (assignades[llavor]) {
+                continue;
+            }
+            viatges.add(construirViatge(comandes, llavor, veines, assignades));
+        }
+
+        long micros = (System.nanoTime() - inici) / 1_000;
+        return new PlaViatges(List.copyOf(viatges), informe(comandes, viatges, micros));
+    }
+
+    // Mètodes auxiliars
+
+    /**
+     * Omple un viatge a partir de la comanda sense viatge més antiga
+     */
+    private Viatge construirViatge(List<ComandaViatge> comandes, int llavor, Map<String, List<Zona>> zonesVeines,
+                                   boolean[] assignades) {
+        ComandaViatge primera = comandes.get(llavor);
+        assignades[llavor] = true;
+        List<ComandaViatge> viatge = new ArrayList<>();
+        viatge.add(primera);
+        int unitats = primera.unitats();
+        LocalDateTime limit = primera.dataHoraComanda() != null
+                ? primera.dataHoraComanda().plusMinutes(finestraMinuts) : null;
+        List<Zona> veines = zonesVeines.get(zona(primera.cpLliurament()));
+
+        while (viatge.size() < maximComandes && unitats < capacitatBossa) {
+            int triada = -1;
+            int distanciaTriada = Integer.MAX_VALUE;
+            for (int posicio = 0; posicio < veines.size(); posicio++) {
+                int distancia = (posicio + 1) / 2;
+                Zona zona = veines.get(posicio);
+                if (distancia > distanciaTriada) {
+                    break;
+                }
+                if (zona == null) {
+                    continue;
+                }
+                int candidata = primeraQueCap(comandes, zona, assignades, limit, capacitatBossa - unitats);
+                if (candidata >= 0 && (distancia < distanciaTriada || candidata < triada)) {
+                    triada = candidata;
+                    distanciaTriada = distancia;
+                }
+            }
+            if (triada < 0) {
+                break;
+            }
+            assignades[triada] = true;
+            viatge.add(comandes.get(triada));
+            unitats += comandes.get(triada).unitats();
+        }
+
+        LinkedHashSet<String> codisPostals = new LinkedHashSet<>();
+        LocalDateTime darrera = primera.dataHoraComanda();
+        for (ComandaViatge comanda : viatge) {
+            codisPostals.add(zona(comanda.cpLliurament()));
+            if (darrera != null && comanda.dataHoraComanda() != null && comanda.dataHoraComanda().isAfter(darrera)) {
+                darrera = comanda.dataHoraComanda();
+            }
+        }
+        return new Viatge(viatge.stream().map(ComandaViatge::comandaId).toList(), List.copyOf(codisPostals),
+                unitats, primera.dataHoraComanda(), darrera);
+    }
+
+    /**
+     * La comanda més antiga de la zona, sense viatge, dins la finestra i que cap a la bossa
+     * @return l'índex de la comanda, o -1 si no n'hi ha cap
+     */
+    private static int primeraQueCap(List<ComandaViatge> comandes, Zona zona, boolean[] assignades,
+                                     LocalDateTime limit, int espai) {
+        while (zona.inici < zona.comandes.size() && assignades[zona.comandes.get(zona.inici)]) {
+            zona.inici++;
+        }
+        for (int i = zona.inici; i < zona.comandes.size(); i++) {
+            int index = zona.comandes.get(i);
+            ComandaViatge comanda = comandes.get(index);
+            if (limit != null && comanda.dataHoraComanda() != null && comanda.dataHoraComanda().isAfter(limit)) {
+                return -1;
+            }
+            if (!assignades[index] && comanda.unitats() <= espai) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Zones properes a un codi postal, de la més propera a la més llunyana: la mateixa zona i, per
+     * a cada distància, la del codi inferior i la del superior (null si no hi ha comandes o surten
+     * de la província). Només els codis numèrics de cinc xifres tenen veïns
+     */
+    private List<Zona> veines(String codiPostal, Map<String, Zona> zones) {
+        List<Zona> veines = new ArrayList<>();
+        veines.add(zones.get(codiPostal));
+        if (codiPostal.length() != 5 || !codiPostal.chars().allMatch(Character::isDigit)) {
+            return veines;
+        }
+        int numero = Integer.parseInt(codiPostal);
+        int provincia = numero / 1000;
+        for (int distancia = 1; distancia <= distanciaCp; distancia++) {
+            veines.add((numero - distancia) / 1000 == provincia && numero >= distancia
+                    ? zones.get(String.format("%05d", numero - distancia)) : null);
+            veines.add((numero + distancia) / 1000 == provincia
+                    ? zones.get(String.format("%05d", numero + distancia)) : null);
+        }
+        return veines;
+    }
+
+    private Informe informe(List<ComandaViatge> comandes, List<Viatge> viatges, long micros) {
+        long unitats = 0;
+        double ocupacioUnaComanda = 0;
+        for (ComandaViatge comanda : comandes) {
+            unitats += comanda.unitats();
+            ocupacioUnaComanda += Math.min(1.0, (double) comanda.unitats() / capacitatBossa);
+        }
+        double ocupacio = 0;
+        long esperaMaxima = 0;
+        for (Viatge viatge : viatges) {
+            ocupacio += Math.min(1.0, (double) viatge.unitats() / capacitatBossa);
+            if (viatge.primeraComanda() != null && viatge.darreraComanda() != null) {
+                esperaMaxima = Math.max(esperaMaxima,
+                        Duration.between(viatge.primeraComanda(), viatge.darreraComanda()).toMinutes());
+            }
+        }
+        int n = comandes.size();
+        int v = viatges.size();
+        return new Informe(n, v, n - v, v > 0 ? (double) n / v : 0, v > 0 ? ocupacio / v : 0,
+                n > 0 ? ocupacioUnaComanda / n : 0, esperaMaxima, micros);
+    }
+
+    private static String zona(String codiPostal) {
+        return codiPostal != null ? codiPostal.trim() : "";
+    }
+}
@@ -1,5 +1,6 @@
 package com.bicifood.api.service;
 
+import com.bicifood.api.dto.PaginaCursorDto;
 import com.bicifood.api.entity.Producte;
 import com.bicifood.api.entity.Categoria;
 import com.bicifood.api.repository.ProducteRepository;
@@ -7,15 +8,23 @@ import com.bicifood.api.repository.CategoriaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.Optional;
 
 /**
  * Service per gestionar productes
+ * Les lectures del catàleg es serveixen del snapshot en memòria de {@link CatalegProductes}
+ * sense obrir cap transacció; les escriptures el refresquen després del commit.
  * 
  * @author BiciFood Team
  * @version 1.0.0
@@ -30,14 +39,59 @@ public class ProducteService {
     @Autowired
     private CategoriaRepository categoriaRepository;
 
+    @Autowired
+    private CatalegProductes cataleg;
+
+    @Autowired
+    private RankingPopularitat rankingPopularitat;
+
     /**
      * Troba tots els productes
      * @param pageable paginació
      * @return pàgina de productes
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<Producte> findAll(Pageable pageable) {
-        return producteRepository.findAll(pageable);
+        if (!CatalegSnapshot.suportaOrdenacio(pageable.getSort())) {
+            return producteRepository.findAll(pageable);
+        }
+        return cataleg.snapshot().findAll(pageable);
+    }
+
+    /**
+     * Troba tots els productes com a Slice, sense calcular el total
+     * @param pageable paginació
+     * @return slice de productes amb l'indicador hasNext
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Slice<Producte> findAllSlice(Pageable pageable) {
+        if (!CatalegSnapshot.suportaOrdenacio(pageable.getSort())) {
+            return producteRepository.findSliceBy(pageable);
+        }
+        return comSlice(cataleg.snapshot().findAll(pageable));
+    }
+
+    /**
+     * Troba tots els productes amb paginació keyset per ID (sense COUNT ni OFFSET)
+     * @param cursor cursor retornat per la pàgina anterior, o null per a la primera
+     * @param mida nombre màxim de productes
+     * @return pàgina amb el cursor de la següent
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PaginaCursorDto<Producte> findAllKeyset(String cursor, int mida) {
+        return paginaKeyset(cataleg.snapshot().findAllDespresDe(idDelCursor(cursor), mida + 1), mida);
+    }
+
+    /**
+     * Troba productes d'una categoria amb paginació keyset per ID
+     * @param categoriaId l'ID de la categoria
+     * @param cursor cursor retornat per la pàgina anterior, o null per a la primera
+     * @param mida nombre màxim de productes
+     * @return pàgina amb el cursor de la següent
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PaginaCursorDto<Producte> findByCategoriaKeyset(Integer categoriaId, String cursor, int mida) {
+        return paginaKeyset(cataleg.snapshot().findByCategoriaDespresDe(categoriaId, idDelCursor(cursor), mida + 1), mida);
     }
 
     /**
@@ -45,9 +99,9 @@ public class ProducteService {
      * @param id l'ID del producte
      * @return Optional amb el producte si existeix
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Producte> findById(Integer id) {
-        return producteRepository.findById(id);
+        return cataleg.snapshot().findById(id);
     }
 
     /**
@@ -55,9 +109,9 @@ public class ProducteService {
      * @param nom el nom del producte
      * @return Optional amb el producte si existeix
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Producte> findByNom(String nom) {
-        return producteRepository.findByNom(nom);
+        return cataleg.snapshot().findByNom(nom);
     }
 
     /**
@@ -86,7 +140,9 @@ public class ProducteService {
             producte.setStock(0);
         }
 
-        return producteRepository.save(producte);
+        Producte nouProducte = producteRepository.save(producte);
+        cataleg.registrarCanvi(nouProducte);
+        return nouProducte;
     }
 
     /**
@@ -123,7 +179,9 @@ public class ProducteService {
             producteExistent.setStock(producteActualitzat.getStock());
         }
 
-        return producteRepository.save(producteExistent);
+        Producte producteDesat = producteRepository.save(producteExistent);
+        cataleg.registrarCanvi(producteDesat);
+        return producteDesat;
     }
 
     /**
@@ -136,6 +194,8 @@ public class ProducteService {
             throw new RuntimeException("Producte no trobat amb ID: " + id);
         }
         producteRepository.deleteById(id);
+        cataleg.registrarEliminacio(id);
+        rankingPopularitat.registrarEliminacio(id);
     }
 
     /**
@@ -144,9 +204,26 @@ public class ProducteService {
      * @param pageable paginació
      * @return pàgina de productes de la categoria
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<Producte> findByCategoria(Integer categoriaId, Pageable pageable) {
-        return producteRepository.findByCategoriaId(categoriaId, pageable);
+        if (!CatalegSnapshot.suportaOrdenacio(pageable.getSort())) {
+            return producteRepository.findByCategoriaId(categoriaId, pageable);
+        }
+        return cataleg.snapshot().findByCategoria(categoriaId, pageable);
+    }
+
+    /**
+     * Troba productes per categoria com a Slice, sense calcular el total
+     * @param categoriaId l'ID de la categoria
+     * @param pageable paginació
+     * @return slice de productes de la categoria
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Slice<Producte> findByCategoriaSlice(Integer categoriaId, Pageable pageable) {
+        if (!CatalegSnapshot.suportaOrdenacio(pageable.getSort())) {
+            return producteRepository.findSliceByCategoriaId(categoriaId, pageable);
+        }
+        return comSlice(cataleg.snapshot().findByCategoria(categoriaId, pageable));
     }
 
     /**
@@ -155,18 +232,21 @@ public class ProducteService {
      * @param pageable paginació
      * @return pàgina de productes que coincideixen
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<Producte> searchByNom(String nom, Pageable pageable) {
-        return producteRepository.findByNomContainingIgnoreCase(nom, pageable);
+        if (!CatalegSnapshot.suportaOrdenacio(pageable.getSort())) {
+            return producteRepository.findByNomContainingIgnoreCase(nom, pageable);
+        }
+        return cataleg.snapshot().findByNomContainingIgnoreCase(nom, pageable);
     }
 
     /**
      * Troba productes disponibles (amb stock > 0)
      * @return llista de productes disponibles
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Producte> findAvailableProducts() {
-        return producteRepository.findAvailableProducts();
+        return cataleg.snapshot().findAvailableProducts();
     }
 
     /**
@@ -174,18 +254,18 @@ public class ProducteService {
      * @param limit el límit de stock
      * @return llista de productes amb stock baix
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Producte> findLowStockProducts(Integer limit) {
-        return producteRepository.findLowStockProducts(limit);
+        return cataleg.snapshot().findLowStockProducts(limit);
     }
 
     /**
      * Troba productes sense stock
      * @return llista de productes sense stock
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Producte> findOutOfStockProducts() {
-        return producteRepository.findOutOfStockProducts();
+        return cataleg.snapshot().findOutOfStockProducts();
     }
 
     /**
@@ -195,9 +275,27 @@ public class ProducteService {
      * @param pageable paginació
      * @return pàgina de productes en el rang de preus
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<Producte> findByPreuRange(BigDecimal minPreu, BigDecimal maxPreu, Pageable pageable) {
-        return producteRepository.findByPreuBetween(minPreu, maxPreu, pageable);
+        if (!CatalegSnapshot.suportaOrdenacio(pageable.getSort())) {
+            return producteRepository.findByPreuBetween(minPreu, maxPreu, pageable);
+        }
+        return cataleg.snapshot().findByPreuBetween(minPreu, maxPreu, pageable);
+    }
+
+    /**
+     * Troba productes per rang de preus com a Slice, sense calcular el total
+     * @param minPreu preu mínim
+     * @param maxPreu preu màxim
+     * @param pageable paginació
+     * @return slice de productes en el rang de preus
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Slice<Producte> findByPreuRangeSlice(BigDecimal minPreu, BigDecimal maxPreu, Pageable pageable) {
+        if (!CatalegSnapshot.suportaOrdenacio(pageable.getSort())) {
+            return producteRepository.findSliceByPreuBetween(minPreu, maxPreu, pageable);
+        }
+        return comSlice(cataleg.snapshot().findByPreuBetween(minPreu, maxPreu, pageable));
     }
 
     /**
@@ -206,22 +304,43 @@ public class ProducteService {
      * @param pageable paginació
      * @return pàgina de productes ordenats per preu
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<Producte> findAllOrderByPreu(boolean ascending, Pageable pageable) {
-        return ascending ? 
-               producteRepository.findAllByOrderByPreuAsc(pageable) : 
-               producteRepository.findAllByOrderByPreuDesc(pageable);
+        if (pageable.getSort().isSorted()) {
+            return ascending ? 
+                   producteRepository.findAllByOrderByPreuAsc(pageable) : 
+                   producteRepository.findAllByOrderByPreuDesc(pageable);
+        }
+        return cataleg.snapshot().findAllOrderByPreu(ascending, pageable);
     }
 
     /**
-     * Cerca productes globalment (nom i descripció)
+     * Cerca productes globalment (nom i descripció) amb l'índex invertit del catàleg,
+     * ignorant accents i ordenant per rellevància
      * @param searchTerm terme de cerca
      * @param pageable paginació
      * @return pàgina de productes que coincideixen
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<Producte> searchProducts(String searchTerm, Pageable pageable) {
-        return producteRepository.searchProducts(searchTerm, pageable);
+        if (!CatalegSnapshot.suportaOrdenacio(pageable.getSort())) {
+            return producteRepository.searchProducts(searchTerm, pageable);
+        }
+        return cataleg.snapshot().searchProducts(searchTerm, pageable);
+    }
+
+    /**
+     * Cerca productes globalment com a Slice, sense calcular el total
+     * @param searchTerm terme de cerca
+     * @param pageable paginació
+     * @return slice de productes que coincideixen
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Slice<Producte> searchProductsSlice(String searchTerm, Pageable pageable) {
+        if (!CatalegSnapshot.suportaOrdenacio(pageable.getSort())) {
+            return producteRepository.searchProductsSlice(searchTerm, pageable);
+        }
+        return comSlice(cataleg.snapshot().searchProducts(searchTerm, pageable));
     }
 
     /**
@@ -239,36 +358,65 @@ public class ProducteService {
         }
 
         producte.setStock(nouStock);
-        return producteRepository.save(producte);
+        Producte producteDesat = producteRepository.save(producte);
+        cataleg.registrarCanvi(producteDesat);
+        return producteDesat;
     }
 
     /**
-     * Redueix l'stock d'un producte (per vendes)
+     * Redueix l'stock d'un producte (per vendes) amb un UPDATE condicional atòmic,
+     * de manera que dues vendes concurrents no poden perdre cap actualització
      * @param id l'ID del producte
      * @param quantitat la quantitat a restar
      * @return el producte actualitzat
      */
     public Producte reduirStock(Integer id, Integer quantitat) {
-        Producte producte = producteRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Producte no trobat amb ID: " + id));
-
-        Integer stockActual = producte.getStock();
-        if (stockActual < quantitat) {
+        if (producteRepository.decrementarStock(id, quantitat) == 0) {
+            Integer stockActual = producteRepository.findStockById(id)
+                    .orElseThrow(() -> new RuntimeException("Producte no trobat amb ID: " + id));
             throw new RuntimeException("Stock insuficient. Disponible: " + stockActual + ", Sol·licitat: " + quantitat);
         }
+        cataleg.registrarVariacioStock(id, -quantitat);
 
-        producte.setStock(stockActual - quantitat);
-        return producteRepository.save(producte);
+        return producteRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Producte no trobat amb ID: " + id));
     }
 
     /**
-     * Troba productes més populars
-     * @param pageable paginació
-     * @return llista de productes més populars
+     * Redueix l'stock de tots els productes d'una comanda amb un UPDATE condicional per producte.
+     * Els productes es processen en ordre d'ID perquè comandes concurrents no es bloquegin
+     * mútuament. Si hi ha fallides, el cridant ha d'avortar la transacció per desfer la resta.
+     * @param quantitats quantitat a restar per ID de producte
+     * @return el resultat, amb les fallides per producte si n'hi ha
+     */
+    public ResultatDescompteStock descomptarStock(Map<Integer, Integer> quantitats) {
+        List<ResultatDescompteStock.Fallida> fallides = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entrada : new TreeMap<>(quantitats).entrySet()) {
+            Integer id = entrada.getKey();
+            int quantitat = entrada.getValue();
+            if (producteRepository.decrementarStock(id, quantitat) == 1) {
+                cataleg.registrarVariacioStock(id, -quantitat);
+            } else {
+                fallides.add(new ResultatDescompteStock.Fallida(id, quantitat,
+                        producteRepository.findStockById(id).orElse(null)));
+            }
+        }
+        return new ResultatDescompteStock(fallides);
+    }
+
+    /**
+     * Troba productes més populars a partir del rànquing en memòria, sense consultar les línies de comanda
+     * @param limit número màxim de resultats (com a molt {@link RankingPopularitat#MIDA_TOP})
+     * @return llista de productes ordenats per quantitat venuda
      */
-    @Transactional(readOnly = true)
-    public List<Producte> findMostPopularProducts(Pageable pageable) {
-        return producteRepository.findMostPopularProducts(pageable);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Producte> findMostPopularProducts(int limit) {
+        CatalegSnapshot snapshot = cataleg.snapshot();
+        List<Producte> productes = new ArrayList<>();
+        for (Integer id : rankingPopularitat.top(limit)) {
+            snapshot.findById(id).ifPresent(productes::add);
+        }
+        return productes;
     }
 
     /**
@@ -276,9 +424,9 @@ public class ProducteService {
      * @param categoriaId l'ID de la categoria
      * @return llista de productes disponibles de la categoria
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Producte> findAvailableProductsByCategory(Integer categoriaId) {
-        return producteRepository.findAvailableProductsByCategory(categoriaId);
+        return cataleg.snapshot().findAvailableProductsByCategory(categoriaId);
     }
 
     /**
@@ -286,8 +434,28 @@ public class ProducteService {
      * @param nom el nom a verificar
      * @return true si existeix, false altrament
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean existsByNom(String nom) {
-        return producteRepository.existsByNom(nom);
+        return cataleg.snapshot().existsByNom(nom);
+    }
+
+    // Mètodes auxiliars
+
+    private static <T> Slice<T> comSlice(Page<T> pagina) {
+        return new SliceImpl<>(pagina.getContent(), pagina.getPageable(), pagina.hasNext());
+    }
+
+    private static Integer idDelCursor(String cursor) {
+        CursorKeyset.Posicio posicio = CursorKeyset.descodificar(cursor);
+        return posicio != null ? posicio.id() : null;
+    }
+
+    private static PaginaCursorDto<Producte> paginaKeyset(List<Producte> productes, int mida) {
+        if (productes.size() <= mida) {
+            return new PaginaCursorDto<>(productes, null);
+        }
+        List<Producte> pagina = productes.subList(0, mida);
+        Producte darrer = pagina.get(mida - 1);
+        return new PaginaCursorDto<>(pagina, CursorKeyset.codificar(darrer.getId(), darrer.getId()));
     }
-}
\ No newline at end of file
+}
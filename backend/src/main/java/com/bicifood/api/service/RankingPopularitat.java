@@ -0,0 +1,143 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.repository.LiniaComandaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Rànquing de popularitat de productes mantingut en memòria.
+ * Guarda la quantitat venuda de cada producte, que s'actualitza quan una comanda fa commit
+ * i es reverteix quan s'elimina, i publica una llista immutable amb els més venuts.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class RankingPopularitat {
+
+    /** Nombre màxim de productes que es poden demanar al rànquing */
+    public static final int MIDA_TOP = 100;
+
+    @Autowired
+    private LiniaComandaRepository liniaComandaRepository;
+
+    private final Map<Integer, Long> quantitats = new HashMap<>();
+
+    private final TreeSet<Entrada> ordenats = new TreeSet<>();
+
+    private volatile List<Integer> top = List.of();
+
+    private record Entrada(int producteId, long quantitat) implements Comparable<Entrada> {
+        @Override
+        public int compareTo(Entrada altra) {
+            int perQuantitat = Long.compare(altra.quantitat, quantitat);
+            return perQuantitat != 0 ? perQuantitat : Integer.compare(producteId, altra.producteId);
+        }
+    }
+
+    /**
+     * Carrega les quantitats venudes amb una única agregació quan l'aplicació està llesta
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void carregar() {
+        quantitats.clear();
+        ordenats.clear();
+        for (Object[] fila : liniaComandaRepository.sumQuantitatsPerProducte()) {
+            actualitzar((Integer) fila[0], ((Number) fila[1]).longValue());
+        }
+        publicar();
+    }
+
+    /**
+     * Obté els IDs dels productes més venuts
+     * @param limit nombre màxim de resultats (com a molt {@link #MIDA_TOP})
+     * @return IDs ordenats per quantitat venuda descendent
+     */
+    public List<Integer> top(int limit) {
+        List<Integer> actual = top;
+        return actual.subList(0, Math.max(0, Math.min(limit, actual.size())));
+    }
+
+    /**
+     * Registra les quantitats d'una comanda nova; s'apliquen quan la transacció fa commit
+     * @param quantitatsPerProducte quantitat venuda per ID de producte
+     */
+    public void registrarVenda(Map<Integer, Integer> quantitatsPerProducte) {
+        despresDelCommit(() -> aplicar(quantitatsPerProducte, 1));
+    }
+
+    /**
+     * Reverteix les quantitats d'una comanda eliminada quan la transacció fa commit
+     * @param quantitatsPerProducte quantitat retornada per ID de producte
+     */
+    public void registrarCancellacio(Map<Integer, Integer> quantitatsPerProducte) {
+        despresDelCommit(() -> aplicar(quantitatsPerProducte, -1));
+    }
+
+    /**
+     * Treu un producte eliminat del rànquing quan la transacció fa commit
+     * @param producteId l'ID del producte
+     */
+    public void registrarEliminacio(Integer producteId) {
+        despresDelCommit(() -> {
+            synchronized (this) {
+                actualitzar(producteId, 0);
+                publicar();
+            }
+        });
+    }
+
+    // Mètodes auxiliars
+
+    private synchronized void aplicar(Map<Integer, Integer> quantitatsPerProducte, int signe) {
+        quantitatsPerProducte.forEach((producteId, quantitat) ->
+                actualitzar(producteId, quantitats.getOrDefault(producteId, 0L) + (long) signe * quantitat));
+        publicar();
+    }
+
+    private void actualitzar(Integer producteId, long novaQuantitat) {
+        Long anterior = quantitats.remove(producteId);
+        if (anterior != null) {
+            ordenats.remove(new Entrada(producteId, anterior));
+        }
+        if (novaQuantitat > 0) {
+            quantitats.put(producteId, novaQuantitat);
+            ordenats.add(new Entrada(producteId, novaQuantitat));
+        }
+    }
+
+    private void publicar() {
+        List<Integer> nou = new ArrayList<>(Math.min(MIDA_TOP, ordenats.size()));
+        for (Entrada entrada : ordenats) {
+            if (nou.size() == MIDA_TOP) {
+                break;
+            }
+            nou.add(entrada.producteId());
+        }
+        top = Collections.unmodifiableList(nou);
+    }
+
+    private static void despresDelCommit(Runnable accio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accio.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,227 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Comanda;
+import com.bicifood.api.entity.LiniaComanda;
+import com.bicifood.api.model.SeguimentComanda;
+import com.bicifood.api.model.SeguimentComanda.Estat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recepció asíncrona de comandes.
+ * Les peticions validades es posen en una cua acotada i es responen de seguida amb un
+ * identificador de seguiment; un grup fix de fils virtuals les treu de la cua i les passa a
+ * l'{@link EscriptorComandes}, que les escriu en grups. El nombre de treballadors limita quantes
+ * comandes poden formar part d'un mateix grup, i quan la cua és plena les peticions es rebutgen
+ * en lloc de bloquejar fils del servidor web.
+ * En aturar-se deixa d'acceptar peticions i acaba les que ja ha respost amb 202 abans que es
+ * tanqui l'escriptor: cada treballador surt quan troba la marca de final darrere de la cua.
+ * L'estat d'una petició el decideix sempre el resultat de l'escriptor, mai el treballador.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class RecepcioComandes {
+
+    private record Peticio(String id, Comanda comanda, List<LiniaComanda> linies, String reservaId, long encuadaNanos) {}
+
+    /** Marca de final: un treballador que la treu de la cua acaba */
+    private static final Peticio FINAL = new Peticio(null, null, List.of(), null, 0);
+
+    @Autowired
+    private EscriptorComandes escriptorComandes;
+
+    @Autowired
+    private CatalegProductes cataleg;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.recepcio.capacitat-cua:500}")
+    private int capacitatCua;
+
+    @Value("${app.recepcio.treballadors:64}")
+    private int treballadors;
+
+    @Value("${app.recepcio.retencio-segons:3600}")
+    private long retencioSegons;
+
+    @Value("${app.recepcio.espera-aturada-segons:30}")
+    private long esperaAturadaSegons;
+
+    private BlockingQueue<Peticio> cua;
+
+    private final ConcurrentHashMap<String, SeguimentComanda> seguiments = new ConcurrentHashMap<>();
+
+    private final List<Thread> fils = new ArrayList<>();
+
+    private volatile boolean acceptant = true;
+
+    private Timer espera;
+    private Timer processament;
+    private Counter rebutjades;
+    private Counter fallides;
+
+    @PostConstruct
+    public void iniciar() {
+        cua = new ArrayBlockingQueue<>(capacitatCua);
+        Gauge.builder("bicifood.comandes.cua.mida", cua, BlockingQueue::size)
+                .description("Peticions de comanda pendents a la cua")
+                .register(meterRegistry);
+        espera = Timer.builder("bicifood.comandes.cua.espera")
+                .description("Temps que una petició passa a la cua abans de processar-se")
+                .register(meterRegistry);
+        processament = Timer.builder("bicifood.comandes.processament")
+                .description("Temps des que es treu de la cua fins que la comanda queda escrita")
+                .register(meterRegistry);
+        rebutjades = Counter.builder("bicifood.comandes.cua.rebutjades")
+                .description("Peticions rebutjades perquè la cua era plena")
+                .register(meterRegistry);
+        fallides = Counter.builder("bicifood.comandes.fallides")
+                .description("Peticions processades que no han pogut crear la comanda")
+                .register(meterRegistry);
+
+        for (int i = 0; i < treballadors; i++) {
+            fils.add(Thread.ofVirtual().name("recepcio-comandes-" + i).start(this::treballar));
+        }
+    }
+
+    /**
+     * Deixa d'acceptar peticions i espera, fins al temps màxim configurat, que els treballadors
+     * buidin la cua. L'escriptor depèn d'aquest component i encara funciona mentre s'atura
+     */
+    @PreDestroy
+    public void aturar() throws InterruptedException {
+        acceptant = false;
+        long limit = System.nanoTime() + TimeUnit.SECONDS.toNanos(esperaAturadaSegons);
+        for (int i = 0; i < fils.size(); i++) {
+            if (!cua.offer(FINAL, limit - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                break;
+            }
+        }
+        for (Thread fil : fils) {
+            fil.join(Duration.ofNanos(Math.max(1, limit - System.nanoTime())));
+        }
+
+        // Peticions que no s'han arribat a enviar a l'escriptor (temps esgotat o encuades en l'últim moment)
+        Peticio pendent;
+        while ((pendent = cua.poll()) != null) {
+            if (pendent != FINAL) {
+                fallides.increment();
+                seguiments.computeIfPresent(pendent.id(), (id, s) ->
+                        s.amb(Estat.FALLIDA, null, "Servei aturat abans de processar la petició"));
+            }
+        }
+    }
+
+    /**
+     * Valida una comanda amb el catàleg en memòria i la posa a la cua
+     * @param comanda la comanda (client i adreça)
+     * @param linies les línies de la comanda
+     * @param reservaId l'ID de la reserva d'stock, o null
+     * @return el seguiment inicial, o buit si la cua és plena o el servei s'està aturant
+     * @throws RuntimeException si alguna línia fa referència a un producte inexistent
+     */
+    public Optional<SeguimentComanda> encuar(Comanda comanda, List<LiniaComanda> linies, String reservaId) {
+        if (!acceptant) {
+            return Optional.empty();
+        }
+        CatalegSnapshot snapshot = cataleg.snapshot();
+        for (LiniaComanda linia : linies) {
+            if (snapshot.findById(linia.getProducte().getId()).isEmpty()) {
+                throw new RuntimeException("Producte no trobat amb ID: " + linia.getProducte().getId());
+            }
+        }
+
+        String id = UUID.randomUUID().toString();
+        SeguimentComanda seguiment = new SeguimentComanda(id, Estat.EN_CUA, null, null, System.currentTimeMillis());
+        seguiments.put(id, seguiment);
+        if (!cua.offer(new Peticio(id, comanda, linies, reservaId, System.nanoTime()))) {
+            seguiments.remove(id);
+            rebutjades.increment();
+            return Optional.empty();
+        }
+        return Optional.of(seguiment);
+    }
+
+    /**
+     * Obté el seguiment d'una petició
+     * @param id l'identificador de seguiment
+     * @return Optional amb el seguiment si encara es recorda
+     */
+    public Optional<SeguimentComanda> findById(String id) {
+        return Optional.ofNullable(seguiments.get(id));
+    }
+
+    /**
+     * Oblida els seguiments finalitzats fa més del temps de retenció
+     */
+    @Scheduled(fixedRate = 60_000)
+    public void purgar() {
+        long limit = System.currentTimeMillis() - retencioSegons * 1000;
+        seguiments.values().removeIf(seguiment -> seguiment.isFinalitzat() && seguiment.actualitzatMillis() < limit);
+    }
+
+    // Mètodes auxiliars
+
+    private void treballar() {
+        while (true) {
+            Peticio peticio;
+            try {
+                peticio = cua.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (peticio == FINAL) {
+                return;
+            }
+            espera.record(System.nanoTime() - peticio.encuadaNanos(), TimeUnit.NANOSECONDS);
+            processar(peticio);
+        }
+    }
+
+    /**
+     * Envia la petició a l'escriptor i espera que acabi; el seguiment s'actualitza amb el
+     * resultat de l'escriptor, de manera que una comanda que s'arriba a escriure mai no queda
+     * com a FALLIDA
+     */
+    private void processar(Peticio peticio) {
+        seguiments.computeIfPresent(peticio.id(), (id, s) -> s.amb(Estat.PROCESSANT, null, null));
+        long inici = System.nanoTime();
+        CompletableFuture<Comanda> resultat = escriptorComandes.enviar(peticio.comanda(), peticio.linies(), peticio.reservaId());
+        resultat.whenComplete((comanda, error) -> {
+            processament.record(System.nanoTime() - inici, TimeUnit.NANOSECONDS);
+            if (error == null) {
+                seguiments.computeIfPresent(peticio.id(), (id, s) -> s.amb(Estat.COMPLETADA, comanda.getId(), null));
+            } else {
+                Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                fallides.increment();
+                seguiments.computeIfPresent(peticio.id(), (id, s) -> s.amb(Estat.FALLIDA, null, causa.getMessage()));
+            }
+        });
+        // Esperar sense deixar-se interrompre: el nombre de treballadors limita les comandes en curs
+        resultat.handle((comanda, error) -> null).join();
+    }
+}
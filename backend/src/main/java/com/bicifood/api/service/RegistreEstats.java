@@ -0,0 +1,163 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.EstatComanda;
+import com.bicifood.api.repository.EstatComandaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Registre en memòria dels estats de comanda i del seu graf de transicions.
+ * Les files d'{@code estat_comanda} es llegeixen una sola vegada; a partir d'aquí obtenir un
+ * estat, comprovar-lo o validar un canvi d'estat no fa cap consulta. Les consultes de llistats
+ * filtren per l'ID de l'estat que dona aquest registre en lloc del nom.
+ * Els estats són una taula de referència que l'aplicació no modifica, per això no cal invalidar-lo.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class RegistreEstats {
+
+    public static final String PENDENT = "PENDENT";
+    public static final String PREPARANT = "PREPARANT";
+    public static final String EN_RUTA = "EN RUTA";
+    public static final String LLIURADA = "LLIURADA";
+
+    /**
+     * Graf de transicions permeses, per nom d'estat
+     */
+    private static final Map<String, Set<String>> TRANSICIONS = Map.of(
+            PENDENT, Set.of(PREPARANT),
+            PREPARANT, Set.of(EN_RUTA),
+            EN_RUTA, Set.of(LLIURADA),
+            LLIURADA, Set.of());
+
+    private record Estats(Map<String, EstatComanda> perNom, Map<Integer, EstatComanda> perId,
+                          Map<Integer, Set<Integer>> transicions) {}
+
+    @Autowired
+    private EstatComandaRepository estatComandaRepository;
+
+    private volatile Estats estats;
+
+    /**
+     * Carrega els estats quan l'aplicació està llesta
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        estats();
+    }
+
+    /**
+     * Obté un estat pel seu nom
+     * @param nom el nom de l'estat (p. ex. {@link #PENDENT})
+     * @return l'estat
+     * @throws RuntimeException si no existeix
+     */
+    public EstatComanda get(String nom) {
+        EstatComanda estat = estats().perNom().get(nom);
+        if (estat == null) {
+            throw new RuntimeException("Estat " + nom + " no trobat");
+        }
+        return estat;
+    }
+
+    /**
+     * Obté l'ID d'un estat pel seu nom
+     * @param nom el nom de l'estat
+     * @return l'ID de l'estat
+     */
+    public Integer getId(String nom) {
+        return get(nom).getId();
+    }
+
+    /**
+     * Troba un estat pel seu ID
+     * @param id l'ID de l'estat
+     * @return Optional amb l'estat si existeix
+     */
+    public Optional<EstatComanda> findById(Integer id) {
+        return Optional.ofNullable(estats().perId().get(id));
+    }
+
+    /**
+     * @return tots els estats
+     */
+    public List<EstatComanda> findAll() {
+        return List.copyOf(estats().perId().values());
+    }
+
+    /**
+     * Comprova si un estat té un nom donat, sense consultar la base de dades
+     * @param estat l'estat a comprovar
+     * @param nom el nom esperat
+     * @return true si l'estat és el del nom
+     */
+    public boolean es(EstatComanda estat, String nom) {
+        return estat != null && getId(nom).equals(estat.getId());
+    }
+
+    /**
+     * Comprova si el graf permet passar d'un estat a un altre
+     * @param de l'estat actual
+     * @param a l'estat de destinació
+     * @return true si la transició és permesa
+     */
+    public boolean potTransicionar(EstatComanda de, EstatComanda a) {
+        return estats().transicions().getOrDefault(de.getId(), Set.of()).contains(a.getId());
+    }
+
+    /**
+     * Valida una transició
+     * @param de l'estat actual
+     * @param a l'estat de destinació
+     * @throws RuntimeException si el graf no la permet
+     */
+    public void comprovarTransicio(EstatComanda de, EstatComanda a) {
+        if (!potTransicionar(de, a)) {
+            throw new RuntimeException("Transició d'estat no permesa: " + de.getNom() + " -> " + a.getNom());
+        }
+    }
+
+    // Mètodes auxiliars
+
+    private Estats estats() {
+        Estats actuals = estats;
+        return actuals != null ? actuals : carregarEstats();
+    }
+
+    private synchronized Estats carregarEstats() {
+        if (estats != null) {
+            return estats;
+        }
+        Map<String, EstatComanda> perNom = new HashMap<>();
+        Map<Integer, EstatComanda> perId = new HashMap<>();
+        for (EstatComanda estat : estatComandaRepository.findAll()) {
+            perNom.put(estat.getNom(), estat);
+            perId.put(estat.getId(), estat);
+        }
+
+        // Traduir el graf a IDs; tots els estats declarats han d'existir
+        Map<Integer, Set<Integer>> transicions = new HashMap<>();
+        TRANSICIONS.forEach((de, destins) -> {
+            EstatComanda origen = perNom.get(de);
+            if (origen == null) {
+                throw new RuntimeException("Estat " + de + " no trobat a estat_comanda");
+            }
+            transicions.put(origen.getId(), Set.copyOf(destins.stream()
+                    .map(desti -> perNom.get(desti).getId())
+                    .toList()));
+        });
+
+        estats = new Estats(Map.copyOf(perNom), Map.copyOf(perId), Map.copyOf(transicions));
+        return estats;
+    }
+}
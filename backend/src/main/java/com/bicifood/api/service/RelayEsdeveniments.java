@@ -0,0 +1,273 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.EsdevenimentComanda;
+import com.bicifood.api.entity.PosicioSubscriptor;
+import com.bicifood.api.repository.EsdevenimentComandaRepository;
+import com.bicifood.api.repository.PosicioSubscriptorRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Relay de l'outbox de comandes.
+ * Llegeix periòdicament els esdeveniments nous de la taula {@code esdeveniment_comanda} en lots
+ * i els entrega a cada {@link SubscriptorEsdevenimentsComanda}. Cada subscriptor té la seva
+ * posició (el darrer ID confirmat) desada a la base de dades, de manera que després d'un reinici
+ * o d'una fallada es reprèn on s'havia quedat i un subscriptor que falla no fa repetir els
+ * esdeveniments als altres.
+ * Els IDs es reserven en fer el persist però les transaccions poden fer commit en un altre
+ * ordre: un ID que falta entre els esdeveniments llegits (un buit) pot ser d'una transacció que
+ * encara no ha fet commit. El relay no s'hi atura: recorda els buits, com a rangs d'IDs i sigui
+ * quina sigui la seva mida (les operacions massives i els blocs de la seqüència poden deixar-ne
+ * de molt grans), i els torna a consultar a cada cicle; si un esdeveniment hi apareix,
+ * s'entrega als subscriptors que ja l'havien deixat enrere.
+ * Un buit que no s'omple en {@code app.outbox.espera-buit-ms} (una transacció desfeta o IDs de
+ * la seqüència que no s'han fet servir) s'abandona. La posició desada no passa mai del primer
+ * buit obert, de manera que després d'un reinici els buits es tornen a vigilar.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class RelayEsdeveniments {
+
+    /**
+     * Rang d'IDs que falten, des de la clau del mapa fins a {@code fi} inclòs
+     * @param fi el darrer ID del rang
+     * @param detectat l'instant en què es va detectar
+     */
+    private record Buit(long fi, long detectat) {}
+
+    @Autowired
+    private EsdevenimentComandaRepository esdevenimentRepository;
+
+    @Autowired
+    private PosicioSubscriptorRepository posicioRepository;
+
+    @Autowired
+    private List<SubscriptorEsdevenimentsComanda> subscriptors;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.outbox.mida-lot:200}")
+    private int midaLot;
+
+    @Value("${app.outbox.espera-buit-ms:60000}")
+    private long esperaBuitMs;
+
+    @Value("${app.outbox.retencio-hores:24}")
+    private long retencioHores;
+
+    private final Map<String, Long> posicions = new ConcurrentHashMap<>();
+
+    /** Rangs d'IDs que falten entre els esdeveniments llegits, pel primer ID de cada rang */
+    private final TreeMap<Long, Buit> buits = new TreeMap<>();
+
+    /** ID més alt llegit; els buits es detecten per sota d'aquest valor */
+    private long darrerLlegit;
+
+    private Counter buitsAbandonats;
+
+    private volatile boolean preparat;
+
+    /**
+     * Carrega la posició de represa de cada subscriptor
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarPosicions() {
+        for (SubscriptorEsdevenimentsComanda subscriptor : subscriptors) {
+            Long posicio = posicioRepository.findById(subscriptor.getNom())
+                    .map(PosicioSubscriptor::getDarrerEsdevenimentId)
+                    .orElse(0L);
+            posicions.put(subscriptor.getNom(), posicio);
+        }
+        darrerLlegit = posicions.values().stream().mapToLong(Long::longValue).min().orElse(0L);
+        buitsAbandonats = Counter.builder("bicifood.outbox.buits.abandonats")
+                .description("IDs de l'outbox que no han aparegut dins el temps d'espera")
+                .register(meterRegistry);
+        preparat = true;
+    }
+
+    /**
+     * Publica els esdeveniments dels buits que ja han aparegut i els pendents; continua llegint
+     * lots mentre n'hi hagi de complets
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.interval-ms:500}")
+    public synchronized void publicar() {
+        if (!preparat || subscriptors.isEmpty()) {
+            return;
+        }
+        if (!buits.isEmpty() && !recuperarBuits()) {
+            return;
+        }
+        List<EsdevenimentComanda> lot;
+        do {
+            long minim = posicions.values().stream().mapToLong(Long::longValue).min().orElse(0L);
+            lot = esdevenimentRepository.findSeguents(minim, PageRequest.of(0, midaLot));
+            registrarBuits(lot);
+            if (!lot.isEmpty() && !entregar(lot, true)) {
+                return;
+            }
+        } while (lot.size() == midaLot);
+    }
+
+    /**
+     * Elimina els esdeveniments que tots els subscriptors ja han rebut
+     */
+    @Scheduled(fixedRate = 3_600_000)
+    public void purgar() {
+        if (!preparat) {
+            return;
+        }
+        long minim = posicions.values().stream().mapToLong(Long::longValue).min().orElse(0L);
+        esdevenimentRepository.deletePublicats(minim, LocalDateTime.now().minusHours(retencioHores));
+    }
+
+    /**
+     * @param nom el nom del subscriptor
+     * @return l'ID del darrer esdeveniment que ha confirmat, o 0
+     */
+    public long getPosicio(String nom) {
+        return posicions.getOrDefault(nom, 0L);
+    }
+
+    // Mètodes auxiliars
+
+    /**
+     * Abandona els buits massa antics i entrega els esdeveniments dels que ja han aparegut
+     * @return false si algun subscriptor ha fallat
+     */
+    private boolean recuperarBuits() {
+        long limit = System.currentTimeMillis() - esperaBuitMs;
+        Iterator<Map.Entry<Long, Buit>> rangs = buits.entrySet().iterator();
+        while (rangs.hasNext()) {
+            Map.Entry<Long, Buit> rang = rangs.next();
+            if (rang.getValue().detectat() < limit) {
+                buitsAbandonats.increment(rang.getValue().fi() - rang.getKey() + 1);
+                rangs.remove();
+            }
+        }
+        List<EsdevenimentComanda> aparegut = new ArrayList<>();
+        buits.forEach((inici, buit) -> aparegut.addAll(esdevenimentRepository.findEntre(inici, buit.fi())));
+        if (aparegut.isEmpty()) {
+            return true;
+        }
+        return entregar(aparegut, false);
+    }
+
+    /**
+     * Afegeix als buits els rangs d'IDs que falten entre el darrer llegit i els esdeveniments del lot
+     */
+    private void registrarBuits(List<EsdevenimentComanda> lot) {
+        long ara = System.currentTimeMillis();
+        for (EsdevenimentComanda esdeveniment : lot) {
+            long id = esdeveniment.getId();
+            if (id > darrerLlegit + 1) {
+                buits.put(darrerLlegit + 1, new Buit(id - 1, ara));
+            }
+            darrerLlegit = Math.max(darrerLlegit, id);
+        }
+    }
+
+    /**
+     * Treu un ID dels buits, partint el rang que el conté
+     * @return true si l'ID era d'un buit
+     */
+    private boolean omplirBuit(long id) {
+        Map.Entry<Long, Buit> rang = buits.floorEntry(id);
+        if (rang == null || rang.getValue().fi() < id) {
+            return false;
+        }
+        Buit buit = rang.getValue();
+        buits.remove(rang.getKey());
+        if (rang.getKey() < id) {
+            buits.put(rang.getKey(), new Buit(id - 1, buit.detectat()));
+        }
+        if (id < buit.fi()) {
+            buits.put(id + 1, buit);
+        }
+        return true;
+    }
+
+    /**
+     * Entrega el lot a cada subscriptor; els esdeveniments d'un buit s'entreguen als subscriptors
+     * que ja l'havien deixat enrere
+     * @param lot esdeveniments en ordre d'ID
+     * @param llegit true si el lot és la lectura consecutiva des de la posició mínima: els
+     *               posteriors a cada posició s'entreguen i la fan avançar
+     * @return false si algun subscriptor ha fallat (es tornarà a provar al proper cicle)
+     */
+    private boolean entregar(List<EsdevenimentComanda> lot, boolean llegit) {
+        Set<Long> tardans = new HashSet<>();
+        for (EsdevenimentComanda esdeveniment : lot) {
+            if (omplirBuit(esdeveniment.getId())) {
+                tardans.add(esdeveniment.getId());
+            }
+        }
+        boolean correcte = true;
+        for (SubscriptorEsdevenimentsComanda subscriptor : subscriptors) {
+            long posicio = posicions.get(subscriptor.getNom());
+            List<EsdevenimentComanda> nous = new ArrayList<>(lot.size());
+            for (EsdevenimentComanda esdeveniment : lot) {
+                long id = esdeveniment.getId();
+                if (id > posicio ? llegit : tardans.contains(id)) {
+                    nous.add(esdeveniment);
+                }
+            }
+            if (nous.isEmpty()) {
+                continue;
+            }
+            try {
+                subscriptor.rebre(nous);
+            } catch (RuntimeException e) {
+                Counter.builder("bicifood.outbox.errors")
+                        .description("Lots que un subscriptor no ha pogut processar")
+                        .tag("subscriptor", subscriptor.getNom())
+                        .register(meterRegistry)
+                        .increment();
+                correcte = false;
+                // Els tardans que ja havia deixat enrere es tornaran a llegir des de la seva posició
+                long primer = nous.get(0).getId();
+                if (primer <= posicio) {
+                    desarPosicio(subscriptor.getNom(), primer - 1);
+                }
+                continue;
+            }
+            if (llegit) {
+                desarPosicio(subscriptor.getNom(), Math.max(posicio, nous.get(nous.size() - 1).getId()));
+            }
+            Counter.builder("bicifood.outbox.entregats")
+                    .description("Esdeveniments de comanda entregats a un subscriptor")
+                    .tag("subscriptor", subscriptor.getNom())
+                    .register(meterRegistry)
+                    .increment(nous.size());
+        }
+        return correcte;
+    }
+
+    /**
+     * Actualitza la posició d'un subscriptor; a la base de dades no passa del primer buit obert
+     */
+    private void desarPosicio(String nom, long posicio) {
+        posicions.put(nom, posicio);
+        long represa = buits.isEmpty() ? posicio : Math.min(posicio, buits.firstKey() - 1);
+        posicioRepository.save(new PosicioSubscriptor(nom, represa));
+    }
+}
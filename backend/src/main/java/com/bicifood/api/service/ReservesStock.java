@@ -0,0 +1,234 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Producte;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reserves temporals d'stock durant el checkout, mantingudes en memòria.
+ * Mentre el client paga, les unitats reservades no es poden vendre a ningú més, però
+ * la fila de producte no es toca: cada producte té un comptador atòmic d'unitats
+ * reservades que s'actualitza amb CAS, sense bloquejos. L'stock real només es descompta
+ * quan la reserva es converteix en comanda. Les comandes sense reserva retenen les seves
+ * unitats al mateix comptador mentre dura la transacció. Les reserves no confirmades caduquen
+ * amb una {@link RodaExpiracions}.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class ReservesStock {
+
+    /** Durada d'un tic de la roda de caducitats */
+    private static final long TIC_MILLIS = 1000;
+
+    /** Caselles de la roda: una volta sencera dura uns 8,5 minuts */
+    private static final int CASELLES = 512;
+
+    /**
+     * Una reserva activa
+     * @param id identificador opac de la reserva
+     * @param quantitats unitats reservades per ID de producte
+     * @param expiraMillis instant de caducitat en mil·lisegons d'època
+     */
+    public record Reserva(String id, Map<Integer, Integer> quantitats, long expiraMillis) {}
+
+    @Autowired
+    private CatalegProductes cataleg;
+
+    @Value("${app.reserves.ttl-segons:600}")
+    private long ttlSegons;
+
+    private final ConcurrentHashMap<Integer, AtomicInteger> reservat = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Reserva> reserves = new ConcurrentHashMap<>();
+
+    private final RodaExpiracions<Reserva> roda = new RodaExpiracions<>(TIC_MILLIS, CASELLES);
+
+    /**
+     * Reserva unitats de diversos productes; o es reserven totes o cap
+     * @param quantitats quantitat a reservar per ID de producte
+     * @return la reserva creada
+     * @throws RuntimeException si algun producte no existeix o no té prou stock lliure
+     */
+    public Reserva reservar(Map<Integer, Integer> quantitats) {
+        CatalegSnapshot snapshot = cataleg.snapshot();
+        Map<Integer, Integer> retingudes = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entrada : new TreeMap<>(quantitats).entrySet()) {
+            Integer producteId = entrada.getKey();
+            int quantitat = entrada.getValue();
+            Optional<Producte> producte = snapshot.findById(producteId);
+            if (producte.isEmpty()) {
+                alliberarQuantitats(retingudes);
+                throw new RuntimeException("Producte no trobat amb ID: " + producteId);
+            }
+            int stock = producte.get().getStock();
+            if (!retenir(producteId, quantitat, stock)) {
+                alliberarQuantitats(retingudes);
+                throw new RuntimeException("Stock insuficient per reservar el producte: " + producte.get().getNom() +
+                        ". Disponible: " + Math.max(0, stock - reservades(producteId)) + ", Sol·licitat: " + quantitat);
+            }
+            retingudes.put(producteId, quantitat);
+        }
+
+        Reserva reserva = new Reserva(UUID.randomUUID().toString(), Map.copyOf(retingudes),
+                System.currentTimeMillis() + ttlSegons * 1000);
+        reserves.put(reserva.id(), reserva);
+        roda.programar(reserva, reserva.expiraMillis());
+        return reserva;
+    }
+
+    /**
+     * Obté una reserva activa
+     * @param id l'ID de la reserva
+     * @return Optional amb la reserva si encara és vigent
+     */
+    public Optional<Reserva> findById(String id) {
+        return Optional.ofNullable(reserves.get(id));
+    }
+
+    /**
+     * Allibera una reserva abans que caduqui (p. ex. si el client abandona el pagament)
+     * @param id l'ID de la reserva
+     * @return true si la reserva existia
+     */
+    public boolean alliberar(String id) {
+        Reserva reserva = reserves.remove(id);
+        if (reserva == null) {
+            return false;
+        }
+        alliberarQuantitats(reserva.quantitats());
+        return true;
+    }
+
+    /**
+     * Converteix una reserva en comanda dins de la transacció actual.
+     * La reserva deixa de ser vigent immediatament; les unitats es retornen al comptador
+     * quan la transacció acaba, moment en què el descompte real ja és visible al catàleg.
+     * Si la transacció fa rollback, la reserva torna a quedar vigent fins que caduqui.
+     * @param id l'ID de la reserva
+     * @param quantitats quantitats de la comanda per ID de producte
+     * @throws RuntimeException si la reserva no existeix o no cobreix la comanda
+     */
+    public void consumir(String id, Map<Integer, Integer> quantitats) {
+        Reserva reserva = reserves.remove(id);
+        if (reserva == null) {
+            throw new RuntimeException("Reserva no trobada o caducada: " + id);
+        }
+        for (Map.Entry<Integer, Integer> entrada : quantitats.entrySet()) {
+            if (entrada.getValue() > reserva.quantitats().getOrDefault(entrada.getKey(), 0)) {
+                reserves.put(id, reserva);
+                throw new RuntimeException("La comanda no coincideix amb la reserva: " + id);
+            }
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            alliberarQuantitats(reserva.quantitats());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED && reserva.expiraMillis() > System.currentTimeMillis()) {
+                    reserves.put(id, reserva);
+                } else {
+                    alliberarQuantitats(reserva.quantitats());
+                }
+            }
+        });
+    }
+
+    /**
+     * Reté les unitats d'una comanda sense reserva fins que acaba la transacció actual, perquè no
+     * es quedi unitats reservades per altres clients. La retenció fa servir el mateix comptador
+     * amb CAS que les reserves: dues comandes concurrents no poden passar totes dues amb les
+     * mateixes unitats lliures. Les unitats es retornen quan la transacció acaba, moment en què
+     * el descompte real ja és visible al catàleg; o es retenen totes o cap.
+     * El límit és l'stock que ha llegit la transacció de la comanda, no el del catàleg: les
+     * unitats de les comandes anteriors del mateix grup ja són al comptador, de manera que
+     * cada comanda veu l'stock menys totes les reserves i retencions vigents.
+     * @param quantitats quantitats de la comanda per ID de producte
+     * @param productes productes de la comanda tal com els ha llegit la transacció, per ID
+     * @throws RuntimeException si alguna quantitat supera l'stock no reservat
+     */
+    public void retenirPerComanda(Map<Integer, Integer> quantitats, Map<Integer, Producte> productes) {
+        Map<Integer, Integer> retingudes = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entrada : new TreeMap<>(quantitats).entrySet()) {
+            Producte producte = productes.get(entrada.getKey());
+            int stock = producte.getStock() != null ? producte.getStock() : 0;
+            if (!retenir(entrada.getKey(), entrada.getValue(), stock)) {
+                alliberarQuantitats(retingudes);
+                throw new RuntimeException("Stock reservat per altres clients per al producte: " + producte.getNom() +
+                        ". Disponible: " + Math.max(0, stock - reservades(entrada.getKey())) +
+                        ", Sol·licitat: " + entrada.getValue());
+            }
+            retingudes.put(entrada.getKey(), entrada.getValue());
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            alliberarQuantitats(retingudes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                alliberarQuantitats(retingudes);
+            }
+        });
+    }
+
+    /**
+     * @param producteId l'ID del producte
+     * @return unitats reservades actualment
+     */
+    public int reservades(Integer producteId) {
+        AtomicInteger comptador = reservat.get(producteId);
+        return comptador != null ? comptador.get() : 0;
+    }
+
+    /**
+     * Fa avançar la roda i allibera les reserves caducades
+     */
+    @Scheduled(fixedRate = TIC_MILLIS)
+    public void caducar() {
+        roda.avancar(System.currentTimeMillis(), reserva -> {
+            if (reserves.remove(reserva.id(), reserva)) {
+                alliberarQuantitats(reserva.quantitats());
+            }
+        });
+    }
+
+    // Mètodes auxiliars
+
+    /**
+     * Suma unitats al comptador del producte amb CAS si no se supera l'stock
+     */
+    private boolean retenir(Integer producteId, int quantitat, int stock) {
+        AtomicInteger comptador = reservat.computeIfAbsent(producteId, id -> new AtomicInteger());
+        while (true) {
+            int actual = comptador.get();
+            if (actual + quantitat > stock) {
+                return false;
+            }
+            if (comptador.compareAndSet(actual, actual + quantitat)) {
+                return true;
+            }
+        }
+    }
+
+    private void alliberarQuantitats(Map<Integer, Integer> quantitats) {
+        quantitats.forEach((producteId, quantitat) -> reservat.get(producteId).addAndGet(-quantitat));
+    }
+}
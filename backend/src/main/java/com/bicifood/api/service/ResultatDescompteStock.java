@@ -0,0 +1,41 @@
+package com.bicifood.api.service;
+
+import java.util.List;
+
+/**
+ * Resultat de descomptar l'stock de diversos productes d'una comanda.
+ * Conté una fallida per cada producte que no s'ha pogut descomptar.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public final class ResultatDescompteStock {
+
+    /**
+     * Producte sense stock suficient
+     * @param producteId l'ID del producte
+     * @param sollicitat la quantitat demanada
+     * @param disponible l'stock disponible en el moment de fallar, o null si el producte no existeix
+     */
+    public record Fallida(Integer producteId, int sollicitat, Integer disponible) {}
+
+    private final List<Fallida> fallides;
+
+    ResultatDescompteStock(List<Fallida> fallides) {
+        this.fallides = List.copyOf(fallides);
+    }
+
+    /**
+     * @return true si s'ha pogut descomptar l'stock de tots els productes
+     */
+    public boolean isCorrecte() {
+        return fallides.isEmpty();
+    }
+
+    /**
+     * @return les fallides, ordenades per ID de producte
+     */
+    public List<Fallida> getFallides() {
+        return fallides;
+    }
+}
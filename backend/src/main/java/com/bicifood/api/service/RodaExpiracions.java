@@ -0,0 +1,83 @@
+package com.bicifood.api.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Roda de temps (timing wheel) per caducar elements sense recórrer-los tots.
+ * Cada element es col·loca a la casella del tic en què caduca; a cada tic només es
+ * revisa una casella. Els elements amb una caducitat més llunyana que una volta
+ * sencera es tornen a posar a la casella fins que els toca.
+ * Programar és lliure de bloquejos; avançar l'ha de fer un sol fil.
+ *
+ * @param <T> tipus dels elements programats
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+final class RodaExpiracions<T> {
+
+    private record Entrada<T>(T element, long expiraMillis) {}
+
+    private final long ticMillis;
+    private final Queue<Entrada<T>>[] caselles;
+
+    /** Últim tic processat; els tics es processen quan ja han acabat del tot */
+    private volatile long darrerTic = -1;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    RodaExpiracions(long ticMillis, int numCaselles) {
+        this.ticMillis = ticMillis;
+        this.caselles = new Queue[numCaselles];
+        for (int i = 0; i < numCaselles; i++) {
+            caselles[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Programa la caducitat d'un element
+     * @param element l'element
+     * @param expiraMillis instant de caducitat en mil·lisegons d'època
+     */
+    void programar(T element, long expiraMillis) {
+        // Un tic ja processat no es tornaria a visitar fins a la volta següent
+        long tic = Math.max(expiraMillis / ticMillis, darrerTic + 1);
+        caselles[casella(tic)].add(new Entrada<>(element, expiraMillis));
+    }
+
+    /**
+     * Processa tots els tics des de l'última crida fins ara
+     * @param araMillis l'instant actual
+     * @param caducat acció per a cada element caducat
+     */
+    void avancar(long araMillis, Consumer<T> caducat) {
+        long ticAcabat = araMillis / ticMillis - 1;
+        long inici = darrerTic < 0 ? ticAcabat : darrerTic + 1;
+        // Si s'han perdut més tics que caselles, n'hi ha prou amb una volta sencera
+        if (ticAcabat - inici >= caselles.length) {
+            inici = ticAcabat - caselles.length + 1;
+        }
+        for (long tic = inici; tic <= ticAcabat; tic++) {
+            Queue<Entrada<T>> cua = caselles[casella(tic)];
+            int pendents = cua.size();
+            for (int i = 0; i < pendents; i++) {
+                Entrada<T> entrada = cua.poll();
+                if (entrada == null) {
+                    break;
+                }
+                if (entrada.expiraMillis() / ticMillis <= tic) {
+                    caducat.accept(entrada.element());
+                } else {
+                    cua.add(entrada);
+                }
+            }
+        }
+        darrerTic = Math.max(darrerTic, ticAcabat);
+    }
+
+    // Mètodes auxiliars
+
+    private int casella(long tic) {
+        return (int) Math.floorMod(tic, (long) caselles.length);
+    }
+}
@@ -0,0 +1,34 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.EsdevenimentComanda;
+
+import java.util.List;
+
+/**
+ * Subscriptor en procés als canvis d'estat de les comandes.
+ * Qualsevol bean que implementi aquesta interfície rep els esdeveniments de l'outbox a través
+ * del {@link RelayEsdeveniments}, en lots i en ordre d'ID; un esdeveniment d'una transacció que
+ * ha fet commit tard pot arribar en un lot posterior, darrere d'IDs més alts. L'entrega és
+ * almenys una vegada: si {@link #rebre} llança una excepció, el mateix lot es torna a entregar
+ * més tard, de manera que el subscriptor ha de tolerar esdeveniments repetits (no pot descartar
+ * un esdeveniment només perquè el seu ID és inferior a un de ja vist).
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public interface SubscriptorEsdevenimentsComanda {
+
+    /**
+     * Nom estable del subscriptor; és la clau de la seva posició de represa
+     * @return el nom del subscriptor
+     */
+    default String getNom() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Rep un lot d'esdeveniments nous
+     * @param esdeveniments esdeveniments nous, en ordre d'ID
+     */
+    void rebre(List<EsdevenimentComanda> esdeveniments);
+}
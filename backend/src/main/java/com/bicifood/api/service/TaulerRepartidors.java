@@ -0,0 +1,147 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.EsdevenimentComanda;
+import com.bicifood.api.model.LliuramentAssignat;
+import com.bicifood.api.repository.LliuramentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tauler en memòria de la feina de cada repartidor: els lliuraments assignats pendents, en
+ * ordre d'assignació, i el nombre de lliuraments completats.
+ * Es reconstrueix de la base de dades en arrencar i després es manté quan el
+ * {@link DespatxLliuraments} assigna lliuraments i quan l'outbox publica que una comanda s'ha
+ * lliurat o cancel·lat; cada lliurament completat s'envia també a {@link TempsLliurament}.
+ * La fitxa de cada repartidor és immutable i se substitueix a cada canvi, de manera que les
+ * consultes de l'app dels repartidors són una lectura d'un mapa, sense bloquejos ni consultes
+ * a la base de dades.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class TaulerRepartidors implements SubscriptorEsdevenimentsComanda {
+
+    /**
+     * Feina d'un repartidor
+     * @param pendents lliuraments pendents, en ordre d'assignació
+     * @param completats lliuraments completats
+     */
+    public record Fitxa(List<LliuramentAssignat> pendents, long completats) {
+
+        private static final Fitxa BUIDA = new Fitxa(List.of(), 0);
+
+        private Fitxa ambPendents(List<LliuramentAssignat> nous) {
+            List<LliuramentAssignat> llista = new ArrayList<>(pendents);
+            llista.addAll(nous);
+            return new Fitxa(List.copyOf(llista), completats);
+        }
+
+        private Fitxa sense(Integer comandaId, boolean lliurat) {
+            List<LliuramentAssignat> llista = new ArrayList<>(pendents);
+            llista.removeIf(lliurament -> lliurament.comandaId().equals(comandaId));
+            return new Fitxa(List.copyOf(llista), lliurat ? completats + 1 : completats);
+        }
+    }
+
+    @Autowired
+    private LliuramentRepository lliuramentRepository;
+
+    @Autowired
+    private TempsLliurament tempsLliurament;
+
+    private final Map<Integer, Fitxa> fitxes = new ConcurrentHashMap<>();
+
+    /** Repartidor de cada lliurament pendent, per ID de comanda */
+    private final Map<Integer, Integer> repartidorPerComanda = new ConcurrentHashMap<>();
+
+    private volatile boolean carregat;
+
+    /**
+     * Reconstrueix el tauler amb dues consultes; no fa res si ja s'ha carregat
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void carregar() {
+        if (carregat) {
+            return;
+        }
+        for (Object[] fila : lliuramentRepository.countLliuramentsCompletatsPerRepartidor()) {
+            fitxes.put((Integer) fila[0], new Fitxa(List.of(), ((Number) fila[1]).longValue()));
+        }
+        for (Object[] fila : lliuramentRepository.findLliuramentsPendentsAssignats()) {
+            Integer repartidorId = (Integer) fila[0];
+            LliuramentAssignat lliurament = new LliuramentAssignat((Integer) fila[1], (Integer) fila[2],
+                    (String) fila[3], (String) fila[4], (LocalDateTime) fila[5]);
+            fitxes.merge(repartidorId, Fitxa.BUIDA.ambPendents(List.of(lliurament)),
+                    (actual, nova) -> actual.ambPendents(nova.pendents()));
+            repartidorPerComanda.put(lliurament.comandaId(), repartidorId);
+        }
+        carregat = true;
+    }
+
+    /**
+     * Obté la feina d'un repartidor
+     * @param repartidorId l'ID del repartidor
+     * @return la fitxa; buida si el repartidor no té cap lliurament
+     */
+    public Fitxa getFitxa(Integer repartidorId) {
+        return fitxes.getOrDefault(repartidorId, Fitxa.BUIDA);
+    }
+
+    /**
+     * @param repartidorId l'ID del repartidor
+     * @return nombre de lliuraments pendents del repartidor
+     */
+    public int comptarPendents(Integer repartidorId) {
+        return getFitxa(repartidorId).pendents().size();
+    }
+
+    /**
+     * Afegeix lliuraments acabats d'assignar (i ja escrits) a la cua d'un repartidor
+     * @param repartidorId l'ID del repartidor
+     * @param lliuraments els lliuraments assignats
+     */
+    public synchronized void assignar(Integer repartidorId, List<LliuramentAssignat> lliuraments) {
+        if (lliuraments.isEmpty()) {
+            return;
+        }
+        fitxes.merge(repartidorId, Fitxa.BUIDA.ambPendents(lliuraments),
+                (actual, nova) -> actual.ambPendents(nova.pendents()));
+        for (LliuramentAssignat lliurament : lliuraments) {
+            repartidorPerComanda.put(lliurament.comandaId(), repartidorId);
+        }
+    }
+
+    @Override
+    public synchronized void rebre(List<EsdevenimentComanda> esdeveniments) {
+        if (!carregat) {
+            throw new IllegalStateException("El tauler de repartidors encara no s'ha carregat");
+        }
+        for (EsdevenimentComanda esdeveniment : esdeveniments) {
+            boolean lliurat = RegistreEstats.LLIURADA.equals(esdeveniment.getEstatNou());
+            if (lliurat || EsdevenimentComanda.CANCELLADA.equals(esdeveniment.getEstatNou())) {
+                // Un esdeveniment repetit ja no troba la comanda i no compta dues vegades
+                Integer repartidorId = repartidorPerComanda.remove(esdeveniment.getComandaId());
+                if (repartidorId == null) {
+                    continue;
+                }
+                if (lliurat) {
+                    getFitxa(repartidorId).pendents().stream()
+                            .filter(lliurament -> lliurament.comandaId().equals(esdeveniment.getComandaId()))
+                            .findFirst()
+                            .ifPresent(lliurament -> tempsLliurament.registrar(repartidorId, lliurament.cpLliurament(),
+                                    lliurament.dataHoraAssignacio(), esdeveniment.getDataHora()));
+                }
+                fitxes.computeIfPresent(repartidorId, (id, fitxa) -> fitxa.sense(esdeveniment.getComandaId(), lliurat));
+            }
+        }
+    }
+}
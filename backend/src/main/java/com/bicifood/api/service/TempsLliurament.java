@@ -0,0 +1,180 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.model.EstadistiquesTemps;
+import com.bicifood.api.repository.LliuramentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Temps de lliurament (de l'assignació al lliurament) en histogrames en memòria.
+ * Manté un {@link HistogramaLatencia} global, un per repartidor, un per codi postal de
+ * lliurament i un per hora del dia de l'assignació. El {@link TaulerRepartidors} l'alimenta
+ * quan un lliurament es marca com a lliurat; en arrencar es reompli amb els lliuraments dels
+ * darrers dies. Els percentils es calculen sobre els histogrames, sense cap agregació SQL, i
+ * es publiquen també com a mètriques ({@code bicifood.lliuraments.temps} i les variants
+ * {@code .repartidor}, {@code .cp} i {@code .hora}). El codi postal és text lliure de la comanda:
+ * només els de 5 xifres tenen histograma propi, fins a un màxim configurable, i la resta van a
+ * {@value #ALTRES} perquè el nombre de mètriques no creixi sense límit.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Component
+public class TempsLliurament {
+
+    private static final double[] PERCENTILS = {0.5, 0.95, 0.99};
+    private static final String[] NOMS_PERCENTILS = {"p50", "p95", "p99"};
+
+    /** Codi postal dels lliuraments amb un codi no vàlid o per sobre del màxim */
+    public static final String ALTRES = "altres";
+
+    private static final Pattern CODI_POSTAL = Pattern.compile("\\d{5}");
+
+    @Autowired
+    private LliuramentRepository lliuramentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.temps-lliurament.dies-inicials:30}")
+    private long diesInicials;
+
+    @Value("${app.temps-lliurament.maxim-codis-postals:200}")
+    private int maximCodisPostals;
+
+    private final HistogramaLatencia global = new HistogramaLatencia();
+    private final Map<Integer, HistogramaLatencia> perRepartidor = new ConcurrentHashMap<>();
+    private final Map<String, HistogramaLatencia> perCodiPostal = new ConcurrentHashMap<>();
+    private final Map<Integer, HistogramaLatencia> perHora = new ConcurrentHashMap<>();
+
+    /**
+     * Reompli els histogrames amb els lliuraments recents
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        registrarMetriques(global, "bicifood.lliuraments.temps", Tags.empty());
+        for (Object[] fila : lliuramentRepository.findTempsLliuramentDesDe(LocalDateTime.now().minusDays(diesInicials))) {
+            registrar((Integer) fila[0], (String) fila[1], (LocalDateTime) fila[2], (LocalDateTime) fila[3]);
+        }
+    }
+
+    /**
+     * Registra un lliurament completat
+     * @param repartidorId l'ID del repartidor
+     * @param codiPostal el codi postal de lliurament
+     * @param dataHoraAssignacio quan es va assignar
+     * @param dataHoraLliurament quan s'ha lliurat
+     */
+    public void registrar(Integer repartidorId, String codiPostal, LocalDateTime dataHoraAssignacio,
+                          LocalDateTime dataHoraLliurament) {
+        if (dataHoraAssignacio == null || dataHoraLliurament == null) {
+            return;
+        }
+        long segons = Duration.between(dataHoraAssignacio, dataHoraLliurament).getSeconds();
+        global.registrar(segons);
+        if (repartidorId != null) {
+            histograma(perRepartidor, repartidorId, "repartidor").registrar(segons);
+        }
+        if (codiPostal != null) {
+            histograma(perCodiPostal, clauCodiPostal(codiPostal), "cp").registrar(segons);
+        }
+        histograma(perHora, dataHoraAssignacio.getHour(), "hora").registrar(segons);
+    }
+
+    /**
+     * @return les estadístiques de tots els lliuraments
+     */
+    public EstadistiquesTemps getGlobal() {
+        return estadistiques(global);
+    }
+
+    /**
+     * @return les estadístiques per repartidor, ordenades per ID
+     */
+    public Map<Integer, EstadistiquesTemps> getPerRepartidor() {
+        return resumir(perRepartidor);
+    }
+
+    /**
+     * @return les estadístiques per codi postal de lliurament
+     */
+    public Map<String, EstadistiquesTemps> getPerCodiPostal() {
+        return resumir(perCodiPostal);
+    }
+
+    /**
+     * @return les estadístiques per hora del dia de l'assignació (0-23)
+     */
+    public Map<Integer, EstadistiquesTemps> getPerHora() {
+        return resumir(perHora);
+    }
+
+    // Mètodes auxiliars
+
+    private String clauCodiPostal(String codiPostal) {
+        String normalitzat = codiPostal.trim();
+        if (!CODI_POSTAL.matcher(normalitzat).matches()) {
+            return ALTRES;
+        }
+        if (perCodiPostal.containsKey(normalitzat)) {
+            return normalitzat;
+        }
+        synchronized (perCodiPostal) {
+            long codis = perCodiPostal.size() - (perCodiPostal.containsKey(ALTRES) ? 1 : 0);
+            if (codis >= maximCodisPostals) {
+                return ALTRES;
+            }
+            histograma(perCodiPostal, normalitzat, "cp");
+            return normalitzat;
+        }
+    }
+
+    private <K> HistogramaLatencia histograma(Map<K, HistogramaLatencia> histogrames, K clau, String tag) {
+        HistogramaLatencia histograma = histogrames.get(clau);
+        if (histograma == null) {
+            histograma = histogrames.computeIfAbsent(clau, k -> {
+                HistogramaLatencia nou = new HistogramaLatencia();
+                registrarMetriques(nou, "bicifood.lliuraments.temps." + tag, Tags.of(tag, String.valueOf(k)));
+                return nou;
+            });
+        }
+        return histograma;
+    }
+
+    private void registrarMetriques(HistogramaLatencia histograma, String nom, Tags tags) {
+        for (int i = 0; i < PERCENTILS.length; i++) {
+            double percentil = PERCENTILS[i];
+            Gauge.builder(nom, histograma, h -> h.percentil(percentil))
+                    .description("Temps des de l'assignació fins al lliurament")
+                    .baseUnit("seconds")
+                    .tags(tags)
+                    .tag("percentil", NOMS_PERCENTILS[i])
+                    .register(meterRegistry);
+        }
+    }
+
+    private static <K> Map<K, EstadistiquesTemps> resumir(Map<K, HistogramaLatencia> histogrames) {
+        Map<K, EstadistiquesTemps> resultat = new TreeMap<>();
+        histogrames.forEach((clau, histograma) -> resultat.put(clau, estadistiques(histograma)));
+        return Collections.unmodifiableMap(resultat);
+    }
+
+    private static EstadistiquesTemps estadistiques(HistogramaLatencia histograma) {
+        return new EstadistiquesTemps(histograma.getMostres(), histograma.getMitjana(), histograma.percentil(0.5),
+                histograma.percentil(0.95), histograma.percentil(0.99), histograma.getMaxim());
+    }
+}
@@ -13,8 +13,8 @@ INSERT INTO categoria (id_categoria, nom_cat) VALUES
 -- Estats de comanda
 INSERT INTO estat_comanda (id_estat, nom_estat) VALUES 
 (1, 'PENDENT'),
-(2, 'EN PREPARACIÓ'),
-(3, 'EN REPARTIMENT'),
+(2, 'PREPARANT'),
+(3, 'EN RUTA'),
 (4, 'LLIURADA');
 
 -- Rols d'usuari
@@ -0,0 +1,52 @@
+package com.bicifood.api;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Execució de benchmarks JMH des de les proves JUnit amb l'etiqueta "benchmark"
+ * ({@code mvn test -Pbenchmark}). Les iteracions i els forks es defineixen amb anotacions
+ * a cada classe de benchmark.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {}
+
+    /**
+     * Executa tots els benchmarks d'una classe
+     * @param classe la classe amb els mètodes {@code @Benchmark}
+     * @return la puntuació de cada mètode; amb paràmetres, la clau és "metode[param=valor,...]"
+     * @throws RunnerException si algun benchmark falla
+     */
+    public static Map<String, Double> executar(Class<?> classe) throws RunnerException {
+        Options opcions = new OptionsBuilder()
+                .include("^" + Pattern.quote(classe.getName() + ".") + "\\w+$")
+                .shouldFailOnError(true)
+                .build();
+        Map<String, Double> puntuacions = new LinkedHashMap<>();
+        for (RunResult resultat : new Runner(opcions).run()) {
+            String benchmark = resultat.getParams().getBenchmark();
+            StringBuilder clau = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.') + 1));
+            if (!resultat.getParams().getParamsKeys().isEmpty()) {
+                StringBuilder parametres = new StringBuilder();
+                for (String parametre : resultat.getParams().getParamsKeys()) {
+                    parametres.append(parametres.isEmpty() ? "" : ",")
+                            .append(parametre).append('=').append(resultat.getParams().getParam(parametre));
+                }
+                clau.append('[').append(parametres).append(']');
+            }
+            puntuacions.put(clau.toString(), resultat.getPrimaryResult().getScore());
+        }
+        return puntuacions;
+    }
+}
@@ -0,0 +1,37 @@
+package com.bicifood.api;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Compta les sentències SQL que prepara Hibernate al fil actual.
+ * Les estadístiques de Hibernate són globals i hi sumen les tasques programades (relay de
+ * l'outbox, despatx...); aquest comptador només veu les del fil de la prova. Es registra per a
+ * totes les proves amb la propietat {@code hibernate.session_factory.statement_inspector} del pom.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+public class ComptadorSentencies implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COMPTADOR = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COMPTADOR.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Posa a zero el comptador del fil actual
+     */
+    public static void reiniciar() {
+        COMPTADOR.get()[0] = 0;
+    }
+
+    /**
+     * @return sentències preparades al fil actual des de l'últim {@link #reiniciar()}
+     */
+    public static long sentencies() {
+        return COMPTADOR.get()[0];
+    }
+}
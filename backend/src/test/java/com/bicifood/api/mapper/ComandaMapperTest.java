@@ -0,0 +1,56 @@
+package com.bicifood.api.mapper;
+
+import com.bicifood.api.dto.ComandaDto;
+import com.bicifood.api.dto.LiniaComandaDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Proves de l'empremta de les peticions de comanda
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+class ComandaMapperTest {
+
+    private final ComandaMapper mapper = new ComandaMapper();
+
+    @Test
+    void lEmpremtaNomesDepenDelsCampsDeLaPeticio() {
+        ComandaDto peticio = comanda("Carrer Major 1", new LiniaComandaDto(3, 2));
+        ComandaDto ambCampsCalculats = comanda("Carrer Major 1", new LiniaComandaDto(3, 2));
+        ambCampsCalculats.setImportTotal(BigDecimal.TEN);
+        ambCampsCalculats.setEstat("PENDENT");
+        ambCampsCalculats.getLinies().get(0).setNomProducte("Risotto");
+
+        assertEquals(mapper.empremta(peticio, "r1"), mapper.empremta(ambCampsCalculats, "r1"));
+        assertNotEquals(mapper.empremta(peticio, "r1"), mapper.empremta(peticio, null));
+        assertNotEquals(mapper.empremta(peticio, null),
+                mapper.empremta(comanda("Carrer Major 1", new LiniaComandaDto(3, 3)), null));
+    }
+
+    @Test
+    void unSeparadorDinsDUnCampNoFaCoincidirPeticionsDiferents() {
+        ComandaDto ambSeparador = comanda("Carrer Major 1;08001", new LiniaComandaDto(3, 2));
+        ambSeparador.setCpLliurament("");
+        ComandaDto separada = comanda("Carrer Major 1", new LiniaComandaDto(3, 2));
+
+        assertNotEquals(mapper.empremta(ambSeparador, null), mapper.empremta(separada, null));
+    }
+
+    // Mètodes auxiliars
+
+    private static ComandaDto comanda(String adreca, LiniaComandaDto... linies) {
+        ComandaDto dto = new ComandaDto();
+        dto.setClientId(1);
+        dto.setAdrecaLliurament(adreca);
+        dto.setCpLliurament("08001");
+        dto.setLinies(List.of(linies));
+        return dto;
+    }
+}
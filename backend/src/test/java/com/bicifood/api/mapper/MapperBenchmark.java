@@ -0,0 +1,123 @@
+package com.bicifood.api.mapper;
+
+import com.bicifood.api.dto.CategoriaDto;
+import com.bicifood.api.dto.ProducteDto;
+import com.bicifood.api.entity.Categoria;
+import com.bicifood.api.entity.Producte;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH dels mappers escrits a mà contra ModelMapper, configurat com l'antic bean
+ * d'AppConfig (coincidència per camps privats). Cada operació mapeja una pàgina de 20 elements,
+ * com fan els controladors.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    static final int MIDA_PAGINA = 20;
+
+    private final ProducteMapper producteMapper = new ProducteMapper();
+    private final CategoriaMapper categoriaMapper = new CategoriaMapper();
+    private ModelMapper modelMapper;
+
+    private List<Producte> productes;
+    private List<ProducteDto> producteDtos;
+    private List<Categoria> categories;
+
+    @Setup
+    public void preparar() {
+        modelMapper = modelMapper();
+        productes = new ArrayList<>();
+        producteDtos = new ArrayList<>();
+        categories = new ArrayList<>();
+        for (int i = 1; i <= MIDA_PAGINA; i++) {
+            Categoria categoria = new Categoria("Categoria " + i);
+            categoria.setId(i);
+            categories.add(categoria);
+            Producte producte = new Producte("Producte " + i, new BigDecimal("9.95").add(BigDecimal.valueOf(i)),
+                    categoria, "Descripció del producte " + i);
+            producte.setId(i);
+            producte.setStock(i * 3);
+            producte.setImatgePath("images/producte-" + i + ".png");
+            productes.add(producte);
+            producteDtos.add(producteMapper.toDto(producte));
+        }
+    }
+
+    /**
+     * ModelMapper amb la mateixa configuració que tenia el bean d'AppConfig
+     */
+    static ModelMapper modelMapper() {
+        ModelMapper mapper = new ModelMapper();
+        mapper.getConfiguration()
+                .setFieldMatchingEnabled(true)
+                .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
+        return mapper;
+    }
+
+    @Benchmark
+    public void producteToDtoMapper(Blackhole blackhole) {
+        for (Producte producte : productes) {
+            blackhole.consume(producteMapper.toDto(producte));
+        }
+    }
+
+    @Benchmark
+    public void producteToDtoModelMapper(Blackhole blackhole) {
+        for (Producte producte : productes) {
+            blackhole.consume(modelMapper.map(producte, ProducteDto.class));
+        }
+    }
+
+    @Benchmark
+    public void producteToEntityMapper(Blackhole blackhole) {
+        for (ProducteDto dto : producteDtos) {
+            blackhole.consume(producteMapper.toEntity(dto));
+        }
+    }
+
+    @Benchmark
+    public void producteToEntityModelMapper(Blackhole blackhole) {
+        for (ProducteDto dto : producteDtos) {
+            blackhole.consume(modelMapper.map(dto, Producte.class));
+        }
+    }
+
+    @Benchmark
+    public void categoriaToDtoMapper(Blackhole blackhole) {
+        for (Categoria categoria : categories) {
+            blackhole.consume(categoriaMapper.toDto(categoria));
+        }
+    }
+
+    @Benchmark
+    public void categoriaToDtoModelMapper(Blackhole blackhole) {
+        for (Categoria categoria : categories) {
+            blackhole.consume(modelMapper.map(categoria, CategoriaDto.class));
+        }
+    }
+}
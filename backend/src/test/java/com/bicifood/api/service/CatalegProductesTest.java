@@ -0,0 +1,104 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.repository.ProducteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Proves del catàleg en memòria contra la base de dades
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@SpringBootTest
+class CatalegProductesTest {
+
+    private static final int PRODUCTE = 5;
+
+    @Autowired
+    private ProducteService producteService;
+
+    @Autowired
+    private ProducteRepository producteRepository;
+
+    @Autowired
+    private CatalegProductes cataleg;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void lesEscripturesAbsolutesIConcurrentsNoDesquadrenElSnapshot() throws Exception {
+        int stockInicial = producteRepository.findStockById(PRODUCTE).orElseThrow();
+        producteService.updateStock(PRODUCTE, 100_000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasques = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                tasques.add(executor.submit(() -> {
+                    for (int j = 0; j < 150; j++) {
+                        producteService.reduirStock(PRODUCTE, 1);
+                    }
+                }));
+            }
+            for (int i = 0; i < 2; i++) {
+                tasques.add(executor.submit(() -> {
+                    for (int j = 0; j < 40; j++) {
+                        producteService.updateStock(PRODUCTE, 100_000);
+                    }
+                }));
+            }
+            for (Future<?> tasca : tasques) {
+                tasca.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(producteRepository.findStockById(PRODUCTE).orElseThrow(),
+                cataleg.snapshot().findById(PRODUCTE).orElseThrow().getStock());
+
+        producteService.updateStock(PRODUCTE, stockInicial);
+        assertEquals(stockInicial, cataleg.snapshot().findById(PRODUCTE).orElseThrow().getStock());
+    }
+
+    @Test
+    void unaEscripturaAbsolutaIUnaVariacioALaMateixaTransaccioEsPubliquenAmbElValorDeLaFila() {
+        int stockInicial = producteRepository.findStockById(PRODUCTE).orElseThrow();
+        transactionTemplate.executeWithoutResult(estat -> {
+            producteService.updateStock(PRODUCTE, 500);
+            // L'UPDATE directe no passa per l'entitat que la transacció ja té carregada
+            producteService.reduirStock(PRODUCTE, 2);
+        });
+
+        assertEquals(498, producteRepository.findStockById(PRODUCTE).orElseThrow());
+        assertEquals(498, cataleg.snapshot().findById(PRODUCTE).orElseThrow().getStock());
+        producteService.updateStock(PRODUCTE, stockInicial);
+    }
+
+    @Test
+    void laReconciliacioCorregeixElsCanvisFetsForaDeLAplicacio() {
+        int stockInicial = producteRepository.findStockById(PRODUCTE).orElseThrow();
+        jdbcTemplate.update("UPDATE producte SET stock = stock + 3 WHERE id_producte = ?", PRODUCTE);
+
+        cataleg.reconciliar();
+
+        assertEquals(stockInicial + 3, cataleg.snapshot().findById(PRODUCTE).orElseThrow().getStock());
+        producteService.updateStock(PRODUCTE, stockInicial);
+    }
+}
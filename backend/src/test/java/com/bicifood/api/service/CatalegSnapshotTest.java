@@ -0,0 +1,118 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Categoria;
+import com.bicifood.api.entity.Producte;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Proves del snapshot del catàleg
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+class CatalegSnapshotTest {
+
+    @Test
+    void ambStockNomesCanviaElsProductesIndicats() {
+        CatalegSnapshot base = snapshot();
+
+        CatalegSnapshot nou = base.ambStock(2, Map.of(2, 0, 3, 4));
+
+        assertEquals(2, nou.getVersio());
+        assertEquals(0, nou.findById(2).orElseThrow().getStock());
+        assertEquals(4, nou.findById(3).orElseThrow().getStock());
+        assertSame(base.findById(1).orElseThrow(), nou.findById(1).orElseThrow());
+        assertEquals(20, base.findById(2).orElseThrow().getStock());
+        assertEquals(List.of(1, 3), ids(nou.findAvailableProducts()));
+        assertEquals(List.of(2), ids(nou.findOutOfStockProducts()));
+        assertEquals(List.of(3), ids(nou.findLowStockProducts(IndexDisponibilitat.LLINDAR_STOCK_BAIX)));
+        assertEquals(1, nou.comptarProductesAmbStock(10));
+        assertEquals(1, nou.comptarProductesAmbStock(20));
+        assertEquals(4, nou.findByNom("Amanida").orElseThrow().getStock());
+        assertEquals(List.of(3), ids(nou.searchProducts("amanida", Pageable.unpaged())
+                .getContent()));
+    }
+
+    @Test
+    void ambStockIgnoraElsProductesQueNoSonAlCataleg() {
+        CatalegSnapshot nou = snapshot().ambStock(2, Map.of(99, 5));
+
+        assertEquals(3, nou.size());
+        assertTrue(nou.findById(99).isEmpty());
+    }
+
+    @Test
+    void ambCanvisDespresDAmbStockConservaElNouStock() {
+        Producte modificat = producte(1, "Vedella", "9.50", 30, 10);
+
+        CatalegSnapshot nou = snapshot().ambStock(2, Map.of(2, 7)).ambCanvis(3, Map.of(1, modificat));
+
+        assertEquals(7, nou.findById(2).orElseThrow().getStock());
+        assertEquals(30, nou.findById(1).orElseThrow().getStock());
+        assertEquals(List.of(2, 1, 3), ids(nou.findAllOrderByPreu(true,
+                Pageable.unpaged()).getContent()));
+    }
+
+    @Test
+    void lOrdreDescendentPerPreuDesempataPerIdIgualAmbIndexQueAmbComparador() {
+        CatalegSnapshot snapshot = new CatalegSnapshot(1, List.of(
+                producte(1, "Vedella", "10.00", 5, 10),
+                producte(2, "Pollastre", "10.00", 5, 10),
+                producte(3, "Costella", "12.00", 5, 10),
+                producte(4, "Hamburguesa", "10.00", 5, 10),
+                producte(5, "Botifarra", "9.00", 5, 10)), List.of());
+        Sort perPreu = Sort.by(Sort.Order.desc("preu"));
+
+        List<Integer> ambIndex = new ArrayList<>();
+        List<Integer> ambComparador = new ArrayList<>();
+        for (int pagina = 0; pagina < 3; pagina++) {
+            PageRequest peticio = PageRequest.of(pagina, 2, perPreu);
+            ambIndex.addAll(ids(snapshot.findAll(peticio).getContent()));
+            ambComparador.addAll(ids(snapshot.findByCategoria(10, peticio).getContent()));
+        }
+
+        assertEquals(List.of(3, 1, 2, 4, 5), ambComparador);
+        assertEquals(ambComparador, ambIndex);
+        assertEquals(ambComparador, ids(snapshot.findAllOrderByPreu(false, Pageable.unpaged()).getContent()));
+        assertEquals(List.of(1, 2, 4), ids(snapshot.findByPreuBetween(new BigDecimal("10.00"), new BigDecimal("10.00"),
+                PageRequest.of(0, 5, perPreu)).getContent()));
+    }
+
+    // Mètodes auxiliars
+
+    private static CatalegSnapshot snapshot() {
+        Categoria carns = new Categoria("Carns");
+        carns.setId(10);
+        Categoria verdures = new Categoria("Verdures");
+        verdures.setId(20);
+        return new CatalegSnapshot(1, List.of(
+                producte(1, "Vedella", "13.95", 50, 10),
+                producte(2, "Pollastre", "9.00", 20, 10),
+                producte(3, "Amanida", "10.00", 0, 20)), List.of(carns, verdures));
+    }
+
+    private static Producte producte(int id, String nom, String preu, int stock, int categoriaId) {
+        Categoria categoria = new Categoria(categoriaId == 10 ? "Carns" : "Verdures");
+        categoria.setId(categoriaId);
+        Producte producte = new Producte(nom, new BigDecimal(preu), categoria, nom + " de temporada");
+        producte.setId(id);
+        producte.setStock(stock);
+        return producte;
+    }
+
+    private static List<Integer> ids(List<Producte> productes) {
+        return productes.stream().map(Producte::getId).toList();
+    }
+}
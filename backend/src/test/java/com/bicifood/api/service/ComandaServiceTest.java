@@ -0,0 +1,248 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.ComptadorSentencies;
+import com.bicifood.api.entity.Comanda;
+import com.bicifood.api.entity.LiniaComanda;
+import com.bicifood.api.model.ResultatTransicio;
+import com.bicifood.api.repository.ProducteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Proves de ComandaService contra la base de dades H2 de l'aplicació
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@SpringBootTest
+class ComandaServiceTest {
+
+    private static final int LINIES = 20;
+
+    /** Producte que cap altra prova fa servir */
+    private static final int PRODUCTE_CALENT = 21;
+
+    @Autowired
+    private ComandaService comandaService;
+
+    @Autowired
+    private ProducteService producteService;
+
+    @Autowired
+    private ProducteRepository producteRepository;
+
+    @Autowired
+    private CatalegProductes cataleg;
+
+    @Autowired
+    private ReservesStock reservesStock;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void unaComandaDeVintLiniesEsCreaAmbPoquesSentencies() {
+        Statistics estadistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadistiques.setStatisticsEnabled(true);
+        try {
+            // La primera comanda reserva els blocs de les seqüències
+            comandaService.createComandaWithLines(DadesProva.comanda(), liniesDeProva());
+
+            int comandes = 10;
+            estadistiques.clear();
+            ComptadorSentencies.reiniciar();
+            long inici = System.nanoTime();
+            for (int i = 0; i < comandes; i++) {
+                Comanda comanda = comandaService.createComandaWithLines(DadesProva.comanda(), liniesDeProva());
+                assertEquals(LINIES, comanda.getLiniesComanda().size());
+            }
+            long micros = (System.nanoTime() - inici) / 1_000 / comandes;
+
+            long sentencies = ComptadorSentencies.sentencies() / comandes;
+            System.out.printf("Comanda de %d línies: %d sentències, %d insercions, %d us%n", LINIES, sentencies,
+                    estadistiques.getEntityInsertCount() / comandes, micros);
+            // Comanda, línies, lliurament i esdeveniment a l'outbox
+            assertEquals(LINIES + 3, estadistiques.getEntityInsertCount() / comandes);
+            // Un UPDATE condicional d'stock per producte; la resta és constant: productes i clients amb
+            // la categoria i el rol a la mateixa consulta, seqüències i un lot d'INSERT per taula
+            assertTrue(sentencies <= LINIES + 8, "sentències per comanda: " + sentencies);
+        } finally {
+            estadistiques.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void lesComandesConcurrentsSobreUnProducteNoVenenMesStockDelQueHiHa() throws Exception {
+        int stockInicial = producteRepository.findStockById(PRODUCTE_CALENT).orElseThrow();
+        int stock = 40;
+        int fils = 16;
+        int intentsPerFil = 10;
+        producteService.updateStock(PRODUCTE_CALENT, stock);
+        int venutAbans = unitatsVenudes(PRODUCTE_CALENT);
+
+        AtomicInteger creades = new AtomicInteger();
+        AtomicInteger rebutjades = new AtomicInteger();
+        CountDownLatch sortida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(fils);
+        try {
+            List<Future<?>> tasques = new ArrayList<>();
+            for (int i = 0; i < fils; i++) {
+                tasques.add(executor.submit(() -> {
+                    sortida.await();
+                    for (int j = 0; j < intentsPerFil; j++) {
+                        try {
+                            comandaService.createComandaWithLines(DadesProva.comanda(),
+                                    List.of(DadesProva.linia(PRODUCTE_CALENT, 1)));
+                            creades.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            rebutjades.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            sortida.countDown();
+            for (Future<?> tasca : tasques) {
+                tasca.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(stock, creades.get());
+        assertEquals(fils * intentsPerFil - stock, rebutjades.get());
+        assertEquals(0, producteRepository.findStockById(PRODUCTE_CALENT).orElseThrow());
+        assertEquals(0, cataleg.snapshot().findById(PRODUCTE_CALENT).orElseThrow().getStock());
+        assertEquals(stock, unitatsVenudes(PRODUCTE_CALENT) - venutAbans);
+
+        producteService.updateStock(PRODUCTE_CALENT, stockInicial);
+    }
+
+    @Test
+    void lesComandesSenseReservaDUnGrupRespectenLesReservesDelsAltresClients() {
+        int stockInicial = producteRepository.findStockById(PRODUCTE_CALENT).orElseThrow();
+        producteService.updateStock(PRODUCTE_CALENT, 10);
+        ReservesStock.Reserva reserva = reservesStock.reservar(Map.of(PRODUCTE_CALENT, 8));
+        try {
+            PeticioComanda primera = new PeticioComanda(DadesProva.comanda(), List.of(DadesProva.linia(PRODUCTE_CALENT, 2)), null);
+            PeticioComanda segona = new PeticioComanda(DadesProva.comanda(), List.of(DadesProva.linia(PRODUCTE_CALENT, 2)), null);
+            comandaService.createComandesEnGrup(List.of(primera, segona));
+
+            assertTrue(primera.isCreada());
+            assertNotNull(segona.getError());
+            assertEquals(8, producteRepository.findStockById(PRODUCTE_CALENT).orElseThrow());
+            assertEquals(8, reservesStock.reservades(PRODUCTE_CALENT));
+        } finally {
+            reservesStock.alliberar(reserva.id());
+            producteService.updateStock(PRODUCTE_CALENT, stockInicial);
+        }
+    }
+
+    @Test
+    void unaComandaQueUnaAltraTransaccioJaHaMogutNoEsPublicaDosCops() throws Exception {
+        int stockInicial = producteRepository.findStockById(PRODUCTE_CALENT).orElseThrow();
+        Integer comandaId = comandaService.createComandaWithLines(DadesProva.comanda(),
+                List.of(DadesProva.linia(PRODUCTE_CALENT, 1))).getId();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> altra = passarAPreparantEnUnaAltraTransaccio(executor, comandaId);
+            List<ResultatTransicio> resultats = comandaService.updateEstatMassiu(List.of(comandaId), 2);
+            altra.get();
+
+            assertEquals(ResultatTransicio.Resultat.SENSE_CANVI, resultats.get(0).resultat());
+            assertEquals(0, esdevenimentsPreparant(comandaId));
+
+            List<ResultatTransicio> seguent = comandaService.updateEstatMassiu(List.of(comandaId), 3);
+            assertEquals(ResultatTransicio.Resultat.ACTUALITZADA, seguent.get(0).resultat());
+        } finally {
+            executor.shutdown();
+            producteService.updateStock(PRODUCTE_CALENT, stockInicial);
+        }
+    }
+
+    @Test
+    void elCanviDEstatDUnaComandaFallaSiUnaAltraTransaccioLaMouMentrestant() throws Exception {
+        int stockInicial = producteRepository.findStockById(PRODUCTE_CALENT).orElseThrow();
+        Integer comandaId = comandaService.createComandaWithLines(DadesProva.comanda(),
+                List.of(DadesProva.linia(PRODUCTE_CALENT, 1))).getId();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> altra = passarAPreparantEnUnaAltraTransaccio(executor, comandaId);
+            assertThrows(RuntimeException.class, () -> comandaService.updateEstat(comandaId, 2));
+            altra.get();
+
+            assertEquals(0, esdevenimentsPreparant(comandaId));
+            assertEquals(RegistreEstats.EN_RUTA, comandaService.updateEstat(comandaId, 3).getEstat().getNom());
+        } finally {
+            executor.shutdown();
+            producteService.updateStock(PRODUCTE_CALENT, stockInicial);
+        }
+    }
+
+    // Mètodes auxiliars
+
+    /**
+     * Una altra transacció passa la comanda a PREPARANT sense esdeveniment i fa commit una mica
+     * més tard, mentre el cridant ja l'ha llegida a PENDENT
+     */
+    private Future<?> passarAPreparantEnUnaAltraTransaccio(ExecutorService executor, Integer comandaId)
+            throws InterruptedException {
+        CountDownLatch canviada = new CountDownLatch(1);
+        Future<?> altra = executor.submit(() -> transactionTemplate.executeWithoutResult(estat -> {
+            jdbcTemplate.update("UPDATE comanda SET id_estat = 2 WHERE id_comanda = ?", comandaId);
+            canviada.countDown();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        canviada.await();
+        return altra;
+    }
+
+    private int esdevenimentsPreparant(Integer comandaId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM esdeveniment_comanda WHERE id_comanda = ? AND estat_nou = 'PREPARANT'",
+                Integer.class, comandaId);
+    }
+
+    private int unitatsVenudes(int producteId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantitat), 0) FROM linia_comanda WHERE id_producte = ?", Integer.class, producteId);
+    }
+
+    private static List<LiniaComanda> liniesDeProva() {
+        List<LiniaComanda> linies = new ArrayList<>();
+        for (int producteId = 1; producteId <= LINIES; producteId++) {
+            linies.add(DadesProva.linia(producteId, 1));
+        }
+        return linies;
+    }
+}
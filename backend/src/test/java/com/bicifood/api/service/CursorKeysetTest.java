@@ -0,0 +1,54 @@
+package com.bicifood.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Proves dels cursors de la paginació keyset
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+class CursorKeysetTest {
+
+    @Test
+    void unCursorCodificatEsDescodificaAmbLaMateixaPosicio() {
+        LocalDateTime data = LocalDateTime.of(2024, 5, 17, 13, 45, 12);
+
+        CursorKeyset.Posicio posicio = CursorKeyset.descodificar(CursorKeyset.codificar(data, 42));
+
+        assertEquals(42, posicio.id());
+        assertEquals(data, posicio.clauData());
+    }
+
+    @Test
+    void unCursorBuitEsLaPrimeraPagina() {
+        assertNull(CursorKeyset.descodificar(null));
+        assertNull(CursorKeyset.descodificar(" "));
+    }
+
+    @Test
+    void unCursorMalFormatEsRebutjaAmbIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> CursorKeyset.descodificar("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> CursorKeyset.descodificar(codificarText("sense-separador")));
+        assertThrows(IllegalArgumentException.class, () -> CursorKeyset.descodificar(codificarText("2024-05-17|abc")));
+    }
+
+    @Test
+    void unaClauQueNoEsUnaDataEsRebutjaAmbIllegalArgumentException() {
+        CursorKeyset.Posicio posicio = CursorKeyset.descodificar(codificarText("ahir|7"));
+
+        assertThrows(IllegalArgumentException.class, posicio::clauData);
+    }
+
+    private static String codificarText(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,39 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Comanda;
+import com.bicifood.api.entity.LiniaComanda;
+import com.bicifood.api.entity.Producte;
+import com.bicifood.api.entity.Usuari;
+
+/**
+ * Construcció de comandes per a les proves, com les deixa el ComandaMapper a partir del DTO
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+final class DadesProva {
+
+    /** Client de data.sql */
+    static final int CLIENT = 1;
+
+    private DadesProva() {}
+
+    static Comanda comanda() {
+        Usuari client = new Usuari();
+        client.setId(CLIENT);
+        Comanda comanda = new Comanda();
+        comanda.setClient(client);
+        comanda.setAdrecaLliurament("Carrer de Prova 1");
+        comanda.setCpLliurament("08001");
+        return comanda;
+    }
+
+    static LiniaComanda linia(int producteId, int quantitat) {
+        Producte producte = new Producte();
+        producte.setId(producteId);
+        LiniaComanda linia = new LiniaComanda();
+        linia.setProducte(producte);
+        linia.setQuantitat(quantitat);
+        return linia;
+    }
+}
@@ -0,0 +1,119 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.EsdevenimentComanda;
+import com.bicifood.api.model.LliuramentAssignat;
+import com.bicifood.api.repository.LliuramentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Proves de la difusió per SSE com a subscriptor de l'outbox
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+class DifusioEstatsComandesTest {
+
+    private static final LocalDateTime ARA = LocalDateTime.of(2024, 5, 10, 13, 0);
+
+    private final LliuramentRepository lliuramentRepository = mock(LliuramentRepository.class);
+
+    private DifusioEstatsComandes difusio;
+
+    private long darrerId;
+
+    @BeforeEach
+    void preparar() {
+        // El repartidor 7 ja tenia assignada la comanda 50 abans d'arrencar
+        List<Object[]> pendents = new ArrayList<>();
+        pendents.add(new Object[] {7, 100, 50, "Carrer Major 1", "08001", ARA});
+        when(lliuramentRepository.findLliuramentsPendentsAssignats()).thenReturn(pendents);
+
+        difusio = new DifusioEstatsComandes();
+        ReflectionTestUtils.setField(difusio, "lliuramentRepository", lliuramentRepository);
+        ReflectionTestUtils.setField(difusio, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(difusio, "maximConnexions", 10);
+        ReflectionTestUtils.setField(difusio, "capacitatCua", 16);
+        ReflectionTestUtils.setField(difusio, "timeoutMs", 60_000L);
+        difusio.iniciar();
+    }
+
+    @AfterEach
+    void tancar() {
+        difusio.aturar();
+    }
+
+    @Test
+    void abansDeCarregarNoAcceptaEsdeveniments() {
+        assertThrows(IllegalStateException.class, () -> difusio.rebre(List.of(esdeveniment(50, RegistreEstats.EN_RUTA))));
+    }
+
+    @Test
+    void cadaRepartidorRepElsCanvisDeLesSevesComandes() throws InterruptedException {
+        difusio.carregar();
+        SseEmitter repartidor7 = difusio.subscriureRepartidor(7).orElseThrow();
+        SseEmitter repartidor8 = difusio.subscriureRepartidor(8).orElseThrow();
+        difusio.publicarAssignacions(8, List.of(new LliuramentAssignat(101, 51, "Carrer Major 2", "08002", ARA)));
+
+        difusio.rebre(List.of(esdeveniment(50, RegistreEstats.EN_RUTA), esdeveniment(51, RegistreEstats.EN_RUTA),
+                esdeveniment(51, RegistreEstats.LLIURADA)));
+        // Un esdeveniment repetit d'una comanda acabada ja no té repartidor
+        difusio.rebre(List.of(esdeveniment(51, RegistreEstats.LLIURADA)));
+
+        assertEquals(List.of("50 EN RUTA"), esperarEnviats(repartidor7, 1));
+        assertEquals(List.of("assignacio 51", "51 EN RUTA", "51 LLIURADA"), esperarEnviats(repartidor8, 3));
+    }
+
+    // Mètodes auxiliars
+
+    private EsdevenimentComanda esdeveniment(int comandaId, String estatNou) {
+        EsdevenimentComanda esdeveniment = new EsdevenimentComanda(comandaId, DadesProva.CLIENT, null, estatNou);
+        esdeveniment.setId(++darrerId);
+        return esdeveniment;
+    }
+
+    /**
+     * Dades enviades a un emissor que encara no té cap resposta associada; els enviaments són asíncrons
+     */
+    private static List<String> esperarEnviats(SseEmitter emissor, int esperats) throws InterruptedException {
+        List<String> enviats = List.of();
+        for (int intent = 0; intent < 200 && enviats.size() < esperats; intent++) {
+            Thread.sleep(10);
+            enviats = enviats(emissor);
+        }
+        Thread.sleep(50);
+        return enviats(emissor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> enviats(SseEmitter emissor) {
+        List<String> enviats = new ArrayList<>();
+        synchronized (emissor) {
+            Set<ResponseBodyEmitter.DataWithMediaType> dades =
+                    (Set<ResponseBodyEmitter.DataWithMediaType>) ReflectionTestUtils.getField(emissor, "earlySendAttempts");
+            for (ResponseBodyEmitter.DataWithMediaType dada : dades) {
+                if (dada.getData() instanceof DifusioEstatsComandes.CanviEstat canvi) {
+                    enviats.add(canvi.comandaId() + " " + canvi.estatNou());
+                } else if (dada.getData() instanceof LliuramentAssignat lliurament) {
+                    enviats.add("assignacio " + lliurament.comandaId());
+                }
+            }
+        }
+        return enviats;
+    }
+}
@@ -0,0 +1,83 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Comanda;
+import com.bicifood.api.repository.ProducteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Proves de l'escriptor de comandes amb group commit
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@SpringBootTest
+class EscriptorComandesTest {
+
+    /** Producte que cap altra prova fa servir */
+    private static final int PRODUCTE = 21;
+
+    @Autowired
+    private EscriptorComandes escriptorComandes;
+
+    @Autowired
+    private ProducteService producteService;
+
+    @Autowired
+    private ProducteRepository producteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void siElGrupEsDesfaEsTornenAProvarTambeLesComandesRebutjadesDinsDelGrup() throws Exception {
+        int stockInicial = producteRepository.findStockById(PRODUCTE).orElseThrow();
+        producteService.updateStock(PRODUCTE, 5);
+        CountDownLatch venut = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Una venda fora del grup bloqueja la fila i fa commit quan el grup ja l'ha llegida
+            Future<?> venda = executor.submit(() -> transactionTemplate.executeWithoutResult(estat -> {
+                jdbcTemplate.update("UPDATE producte SET stock = stock - 1 WHERE id_producte = ?", PRODUCTE);
+                venut.countDown();
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            venut.await();
+            // Dins del grup, la segona es rebutja perquè la primera s'emporta tot l'stock llegit
+            CompletableFuture<Comanda> totes = escriptorComandes.enviar(DadesProva.comanda(),
+                    List.of(DadesProva.linia(PRODUCTE, 5)), null);
+            CompletableFuture<Comanda> una = escriptorComandes.enviar(DadesProva.comanda(),
+                    List.of(DadesProva.linia(PRODUCTE, 1)), null);
+            venda.get();
+
+            assertThrows(ExecutionException.class, totes::get);
+            assertNotNull(una.get().getId());
+            assertEquals(3, producteRepository.findStockById(PRODUCTE).orElseThrow());
+        } finally {
+            executor.shutdown();
+            producteService.updateStock(PRODUCTE, stockInicial);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.BiciFoodApiApplication;
+import com.bicifood.api.entity.Producte;
+import com.bicifood.api.repository.ProducteRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de l'índex de preus del catàleg contra les consultes SQL de ProducteRepository
+ * amb 100.000 productes. Cada fork arrenca l'aplicació sense web amb una base de dades H2 pròpia;
+ * l'esquema és el de producció, sense índex sobre la columna de preu.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexPreusBenchmark {
+
+    static final int PRODUCTES = 100_000;
+
+    private static final BigDecimal MINIM = new BigDecimal("20.00");
+    private static final BigDecimal MAXIM = new BigDecimal("30.00");
+    private static final PageRequest PAGINA = PageRequest.of(50, 20);
+
+    private ConfigurableApplicationContext context;
+    private ProducteRepository producteRepository;
+    private CatalegProductes cataleg;
+
+    @Setup
+    public void preparar() {
+        context = new SpringApplicationBuilder(BiciFoodApiApplication.class)
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "spring.datasource.url=jdbc:h2:mem:bicifood_benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.bicifood=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+        producteRepository = context.getBean(ProducteRepository.class);
+        cataleg = context.getBean(CatalegProductes.class);
+        inserirProductes(context.getBean(JdbcTemplate.class));
+        cataleg.recarregar();
+    }
+
+    @TearDown
+    public void tancar() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Producte> rangPreusSql() {
+        return producteRepository.findByPreuBetween(MINIM, MAXIM, PAGINA);
+    }
+
+    @Benchmark
+    public Page<Producte> rangPreusIndex() {
+        return cataleg.snapshot().findByPreuBetween(MINIM, MAXIM, PAGINA);
+    }
+
+    @Benchmark
+    public Page<Producte> ordenatPerPreuSql() {
+        return producteRepository.findAllByOrderByPreuAsc(PAGINA);
+    }
+
+    @Benchmark
+    public Page<Producte> ordenatPerPreuIndex() {
+        return cataleg.snapshot().findAllOrderByPreu(true, PAGINA);
+    }
+
+    // Mètodes auxiliars
+
+    private static void inserirProductes(JdbcTemplate jdbcTemplate) {
+        List<Integer> categories = jdbcTemplate.queryForList("SELECT id_categoria FROM categoria", Integer.class);
+        Random random = new Random(7);
+        List<Object[]> files = new ArrayList<>(PRODUCTES);
+        for (int i = 0; i < PRODUCTES; i++) {
+            int id = 1_000_000 + i;
+            BigDecimal preu = BigDecimal.valueOf(100 + random.nextInt(9_900), 2);
+            files.add(new Object[] {id, "Producte " + id, preu, "images/producte.png", random.nextInt(60),
+                    categories.get(i % categories.size()), "Producte de prova " + id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO producte (id_producte, nom, preu, imatge_path, stock, id_categoria, "
+                + "descripcio) VALUES (?, ?, ?, ?, ?, ?, ?)", files);
+    }
+}
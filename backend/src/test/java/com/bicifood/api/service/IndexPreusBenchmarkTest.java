@@ -0,0 +1,32 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Executa {@link IndexPreusBenchmark} i comprova que l'índex de preus respon abans que l'SQL
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Tag("benchmark")
+class IndexPreusBenchmarkTest {
+
+    @Test
+    void lIndexDePreusEsMesRapidQueLaConsultaSql() throws Exception {
+        Map<String, Double> micros = Benchmarks.executar(IndexPreusBenchmark.class);
+
+        for (String cas : new String[] {"rangPreus", "ordenatPerPreu"}) {
+            double index = micros.get(cas + "Index");
+            double sql = micros.get(cas + "Sql");
+            System.out.printf("%s amb %d productes: %.1f us amb l'índex, %.1f us amb SQL (x%.0f)%n",
+                    cas, IndexPreusBenchmark.PRODUCTES, index, sql, sql / index);
+            assertTrue(index < sql, cas);
+        }
+    }
+}
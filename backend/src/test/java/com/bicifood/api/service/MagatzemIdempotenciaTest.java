@@ -0,0 +1,70 @@
+package com.bicifood.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Proves del magatzem de claus d'idempotència
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+class MagatzemIdempotenciaTest {
+
+    @Test
+    void laMateixaClauIPeticioRetornaElResultatDesat() {
+        MagatzemIdempotencia<Integer> magatzem = new MagatzemIdempotencia<>(10, 60_000);
+        AtomicInteger execucions = new AtomicInteger();
+
+        MagatzemIdempotencia.Resultat<Integer> primer = magatzem.executar("k", "a", execucions::incrementAndGet);
+        MagatzemIdempotencia.Resultat<Integer> repetit = magatzem.executar("k", "a", execucions::incrementAndGet);
+
+        assertFalse(primer.repetit());
+        assertTrue(repetit.repetit());
+        assertEquals(1, repetit.valor());
+        assertEquals(1, execucions.get());
+    }
+
+    @Test
+    void laMateixaClauAmbUnaPeticioDiferentEsRebutja() {
+        MagatzemIdempotencia<Integer> magatzem = new MagatzemIdempotencia<>(10, 60_000);
+        magatzem.executar("k", "a", () -> 1);
+
+        assertThrows(MagatzemIdempotencia.ClauReutilitzadaException.class, () -> magatzem.executar("k", "b", () -> 2));
+    }
+
+    @Test
+    void unaAccioFallidaAlliberaLaClauSenseConfondreLErrorAmbUnaReutilitzacio() {
+        MagatzemIdempotencia<Integer> magatzem = new MagatzemIdempotencia<>(10, 60_000);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> magatzem.executar("k", "a", () -> {
+            throw new IllegalStateException("El despatx encara no s'ha carregat");
+        }));
+
+        assertFalse(error instanceof MagatzemIdempotencia.ClauReutilitzadaException);
+        assertEquals(2, magatzem.executar("k", "a", () -> 2).valor());
+    }
+
+    @Test
+    void lesPeticionsFallidesAmbClausNovesNoFanCreixerElMagatzem() {
+        MagatzemIdempotencia<Integer> magatzem = new MagatzemIdempotencia<>(10, 60_000);
+        magatzem.executar("bona", "a", () -> 1);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThrows(IllegalStateException.class, () -> magatzem.executar(UUID.randomUUID().toString(), "a", () -> {
+                throw new IllegalStateException("Stock insuficient");
+            }));
+        }
+
+        assertEquals(1, magatzem.size());
+        assertEquals(1, magatzem.midaOrdre());
+        assertTrue(magatzem.executar("bona", "a", () -> 2).repetit());
+    }
+}
@@ -0,0 +1,78 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.model.PlaViatges;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de l'agrupació en viatges amb la configuració per defecte. Les comandes es
+ * reparteixen entre 40 codis postals de Barcelona i les dues hores anteriors, amb 1 a 6 unitats.
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlanificadorViatgesBenchmark {
+
+    @Param({"500", "5000", "50000"})
+    private int comandes;
+
+    private PlanificadorViatges planificador;
+    private List<PlanificadorViatges.ComandaViatge> entrada;
+
+    @Setup
+    public void preparar() {
+        planificador = planificador();
+        entrada = comandes(comandes);
+    }
+
+    @Benchmark
+    public PlaViatges agrupar() {
+        return planificador.agrupar(entrada);
+    }
+
+    /**
+     * Planificador sense context de Spring, amb els valors per defecte de application.properties
+     */
+    static PlanificadorViatges planificador() {
+        PlanificadorViatges planificador = new PlanificadorViatges();
+        ReflectionTestUtils.setField(planificador, "capacitatBossa", 12);
+        ReflectionTestUtils.setField(planificador, "maximComandes", 4);
+        ReflectionTestUtils.setField(planificador, "distanciaCp", 2);
+        ReflectionTestUtils.setField(planificador, "finestraMinuts", 20L);
+        return planificador;
+    }
+
+    static List<PlanificadorViatges.ComandaViatge> comandes(int nombre) {
+        Random random = new Random(7);
+        LocalDateTime ara = LocalDateTime.of(2024, 5, 10, 13, 0);
+        List<PlanificadorViatges.ComandaViatge> comandes = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            String codiPostal = String.format("080%02d", 1 + random.nextInt(40));
+            comandes.add(new PlanificadorViatges.ComandaViatge(i + 1, codiPostal,
+                    ara.minusSeconds(random.nextInt(7_200)), 1 + random.nextInt(6)));
+        }
+        return comandes;
+    }
+}
@@ -0,0 +1,51 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.Benchmarks;
+import com.bicifood.api.model.PlaViatges;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Executa {@link PlanificadorViatgesBenchmark} i comprova que el cost de l'agrupació creix
+ * gairebé linealment amb el nombre de comandes
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@Tag("benchmark")
+class PlanificadorViatgesBenchmarkTest {
+
+    @Test
+    void lAgrupacioEscalaGairebeLinealment() throws Exception {
+        assertCadaComandaEnUnViatge();
+
+        Map<String, Double> micros = Benchmarks.executar(PlanificadorViatgesBenchmark.class);
+
+        double anterior = 0;
+        for (int comandes : new int[] {500, 5000, 50000}) {
+            double temps = micros.get("agrupar[comandes=" + comandes + "]");
+            System.out.printf("Agrupar %d comandes: %.0f us (%.2f us per comanda)%n", comandes, temps, temps / comandes);
+            // Deu vegades més comandes; un cost quadràtic en seria cent
+            assertTrue(anterior == 0 || temps < anterior * 25, comandes + " comandes");
+            anterior = temps;
+        }
+        assertTrue(micros.get("agrupar[comandes=5000]") < 100_000, "5000 comandes en menys de 100 ms");
+    }
+
+    /**
+     * La mesura només té sentit si el pla és complet
+     */
+    private static void assertCadaComandaEnUnViatge() {
+        PlaViatges pla = PlanificadorViatgesBenchmark.planificador().agrupar(PlanificadorViatgesBenchmark.comandes(5000));
+        Set<Integer> comandaIds = new HashSet<>();
+        pla.viatges().forEach(viatge -> viatge.comandaIds().forEach(id -> assertTrue(comandaIds.add(id), "repetida " + id)));
+        assertEquals(5000, comandaIds.size());
+    }
+}
@@ -0,0 +1,60 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.model.SeguimentComanda;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Proves de la recepció asíncrona de comandes
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@SpringBootTest
+class RecepcioComandesTest {
+
+    /** Producte amb stock de sobres per a totes les peticions */
+    private static final int PRODUCTE = 17;
+
+    @Autowired
+    private EscriptorComandes escriptorComandes;
+
+    @Autowired
+    private CatalegProductes cataleg;
+
+    @Test
+    void aturarAcabaLesPeticionsAcceptadesINoEnAcceptaDeNoves() throws Exception {
+        // Una recepció pròpia per no aturar la del context compartit; l'escriptor és el real
+        RecepcioComandes recepcio = new RecepcioComandes();
+        ReflectionTestUtils.setField(recepcio, "escriptorComandes", escriptorComandes);
+        ReflectionTestUtils.setField(recepcio, "cataleg", cataleg);
+        ReflectionTestUtils.setField(recepcio, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(recepcio, "capacitatCua", 100);
+        ReflectionTestUtils.setField(recepcio, "treballadors", 4);
+        ReflectionTestUtils.setField(recepcio, "retencioSegons", 3600L);
+        ReflectionTestUtils.setField(recepcio, "esperaAturadaSegons", 30L);
+        recepcio.iniciar();
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ids.add(recepcio.encuar(DadesProva.comanda(), List.of(DadesProva.linia(PRODUCTE, 1)), null)
+                    .orElseThrow().id());
+        }
+        recepcio.aturar();
+
+        assertTrue(recepcio.encuar(DadesProva.comanda(), List.of(DadesProva.linia(PRODUCTE, 1)), null).isEmpty());
+        for (String id : ids) {
+            SeguimentComanda seguiment = recepcio.findById(id).orElseThrow();
+            assertEquals(SeguimentComanda.Estat.COMPLETADA, seguiment.estat(), () -> id + ": " + seguiment.error());
+        }
+    }
+}
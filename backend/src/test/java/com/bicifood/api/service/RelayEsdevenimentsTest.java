@@ -0,0 +1,153 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.EsdevenimentComanda;
+import com.bicifood.api.entity.PosicioSubscriptor;
+import com.bicifood.api.repository.EsdevenimentComandaRepository;
+import com.bicifood.api.repository.PosicioSubscriptorRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Proves del relay de l'outbox amb transaccions que fan commit fora d'ordre
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+class RelayEsdevenimentsTest {
+
+    private static final String NOM = "prova";
+
+    /** Files visibles de la taula esdeveniment_comanda */
+    private final TreeMap<Long, EsdevenimentComanda> taula = new TreeMap<>();
+
+    /** Posicions desades a la base de dades */
+    private final Map<String, Long> desades = new HashMap<>();
+
+    private final List<Long> rebuts = new ArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RelayEsdeveniments relay;
+
+    @BeforeEach
+    void preparar() {
+        EsdevenimentComandaRepository esdevenimentRepository = mock(EsdevenimentComandaRepository.class);
+        when(esdevenimentRepository.findSeguents(anyLong(), any(Pageable.class))).thenAnswer(crida -> {
+            long darrerId = crida.getArgument(0);
+            Pageable pageable = crida.getArgument(1);
+            return taula.tailMap(darrerId, false).values().stream().limit(pageable.getPageSize()).toList();
+        });
+        when(esdevenimentRepository.findEntre(anyLong(), anyLong())).thenAnswer(crida -> {
+            long desDe = crida.getArgument(0);
+            long finsA = crida.getArgument(1);
+            return List.copyOf(taula.subMap(desDe, true, finsA, true).values());
+        });
+
+        PosicioSubscriptorRepository posicioRepository = mock(PosicioSubscriptorRepository.class);
+        when(posicioRepository.findById(NOM)).thenAnswer(crida ->
+                Optional.ofNullable(desades.get(NOM)).map(posicio -> new PosicioSubscriptor(NOM, posicio)));
+        when(posicioRepository.save(any(PosicioSubscriptor.class))).thenAnswer(crida -> {
+            PosicioSubscriptor posicio = crida.getArgument(0);
+            desades.put(posicio.getNom(), posicio.getDarrerEsdevenimentId());
+            return posicio;
+        });
+
+        SubscriptorEsdevenimentsComanda subscriptor = new SubscriptorEsdevenimentsComanda() {
+            @Override
+            public String getNom() {
+                return NOM;
+            }
+
+            @Override
+            public void rebre(List<EsdevenimentComanda> esdeveniments) {
+                esdeveniments.forEach(esdeveniment -> rebuts.add(esdeveniment.getId()));
+            }
+        };
+
+        relay = new RelayEsdeveniments();
+        ReflectionTestUtils.setField(relay, "esdevenimentRepository", esdevenimentRepository);
+        ReflectionTestUtils.setField(relay, "posicioRepository", posicioRepository);
+        ReflectionTestUtils.setField(relay, "subscriptors", List.of(subscriptor));
+        ReflectionTestUtils.setField(relay, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(relay, "midaLot", 200);
+        ReflectionTestUtils.setField(relay, "esperaBuitMs", 60_000L);
+        ReflectionTestUtils.setField(relay, "retencioHores", 24L);
+        relay.carregarPosicions();
+    }
+
+    @Test
+    void unEsdevenimentQueFaCommitTardEsEntregaQuanApareix() {
+        ferCommit(1);
+        ferCommit(3);
+        relay.publicar();
+
+        assertEquals(List.of(1L, 3L), rebuts);
+        assertEquals(3, relay.getPosicio(NOM));
+        // Després d'un reinici es tornaria a vigilar el 2
+        assertEquals(1, desades.get(NOM));
+
+        ferCommit(2);
+        ferCommit(4);
+        relay.publicar();
+
+        assertEquals(List.of(1L, 3L, 2L, 4L), rebuts);
+        assertEquals(4, desades.get(NOM));
+    }
+
+    @Test
+    void unBuitQueNoEsOmpleSAbandonaPassatElTempsDEspera() throws InterruptedException {
+        ReflectionTestUtils.setField(relay, "esperaBuitMs", 0L);
+        ferCommit(1);
+        ferCommit(4);
+        relay.publicar();
+        assertEquals(1, desades.get(NOM));
+
+        Thread.sleep(5);
+        ferCommit(5);
+        relay.publicar();
+
+        assertEquals(List.of(1L, 4L, 5L), rebuts);
+        assertEquals(5, desades.get(NOM));
+        assertEquals(2, meterRegistry.counter("bicifood.outbox.buits.abandonats").count());
+    }
+
+    @Test
+    void unBuitDeMesDeMilIdsTambeEsVigila() {
+        // Diverses operacions massives en curs poden deixar obert un rang d'IDs molt gran
+        ferCommit(1);
+        ferCommit(5_000);
+        relay.publicar();
+        assertEquals(1, desades.get(NOM));
+
+        ferCommit(2_500);
+        relay.publicar();
+
+        assertEquals(List.of(1L, 5_000L, 2_500L), rebuts);
+        assertEquals(5_000, relay.getPosicio(NOM));
+        assertEquals(1, desades.get(NOM));
+    }
+
+    // Mètodes auxiliars
+
+    private void ferCommit(long id) {
+        EsdevenimentComanda esdeveniment = new EsdevenimentComanda(100, 1, null, "PENDENT");
+        esdeveniment.setId(id);
+        taula.put(id, esdeveniment);
+    }
+}
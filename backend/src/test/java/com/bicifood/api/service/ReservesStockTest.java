@@ -0,0 +1,54 @@
+package com.bicifood.api.service;
+
+import com.bicifood.api.entity.Producte;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Proves de les reserves d'stock en memòria
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+@SpringBootTest
+class ReservesStockTest {
+
+    /** Producte que cap altra prova fa servir */
+    private static final int PRODUCTE = 21;
+
+    @Autowired
+    private ReservesStock reservesStock;
+
+    @Autowired
+    private CatalegProductes cataleg;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void lesUnitatsRetingudesPerUnaComandaNoEsPodenTornarAVendreFinsQueAcabaLaTransaccio() {
+        Producte producte = cataleg.snapshot().findById(PRODUCTE).orElseThrow();
+        Map<Integer, Producte> productes = Map.of(PRODUCTE, producte);
+        int stock = producte.getStock();
+        ReservesStock.Reserva reserva = reservesStock.reservar(Map.of(PRODUCTE, stock - 2));
+        try {
+            transactionTemplate.executeWithoutResult(estat -> {
+                reservesStock.retenirPerComanda(Map.of(PRODUCTE, 2), productes);
+                assertEquals(stock, reservesStock.reservades(PRODUCTE));
+                assertThrows(RuntimeException.class, () -> reservesStock.retenirPerComanda(Map.of(PRODUCTE, 2), productes));
+                assertThrows(RuntimeException.class, () -> reservesStock.reservar(Map.of(PRODUCTE, 1)));
+            });
+            assertEquals(stock - 2, reservesStock.reservades(PRODUCTE));
+        } finally {
+            reservesStock.alliberar(reserva.id());
+        }
+        assertEquals(0, reservesStock.reservades(PRODUCTE));
+    }
+}
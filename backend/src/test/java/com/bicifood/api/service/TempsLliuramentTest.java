@@ -0,0 +1,55 @@
+package com.bicifood.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Proves dels histogrames de temps de lliurament per codi postal
+ *
+ * @author BiciFood Team
+ * @version 1.0.0
+ */
+class TempsLliuramentTest {
+
+    private static final LocalDateTime ASSIGNACIO = LocalDateTime.of(2024, 5, 10, 13, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TempsLliurament tempsLliurament;
+
+    @BeforeEach
+    void preparar() {
+        tempsLliurament = new TempsLliurament();
+        ReflectionTestUtils.setField(tempsLliurament, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tempsLliurament, "maximCodisPostals", 2);
+    }
+
+    @Test
+    void elsCodisPostalsNoValidsIElsQuePassenDelMaximVanAAltres() {
+        registrar(" 08001 ");
+        registrar("08001");
+        registrar("08002");
+        registrar("08003");
+        registrar("Barcelona");
+        registrar("8001");
+
+        assertEquals(Set.of("08001", "08002", TempsLliurament.ALTRES), tempsLliurament.getPerCodiPostal().keySet());
+        assertEquals(2, tempsLliurament.getPerCodiPostal().get("08001").mostres());
+        assertEquals(3, tempsLliurament.getPerCodiPostal().get(TempsLliurament.ALTRES).mostres());
+        // Tres percentils per cada clau
+        assertEquals(9, meterRegistry.find("bicifood.lliuraments.temps.cp").gauges().size());
+    }
+
+    // Mètodes auxiliars
+
+    private void registrar(String codiPostal) {
+        tempsLliurament.registrar(null, codiPostal, ASSIGNACIO, ASSIGNACIO.plusMinutes(20));
+    }
+}
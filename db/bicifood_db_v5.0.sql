@@ -66,6 +66,9 @@ CREATE TABLE `comanda` (
   PRIMARY KEY (`id_comanda`),
   KEY `fk_comanda_client` (`id_client`),
   KEY `fk_comanda_estat` (`id_estat`),
+  KEY `idx_comanda_data` (`data_hora_comanda`,`id_comanda`),
+  KEY `idx_comanda_client_data` (`id_client`,`data_hora_comanda`,`id_comanda`),
+  KEY `idx_comanda_estat_data` (`id_estat`,`data_hora_comanda`,`id_comanda`),
   CONSTRAINT `fk_comanda_client` FOREIGN KEY (`id_client`) REFERENCES `usuari` (`id_usuari`),
   CONSTRAINT `fk_comanda_estat` FOREIGN KEY (`id_estat`) REFERENCES `estat_comanda` (`id_estat`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -80,6 +83,34 @@ LOCK TABLES `comanda` WRITE;
 /*!40000 ALTER TABLE `comanda` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `esdeveniment_comanda`
+--
+
+DROP TABLE IF EXISTS `esdeveniment_comanda`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `esdeveniment_comanda` (
+  `id_esdeveniment` bigint NOT NULL,
+  `id_comanda` int NOT NULL,
+  `id_client` int DEFAULT NULL,
+  `estat_anterior` varchar(50) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
+  `estat_nou` varchar(50) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `data_hora` datetime(6) NOT NULL,
+  PRIMARY KEY (`id_esdeveniment`),
+  KEY `idx_esdeveniment_data` (`data_hora`,`id_esdeveniment`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `esdeveniment_comanda`
+--
+
+LOCK TABLES `esdeveniment_comanda` WRITE;
+/*!40000 ALTER TABLE `esdeveniment_comanda` DISABLE KEYS */;
+/*!40000 ALTER TABLE `esdeveniment_comanda` ENABLE KEYS */;
+UNLOCK TABLES;
+
 --
 -- Table structure for table `estat_comanda`
 --
@@ -166,6 +197,30 @@ LOCK TABLES `lliurament` WRITE;
 /*!40000 ALTER TABLE `lliurament` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `posicio_subscriptor`
+--
+
+DROP TABLE IF EXISTS `posicio_subscriptor`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `posicio_subscriptor` (
+  `nom_subscriptor` varchar(100) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `id_darrer_esdeveniment` bigint NOT NULL,
+  `data_hora_actualitzacio` datetime(6) DEFAULT NULL,
+  PRIMARY KEY (`nom_subscriptor`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `posicio_subscriptor`
+--
+
+LOCK TABLES `posicio_subscriptor` WRITE;
+/*!40000 ALTER TABLE `posicio_subscriptor` DISABLE KEYS */;
+/*!40000 ALTER TABLE `posicio_subscriptor` ENABLE KEYS */;
+UNLOCK TABLES;
+
 --
 -- Table structure for table `producte`
 --
@@ -288,6 +343,50 @@ LOCK TABLES `usuari` WRITE;
 /*!40000 ALTER TABLE `usuari` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `seq_comanda`
+-- (seqüència amb pool per a Hibernate: MySQL no té SEQUENCE i s'emula amb una taula)
+--
+
+DROP TABLE IF EXISTS `seq_comanda`;
+CREATE TABLE `seq_comanda` (
+  `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+INSERT INTO `seq_comanda` VALUES (1);
+
+--
+-- Table structure for table `seq_esdeveniment_comanda`
+-- (seqüència amb pool per a Hibernate: MySQL no té SEQUENCE i s'emula amb una taula)
+--
+
+DROP TABLE IF EXISTS `seq_esdeveniment_comanda`;
+CREATE TABLE `seq_esdeveniment_comanda` (
+  `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+INSERT INTO `seq_esdeveniment_comanda` VALUES (1);
+
+--
+-- Table structure for table `seq_linia_comanda`
+-- (seqüència amb pool per a Hibernate: MySQL no té SEQUENCE i s'emula amb una taula)
+--
+
+DROP TABLE IF EXISTS `seq_linia_comanda`;
+CREATE TABLE `seq_linia_comanda` (
+  `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+INSERT INTO `seq_linia_comanda` VALUES (1);
+
+--
+-- Table structure for table `seq_lliurament`
+-- (seqüència amb pool per a Hibernate: MySQL no té SEQUENCE i s'emula amb una taula)
+--
+
+DROP TABLE IF EXISTS `seq_lliurament`;
+CREATE TABLE `seq_lliurament` (
+  `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+INSERT INTO `seq_lliurament` VALUES (1);
+
 --
 -- Dumping events for database 'bicifood_db'
 --